@@ -0,0 +1,51 @@
+package com.fullstack.FlightManagementSystem.Audit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//What a mutation pays for its audit entry: building it and putting it on the journal queue, with four request threads
+//and the writer group-committing behind them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AuditJournalBenchmark {
+
+	AuditJournal journal;
+
+	@Setup
+	public void setUp() throws IOException {
+		journal = new AuditJournal(new SimpleMeterRegistry(), true, Files.createTempDirectory("fms-audit-bench").toString(),
+				64 << 20, 65536, 512, true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		journal.flush(10, TimeUnit.SECONDS);
+		journal.stop();
+	}
+
+	@Benchmark
+	public boolean append() {
+		return journal.append(AuditEvent.of("bench@fms.com", AuditEvent.Action.PASSENGER_SAVED, 42, 7));
+	}
+}
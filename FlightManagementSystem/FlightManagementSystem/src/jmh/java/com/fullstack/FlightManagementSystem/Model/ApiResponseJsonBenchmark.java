@@ -0,0 +1,78 @@
+package com.fullstack.FlightManagementSystem.Model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+//Serializing a flight listing the way the controllers return it. The mapper is built with the same
+//builder Spring Boot uses, so modules and defaults match the running app
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseJsonBenchmark {
+
+	@Param({ "20", "200", "2000" })
+	int flights;
+
+	@Param({ "0", "10" })
+	int passengersPerFlight;
+
+	ObjectWriter writer;
+	ApiResponse<List<Flight>> response;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper om = Jackson2ObjectMapperBuilder.json().build();
+		writer = om.writer();
+		List<Flight> list = new ArrayList<>(flights);
+		for (int i = 1; i <= flights; i++) {
+			Flight f = new Flight();
+			f.setF_id(i);
+			f.setName("AI-" + i);
+			f.setSource("City" + i % 40);
+			f.setDestination("City" + (i * 7) % 40);
+			f.setTime("10:" + (10 + i % 50));
+			f.setPrice(BigDecimal.valueOf(2500 + i % 9000, 2));
+			f.setImg("https://images.example.com/flights/" + i + ".jpg");
+			f.setCapacity(180);
+			f.setSeatsAvailable(180 - passengersPerFlight);
+			for (int p = 0; p < passengersPerFlight; p++) {
+				Passengers ps = new Passengers();
+				ps.setP_id(i * 100 + p);
+				ps.setFirstName("First" + p);
+				ps.setLastName("Last" + i);
+				ps.setAge(20 + p);
+				ps.setFlight(f);
+				f.getPassengers().add(ps);
+			}
+			list.add(f);
+		}
+		response = new ApiResponse<>(200, "Data Found", list);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return writer.writeValueAsBytes(response);
+	}
+}
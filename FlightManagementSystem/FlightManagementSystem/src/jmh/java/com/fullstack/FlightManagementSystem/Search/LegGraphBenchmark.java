@@ -0,0 +1,87 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//The 5 best itineraries with up to 2 stops and a 45 minute connection, between two small airports that have no
+//direct flight. The network is hub and spoke: 300 airports, 12 of them hubs, with most legs touching a hub and
+//departures spread over a week
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class LegGraphBenchmark {
+	private static final int AIRPORTS = 300;
+	private static final int HUBS = 12;
+	private static final int MINUTES = 7 * 24 * 60;
+
+	@Param({ "20000", "60000" })
+	int legs;
+
+	LegGraph graph;
+
+	@Setup
+	public void setUp() {
+		Random r = new Random(7);
+		graph = new LegGraph();
+		for (int id = 1; id <= legs; id++) {
+			String from;
+			String to;
+			double kind = r.nextDouble();
+			if (kind < 0.3) {
+				from = airport(r.nextInt(HUBS));
+				to = airport(r.nextInt(HUBS));
+			} else if (kind < 0.9) {
+				boolean out = r.nextBoolean();
+				String hub = airport(r.nextInt(HUBS));
+				String spoke = airport(HUBS + r.nextInt(AIRPORTS - HUBS));
+				from = out ? hub : spoke;
+				to = out ? spoke : hub;
+			} else {
+				from = airport(HUBS + r.nextInt(AIRPORTS - HUBS));
+				to = airport(HUBS + r.nextInt(AIRPORTS - HUBS));
+			}
+			if (from.equals(to) || from.equals("A100") && to.equals("A200")) {
+				id--;
+				continue;
+			}
+			long departure = r.nextInt(MINUTES);
+			graph.put(new LegGraph.Leg(id, from, to, departure, departure + 60 + r.nextInt(300), 3000_00 + r.nextInt(200) * 50_00));
+		}
+	}
+
+	private static String airport(int i) {
+		return "A" + i;
+	}
+
+	@Benchmark
+	public List<LegGraph.Plan> cheapest() {
+		return graph.plan("A100", "A200", 5, 2, 45, RoutePlanner.Rank.PRICE, id -> true);
+	}
+
+	@Benchmark
+	public List<LegGraph.Plan> fastest() {
+		return graph.plan("A100", "A200", 5, 2, 45, RoutePlanner.Rank.DURATION, id -> true);
+	}
+
+	//Between two hubs, where the direct flights and one-stop alternatives are plentiful
+	@Benchmark
+	public List<LegGraph.Plan> cheapestBetweenHubs() {
+		return graph.plan("A1", "A2", 5, 2, 45, RoutePlanner.Rank.PRICE, id -> true);
+	}
+}
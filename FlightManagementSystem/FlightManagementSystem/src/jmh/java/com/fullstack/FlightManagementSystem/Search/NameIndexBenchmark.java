@@ -0,0 +1,87 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
+
+//First page (20 results) of a passenger name search. Names are drawn from common first and last names with a
+//Zipf-like skew, so popular names repeat and share prefixes the way a real passenger list does. 180 passengers per flight
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class NameIndexBenchmark {
+	private static final String[] FIRST = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+			"William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles",
+			"Karen", "Aarav", "Priya", "Vivaan", "Ananya", "Aditya", "Diya", "Arjun", "Isha", "Rohan", "Kavya", "Mohammed",
+			"Fatima", "Ahmed", "Aisha", "Omar", "Layla", "Wei", "Mei", "Hiroshi", "Yuki", "Sofia", "Mateo", "Lucia", "Santiago",
+			"Valentina", "Liam", "Emma", "Noah", "Olivia", "Lukas", "Hannah", "Jose", "Maria", "Juan", "Ana", "Carlos",
+			"Isabella", "Luca", "Giulia", "Pierre", "Camille", "Olga", "Ivan", "Anastasia", "Kwame", "Amara", "Chinedu",
+			"Ngozi", "Siddharth", "Meera", "Rahul", "Sneha", "Vikram", "Pooja", "Karthik", "Lakshmi", "Johanna", "Jonas" };
+	private static final String[] LAST = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+			"Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+			"Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis",
+			"Robinson", "Sharma", "Patel", "Singh", "Kumar", "Gupta", "Reddy", "Iyer", "Nair", "Menon", "Chatterjee",
+			"Banerjee", "Mukherjee", "Khan", "Ali", "Hussain", "Wang", "Li", "Zhang", "Liu", "Chen", "Tanaka", "Suzuki",
+			"Sato", "Kim", "Park", "Nguyen", "Muller", "Schmidt", "Schneider", "Fischer", "Weber", "Rossi", "Russo",
+			"Ferrari", "Dubois", "Moreau", "Ivanov", "Smirnov", "Okafor", "Mensah", "Silva", "Santos", "Oliveira", "Costa",
+			"O'Brien", "Murphy", "Kelly", "Schmitt", "Smithers", "Krishnan" };
+
+	@Param({ "100000", "1000000" })
+	int passengers;
+
+	NameIndex index;
+
+	//Rank r is picked with weight 1 / (r + 1)
+	static String pick(Random r, String[] names) {
+		double u = r.nextDouble() * Math.log(names.length + 1);
+		return names[Math.min(names.length - 1, (int) Math.exp(u) - 1)];
+	}
+
+	@Setup
+	public void setUp() {
+		Random r = new Random(42);
+		index = new NameIndex();
+		for (int id = 1; id <= passengers; id++) {
+			index.put(id, id / 180, pick(r, FIRST), pick(r, LAST));
+		}
+	}
+
+	//Two letters: every passenger with a word starting with them is ranked
+	@Benchmark
+	public List<PassengerMatch> shortPrefix() {
+		return index.search("ma", null, 20, -1);
+	}
+
+	@Benchmark
+	public List<PassengerMatch> fullName() {
+		return index.search("Meera Krishnan", null, 20, -1);
+	}
+
+	//A swapped pair and a dropped letter, so both terms go through the bigram filter and the edit distance
+	@Benchmark
+	public List<PassengerMatch> typos() {
+		return index.search("Meeta Krishan", null, 20, -1);
+	}
+
+	@Benchmark
+	public List<PassengerMatch> scopedToFlight() {
+		return index.search("ma", 77, 20, -1);
+	}
+}
@@ -0,0 +1,102 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+//Token generation and the ways a token gets read. cacheSize=0 measures the full signature check on every call, the
+//default size measures the verified-token cache. legacyFilterPath is what the auth filter did before parseToken,
+//kept for comparison with parseToken
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+	static final String SECRET = "BenchmarkSecretKeyForJWTTokenGenerationShouldBe32BytesOrLonger12345";
+
+	@Param({ "10000", "0" })
+	int cacheSize;
+
+	JwtUtil ju;
+	Users user;
+	String token;
+
+	@Setup
+	public void setUp() {
+		ju = jwtUtil(cacheSize);
+		user = user();
+		token = ju.generateToken(user);
+	}
+
+	static JwtUtil jwtUtil(int cacheSize) {
+		JwtUtil ju = new JwtUtil();
+		ReflectionTestUtils.setField(ju, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(ju, "jwtExpirationMs", 86400000);
+		ReflectionTestUtils.setField(ju, "cacheMaxSize", cacheSize);
+		ju.init();
+		return ju;
+	}
+
+	static Users user() {
+		Users u = new Users();
+		u.setId(42);
+		u.setEmail("bench@fms.com");
+		u.setName("Bench");
+		u.setRole(UserRole.CUSTOMER);
+		return u;
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return ju.generateToken(user);
+	}
+
+	@Benchmark
+	public String extractEmail() {
+		return ju.extractEmail(token);
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return ju.validateToken(token, user.getEmail());
+	}
+
+	@Benchmark
+	public Claims parseToken() {
+		return ju.parseToken(token);
+	}
+
+	//extractEmail and validateToken as they were: three parse-and-verify passes, each with a key built from the secret
+	@Benchmark
+	public boolean legacyFilterPath() {
+		String email = legacyParser().parseSignedClaims(token).getPayload().getSubject();
+		return legacyParser().parseSignedClaims(token).getPayload().getSubject().equals(email)
+				&& !legacyParser().parseSignedClaims(token).getPayload().getExpiration().before(new Date());
+	}
+
+	private static JwtParser legacyParser() {
+		return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+	}
+}
@@ -0,0 +1,81 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+//One authenticated request through JwtAuthenticationFilter, up to the rest of the chain.
+//token=legacy is a token without the uid/role claims, which still loads the user (here from a stub, so
+//the number is the filter's own cost and not the database's)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+	@Param({ "claims", "legacy" })
+	String token;
+
+	JwtAuthenticationFilter filter;
+	String header;
+
+	@Setup
+	public void setUp() {
+		JwtUtil ju = JwtBenchmark.jwtUtil(10000);
+		UserDetailsService uds = email -> User.withUsername(email).password("").authorities("ROLE_CUSTOMER").build();
+		filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "ju", ju);
+		ReflectionTestUtils.setField(filter, "uds", uds);
+		//Some revocations on record, so the revocation check reads a populated filter
+		RevokedTokens rt = new RevokedTokens(new SimpleMeterRegistry(), 100000, 0.01);
+		Date exp = new Date(System.currentTimeMillis() + 86400000L);
+		for (int i = 0; i < 10000; i++) {
+			rt.revoke(UUID.randomUUID().toString(), exp);
+		}
+		ReflectionTestUtils.setField(filter, "rt", rt);
+		if (token.equals("claims")) {
+			header = "Bearer " + ju.generateToken(JwtBenchmark.user());
+		} else {
+			header = "Bearer " + Jwts.builder().subject("bench@fms.com").issuedAt(new Date())
+					.expiration(new Date(System.currentTimeMillis() + 86400000L))
+					.signWith(Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes())).compact();
+		}
+	}
+
+	@Benchmark
+	public void authenticate(Blackhole bh) throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/FMS/findAll");
+		request.addHeader("Authorization", header);
+		FilterChain chain = (req, res) -> bh.consume(SecurityContextHolder.getContext().getAuthentication());
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		SecurityContextHolder.clearContext();
+	}
+}
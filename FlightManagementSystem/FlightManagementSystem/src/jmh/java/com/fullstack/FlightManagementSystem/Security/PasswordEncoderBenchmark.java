@@ -0,0 +1,52 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fullstack.FlightManagementSystem.Config.SecurityConfig;
+
+//BCrypt as login and register use it. The encoder comes from SecurityConfig itself, so a change of cost
+//shows up here without touching the benchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+	PasswordEncoder encoder;
+	String hash;
+
+	@Setup
+	public void setUp() {
+		encoder = new SecurityConfig().passwordEncoder();
+		hash = encoder.encode("correct horse battery staple");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("correct horse battery staple", hash);
+	}
+
+	@Benchmark
+	public boolean mismatch() {
+		return encoder.matches("wrong password", hash);
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode("correct horse battery staple");
+	}
+}
@@ -0,0 +1,54 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+//What the rate limit adds to every request: the rule lookup and one token from the caller's bucket. callers=1 is
+//every thread on the same bucket (CAS contention), callers=10000 spreads them over the stripes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimiterBenchmark {
+
+	@Param({ "1", "10000" })
+	int callers;
+
+	RateLimiter rl;
+	String[] keys;
+
+	@Setup
+	public void setUp() {
+		rl = new RateLimiter(true, "/auth/=10:0.5,/FMS/findAll=1000000000:1000000000,/=100:50", 100000, 64);
+		keys = new String[callers];
+		for (int i = 0; i < callers; i++) {
+			keys[i] = "u:user" + i + "@fms.com";
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Caller {
+		int next;
+	}
+
+	@Benchmark
+	public long acquire(Caller c) {
+		String key = keys[c.next++ % keys.length];
+		return rl.acquire(rl.rule("/FMS/findAll"), key);
+	}
+}
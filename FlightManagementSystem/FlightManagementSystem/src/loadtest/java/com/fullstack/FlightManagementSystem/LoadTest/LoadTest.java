@@ -0,0 +1,341 @@
+package com.fullstack.FlightManagementSystem.LoadTest;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullstack.FlightManagementSystem.FlightManagementSystemApplication;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+import com.fullstack.FlightManagementSystem.Service.FlightImporter;
+import com.fullstack.FlightManagementSystem.Service.IdSequences;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+//Boots the application on an embedded PostgreSQL (or H2 with -db=h2, e.g. where postgres refuses to run as root),
+//seeds it, and runs a closed-loop mixed workload: every worker thread sends its next request as soon as the
+//previous one returns. Latencies after the warmup go into one HdrHistogram per operation.
+//
+//Options (all -name=value): flights, passengers, users, concurrency, duration and warmup (seconds),
+//mix (e.g. login:5,search:60,book:15,manifest:20; find and rfind compare JPA and reactive reads), seed, db (postgres|h2), out (result JSON file),
+//threads (platform, virtual or platform,virtual to run both and compare; virtual needs Java 21), pool (size of the
+//JDBC and R2DBC connection pools), queryDelayMs (extra latency added to every JDBC execution, to model a slow database)
+//and importRows (after the workload, stream a generated schedule of that many new flights through the flight importer)
+public class LoadTest {
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> o = options(args);
+		File out = new File(o.getOrDefault("out", "target/loadtest-result.json"));
+		String[] modes = o.getOrDefault("threads", "platform").split(",");
+		Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+		for (String mode : modes) {
+			results.put(mode.trim(), run(o, mode.trim()));
+		}
+		if (results.size() > 1) {
+			System.out.printf("%n%-9s %12s %14s %14s %9s%n", "threads", "total ops/s", "search p99 ms", "book p99 ms", "errors");
+			results.forEach((mode, r) -> System.out.printf("%-9s %12.1f %14.2f %14.2f %9d%n", mode, r.get("totalThroughputPerSecond"),
+					endpoint(r, "search", "p99Ms"), endpoint(r, "book", "p99Ms"), ((Number) r.get("errors")).longValue()));
+		}
+		out.getAbsoluteFile().getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results.size() == 1 ? results.values().iterator().next() : results);
+		System.out.println("Results written to " + out.getPath());
+	}
+
+	//One application lifecycle: boot on a fresh database with platform or virtual request threads, seed, measure
+	private static Map<String, Object> run(Map<String, String> o, String threads) throws Exception {
+		int flights = Integer.parseInt(o.getOrDefault("flights", "2000"));
+		int passengers = Integer.parseInt(o.getOrDefault("passengers", "50000"));
+		int users = Integer.parseInt(o.getOrDefault("users", "1000"));
+		int concurrency = Integer.parseInt(o.getOrDefault("concurrency", "32"));
+		int duration = Integer.parseInt(o.getOrDefault("duration", "60"));
+		int warmup = Integer.parseInt(o.getOrDefault("warmup", "10"));
+		long seed = Long.parseLong(o.getOrDefault("seed", "42"));
+		Map<Workload.Op, Integer> mix = mix(o.getOrDefault("mix", "login:5,search:60,book:15,manifest:20"));
+		String db = o.getOrDefault("db", "postgres");
+		int pool = Integer.parseInt(o.getOrDefault("pool", String.valueOf(Math.max(10, concurrency / 2))));
+		int queryDelayMs = Integer.parseInt(o.getOrDefault("queryDelayMs", "0"));
+		int importRows = Integer.parseInt(o.getOrDefault("importRows", "0"));
+		if (!threads.equals("platform") && !threads.equals("virtual")) {
+			throw new IllegalArgumentException("-threads takes platform, virtual or both, got " + threads);
+		}
+		if (threads.equals("virtual") && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads need Java 21+, this is Java " + Runtime.version().feature());
+		}
+
+		EmbeddedPostgres pg = null;
+		Map<String, Object> props = new HashMap<>();
+		if (db.equals("postgres")) {
+			pg = EmbeddedPostgres.builder().start();
+			props.put("spring.datasource.url", pg.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+			props.put("spring.datasource.username", "postgres");
+			props.put("spring.datasource.password", "postgres");
+			props.put("app.r2dbc.url", "r2dbc:postgresql://localhost:" + pg.getPort() + "/postgres");
+			props.put("app.r2dbc.username", "postgres");
+			props.put("app.r2dbc.password", "postgres");
+		} else {
+			props.put("spring.datasource.url", "jdbc:h2:mem:loadtest-" + threads + ";LOCK_TIMEOUT=10000;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+			props.put("spring.datasource.username", "sa");
+			props.put("spring.datasource.password", "");
+			props.put("app.r2dbc.url", "r2dbc:h2:mem:///loadtest-" + threads + "?options=LOCK_TIMEOUT=10000;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+			props.put("app.r2dbc.username", "sa");
+			props.put("app.r2dbc.password", "");
+		}
+		props.put("spring.jpa.hibernate.ddl-auto", "create");
+		props.put("spring.datasource.hikari.maximum-pool-size", pool);
+		props.put("app.r2dbc.pool.max-size", pool);
+		props.put("spring.threads.virtual.enabled", threads.equals("virtual"));
+		props.put("server.port", "0");
+		props.put("logging.level.root", "WARN");
+		//Latency is measured here; under saturation the slow query log would only add contention on the console
+		props.put("app.queries.slow-sample-rate", "0");
+		//Every simulated client shares one address and a handful of accounts; the limits would measure themselves
+		props.put("app.rate-limit.enabled", "false");
+		System.setProperty("spring.devtools.restart.enabled", "false");
+
+		//Passed as command line arguments: builder default properties would lose to the application.properties on the
+		//test classpath, which points at H2
+		String[] appArgs = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(FlightManagementSystemApplication.class);
+		if (queryDelayMs > 0) {
+			builder.initializers(slowQueries(queryDelayMs));
+		}
+		ConfigurableApplicationContext app = builder.run(appArgs);
+		try {
+			checkDatabase(app, (String) props.get("spring.datasource.url"));
+			System.out.printf("%nSeeding %d flights, %d passengers, %d users (seed %d) on %s, %s threads, pool %d, +%d ms per query%n",
+					flights, passengers, users, seed, db, threads, pool, queryDelayMs);
+			SyntheticData data = new SyntheticData(seed, flights, passengers, users);
+			data.seed(app.getBean(JdbcTemplate.class), app.getBean(PasswordEncoder.class), 1_000_000);
+			app.getBean(IdSequences.class).run(null);
+			app.getBean(RouteIndex.class).rebuild();
+
+			String base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+			HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+			Workload workload = new Workload(http, base, data.routes(), flights, users);
+			Map<String, Object> result = run(workload, concurrency, warmup, duration, mix, seed, users);
+			if (importRows > 0) {
+				result.put("import", importSchedule(app, importRows));
+			}
+			result.put("config", new LinkedHashMap<>(Map.ofEntries(Map.entry("flights", flights), Map.entry("passengers", passengers),
+					Map.entry("users", users), Map.entry("concurrency", concurrency), Map.entry("durationSeconds", duration),
+					Map.entry("warmupSeconds", warmup), Map.entry("seed", seed), Map.entry("db", db), Map.entry("threads", threads),
+					Map.entry("pool", pool), Map.entry("queryDelayMs", queryDelayMs), Map.entry("importRows", importRows),
+					Map.entry("mix", o.getOrDefault("mix", "login:5,search:60,book:15,manifest:20")))));
+			return result;
+		} finally {
+			app.close();
+			if (pg != null) {
+				pg.close();
+			}
+		}
+	}
+
+	//Bulk import throughput, and the heap left in use by it (the importer is meant to keep memory flat however large the file)
+	private static Map<String, Object> importSchedule(ConfigurableApplicationContext app, int rows) {
+		Runtime rt = Runtime.getRuntime();
+		ImportReport report = app.getBean(FlightImporter.class).importFlights(SyntheticData.scheduleCsv(rows), FlightImporter.Format.CSV);
+		long heapMb = (rt.totalMemory() - rt.freeMemory()) >> 20;
+		System.out.printf("%nImport: %d rows, %d inserted, %d failed in %d ms, %d rows/s, heap used after %d MB%n", report.getRowsRead(),
+				report.getInserted(), report.getFailed(), report.getElapsedMs(), report.getRowsPerSecond(), heapMb);
+		return new LinkedHashMap<>(Map.of("rows", report.getRowsRead(), "inserted", report.getInserted(), "failed", report.getFailed(),
+				"elapsedMs", report.getElapsedMs(), "rowsPerSecond", report.getRowsPerSecond(), "heapUsedMbAfter", heapMb));
+	}
+
+	//Simulates a slow database: every JDBC execution waits queryDelayMs while holding its connection.
+	//Registered before the application's own post-processors, so the query counter still wraps the delayed source
+	private static ApplicationContextInitializer<ConfigurableApplicationContext> slowQueries(int queryDelayMs) {
+		return context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof DataSource ds)) {
+					return bean;
+				}
+				return ProxyDataSourceBuilder.create(ds).name(beanName + "-slow").beforeQuery((execInfo, queries) -> {
+					try {
+						Thread.sleep(queryDelayMs);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}).build();
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static double endpoint(Map<String, Object> result, String op, String key) {
+		Map<String, Object> e = ((Map<String, Map<String, Object>>) result.get("endpoints")).get(op);
+		return e == null ? 0 : ((Number) e.get(key)).doubleValue();
+	}
+
+	//Fails the run rather than measure the wrong database: the context must have resolved the datasource asked for
+	private static void checkDatabase(ConfigurableApplicationContext app, String url) throws SQLException {
+		String resolved = app.getEnvironment().getProperty("spring.datasource.url");
+		String connected;
+		try (Connection c = app.getBean(DataSource.class).getConnection()) {
+			connected = c.getMetaData().getURL();
+		}
+		String driver = url.substring(0, url.indexOf(':', "jdbc:".length()) + 1);
+		if (!url.equals(resolved) || connected == null || !connected.startsWith(driver)) {
+			throw new IllegalStateException("Load test asked for " + url + " but the application resolved " + resolved
+					+ " and is connected to " + connected);
+		}
+	}
+
+	private static Map<String, Object> run(Workload workload, int concurrency, int warmup, int duration,
+			Map<Workload.Op, Integer> mix, long seed, int users) throws Exception {
+		Workload.Op[] wheel = wheel(mix);
+		Map<Workload.Op, Recorder> recorders = new EnumMap<>(Workload.Op.class);
+		Map<Workload.Op, Map<Integer, LongAdder>> statuses = new EnumMap<>(Workload.Op.class);
+		for (Workload.Op op : Workload.Op.values()) {
+			recorders.put(op, new Recorder(3));
+			statuses.put(op, new ConcurrentHashMap<>());
+		}
+		//A handful of logged-in customers and one staff user shared by the workers
+		List<String> customerTokens = new ArrayList<>();
+		for (int i = 0; i < Math.min(users, 50); i++) {
+			customerTokens.add(workload.login(SyntheticData.customerEmail(i)));
+		}
+		String staffToken = workload.login(SyntheticData.staffEmail());
+
+		long startNanos = System.nanoTime();
+		long measureFrom = startNanos + warmup * 1_000_000_000L;
+		long end = measureFrom + duration * 1_000_000_000L;
+		CountDownLatch done = new CountDownLatch(concurrency);
+		LongAdder failures = new LongAdder();
+		for (int t = 0; t < concurrency; t++) {
+			int id = t;
+			Thread worker = new Thread(() -> {
+				Random random = new Random(seed * 31 + id);
+				String token = customerTokens.get(id % customerTokens.size());
+				try {
+					while (true) {
+						long now = System.nanoTime();
+						if (now >= end) {
+							break;
+						}
+						Workload.Op op = wheel[random.nextInt(wheel.length)];
+						int status;
+						try {
+							status = workload.run(op, random, token, staffToken);
+						} catch (Exception e) {
+							failures.increment();
+							status = -1;
+						}
+						long took = System.nanoTime() - now;
+						if (now >= measureFrom) {
+							recorders.get(op).recordValue(Math.max(1, took / 1000));
+							statuses.get(op).computeIfAbsent(status, s -> new LongAdder()).increment();
+						}
+					}
+				} finally {
+					done.countDown();
+				}
+			}, "loadtest-" + t);
+			worker.setDaemon(true);
+			worker.start();
+		}
+		done.await();
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		System.out.printf("%n%-9s %9s %9s %9s %9s %9s %9s %9s %7s%n", "op", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms",
+				"p99.9 ms", "max ms", "errors");
+		long total = 0;
+		for (Workload.Op op : Workload.Op.values()) {
+			Histogram h = recorders.get(op).getIntervalHistogram();
+			long errors = statuses.get(op).entrySet().stream().filter(e -> !op.isExpected(e.getKey()))
+					.mapToLong(e -> e.getValue().sum()).sum();
+			Map<String, Object> e = new LinkedHashMap<>();
+			e.put("count", h.getTotalCount());
+			e.put("throughputPerSecond", h.getTotalCount() / (double) duration);
+			e.put("p50Ms", ms(h.getValueAtPercentile(50)));
+			e.put("p90Ms", ms(h.getValueAtPercentile(90)));
+			e.put("p99Ms", ms(h.getValueAtPercentile(99)));
+			e.put("p999Ms", ms(h.getValueAtPercentile(99.9)));
+			e.put("maxMs", ms(h.getMaxValue()));
+			e.put("meanMs", h.getMean() / 1000.0);
+			Map<String, Long> byStatus = new LinkedHashMap<>();
+			statuses.get(op).forEach((s, n) -> byStatus.put(String.valueOf(s), n.sum()));
+			e.put("statuses", byStatus);
+			e.put("errors", errors);
+			endpoints.put(op.name().toLowerCase(), e);
+			total += h.getTotalCount();
+			System.out.printf("%-9s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n", op.name().toLowerCase(), h.getTotalCount(),
+					h.getTotalCount() / (double) duration, ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+					ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()), errors);
+		}
+		System.out.printf("total     %9d %9.1f   (errors: unexpected status or no response; %d without a response)%n", total,
+				total / (double) duration, failures.sum());
+		result.put("totalThroughputPerSecond", total / (double) duration);
+		result.put("errors", endpoints.values().stream().mapToLong(e -> (Long) ((Map<?, ?>) e).get("errors")).sum());
+		result.put("requestsWithoutResponse", failures.sum());
+		result.put("endpoints", endpoints);
+		return result;
+	}
+
+	private static double ms(long micros) {
+		return micros / 1000.0;
+	}
+
+	//Each op appears on the wheel as many times as its weight
+	private static Workload.Op[] wheel(Map<Workload.Op, Integer> mix) {
+		List<Workload.Op> wheel = new ArrayList<>();
+		mix.forEach((op, weight) -> {
+			for (int i = 0; i < weight; i++) {
+				wheel.add(op);
+			}
+		});
+		if (wheel.isEmpty()) {
+			throw new IllegalArgumentException("The workload mix has no weight");
+		}
+		return wheel.toArray(new Workload.Op[0]);
+	}
+
+	private static Map<Workload.Op, Integer> mix(String spec) {
+		Map<Workload.Op, Integer> mix = new EnumMap<>(Workload.Op.class);
+		for (String part : spec.split(",")) {
+			String[] kv = part.trim().split(":");
+			mix.put(Workload.Op.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+		}
+		return mix;
+	}
+
+	private static Map<String, String> options(String[] args) {
+		Map<String, String> o = new HashMap<>();
+		for (String a : args) {
+			String s = a.replaceFirst("^-+", "");
+			int eq = s.indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("Options look like -name=value, got " + a);
+			}
+			o.put(s.substring(0, eq), s.substring(eq + 1));
+		}
+		return o;
+	}
+}
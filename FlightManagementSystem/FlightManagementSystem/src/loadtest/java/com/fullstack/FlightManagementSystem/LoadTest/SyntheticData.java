@@ -0,0 +1,129 @@
+package com.fullstack.FlightManagementSystem.LoadTest;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+//Seeds users, flights and passengers straight through JDBC batches. The same seed always produces the same
+//data, so two runs (or two releases) are measured against identical databases
+public class SyntheticData {
+	static final String[] CITIES = { "Delhi", "Mumbai", "Bengaluru", "Chennai", "Kolkata", "Hyderabad", "Pune", "Goa",
+			"Jaipur", "Kochi", "Ahmedabad", "Lucknow", "Chandigarh", "Indore", "Bhopal", "Nagpur", "Patna", "Ranchi",
+			"Guwahati", "Srinagar", "Leh", "Varanasi", "Amritsar", "Udaipur", "Madurai", "Mangaluru", "Coimbatore",
+			"Visakhapatnam", "Bhubaneswar", "Dehradun" };
+	static final String PASSWORD = "LoadTest#123";
+	private static final int BATCH = 1000;
+	//Seeded flights depart on this day, imported ones at 10:00 on it
+	static final OffsetDateTime SCHEDULE_DAY = OffsetDateTime.parse("2026-11-02T00:00:00Z");
+
+	public record Route(String source, String destination) {
+	}
+
+	private final Random random;
+	private final int flights;
+	private final int passengers;
+	private final int users;
+	private final List<Route> routes = new ArrayList<>();
+
+	public SyntheticData(long seed, int flights, int passengers, int users) {
+		this.random = new Random(seed);
+		this.flights = flights;
+		this.passengers = passengers;
+		this.users = users;
+	}
+
+	public static String customerEmail(int i) {
+		return "customer" + i + "@loadtest.fms";
+	}
+
+	public static String staffEmail() {
+		return "staff@loadtest.fms";
+	}
+
+	public List<Route> routes() {
+		return routes;
+	}
+
+	//Ids are written explicitly; IdSequences moves the sequences past them afterwards.
+	//Every flight keeps headroomSeats free so bookings do not run into sold-out flights
+	public void seed(JdbcTemplate jdbc, PasswordEncoder encoder, int headroomSeats) {
+		//One hash for everyone: BCrypt per user would take longer than the run itself
+		String hash = encoder.encode(PASSWORD);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		rows.add(new Object[] { staffEmail(), hash, "Load Staff", "STAFF", now, now });
+		for (int i = 0; i < users; i++) {
+			rows.add(new Object[] { customerEmail(i), hash, "Customer " + i, "CUSTOMER", now, now });
+			rows = flush(jdbc, "insert into users (email, password, name, role, created_at, updated_at) values (?, ?, ?, ?, ?, ?)", rows, false);
+		}
+		flush(jdbc, "insert into users (email, password, name, role, created_at, updated_at) values (?, ?, ?, ?, ?, ?)", rows, true);
+		List<Integer> userIds = jdbc.queryForList("select id from users where role = 'CUSTOMER' order by id", Integer.class);
+
+		int perFlight = flights == 0 ? 0 : (passengers + flights - 1) / flights;
+		rows = new ArrayList<>(BATCH);
+		for (int f = 1; f <= flights; f++) {
+			int s = random.nextInt(CITIES.length);
+			int d = (s + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+			routes.add(new Route(CITIES[s], CITIES[d]));
+			int capacity = perFlight + headroomSeats;
+			OffsetDateTime departure = SCHEDULE_DAY.plusHours(random.nextInt(24)).plusMinutes(random.nextInt(12) * 5);
+			rows.add(new Object[] { f, "FL-" + f, CITIES[s], CITIES[d], String.format("%02d:%02d", departure.getHour(), departure.getMinute()),
+					departure, departure.plusHours(2), BigDecimal.valueOf(1500 + random.nextInt(15000)), null, capacity, capacity });
+			rows = flush(jdbc, "insert into flight (f_id, name, source, destination, time, departure, arrival, price, img, capacity, seats_available) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows, false);
+		}
+		flush(jdbc, "insert into flight (f_id, name, source, destination, time, departure, arrival, price, img, capacity, seats_available) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows, true);
+
+		rows = new ArrayList<>(BATCH);
+		for (int p = 1; p <= passengers; p++) {
+			int flight = (p - 1) % flights + 1;
+			Integer user = userIds.isEmpty() || random.nextInt(4) == 0 ? null : userIds.get(random.nextInt(userIds.size()));
+			rows.add(new Object[] { p, "First" + random.nextInt(5000), "Last" + random.nextInt(20000), 1 + random.nextInt(90), flight, user });
+			rows = flush(jdbc, "insert into passengers (p_id, first_name, last_name, age, flight_id, user_id) values (?, ?, ?, ?, ?, ?)", rows, false);
+		}
+		flush(jdbc, "insert into passengers (p_id, first_name, last_name, age, flight_id, user_id) values (?, ?, ?, ?, ?, ?)", rows, true);
+		//Seats already taken by the seeded passengers
+		jdbc.update("update flight f set seats_available = capacity - (select count(*) from passengers p where p.flight_id = f.f_id)");
+	}
+
+	//A flight schedule CSV of the given number of new flights for FlightImporter, generated while it is read so the
+	//file never exists as a whole
+	public static InputStream scheduleCsv(int rows) {
+		return new InputStream() {
+			private final String departure = SCHEDULE_DAY.plusHours(10).toString();
+			private byte[] line = "name,source,destination,departure,price\n".getBytes(StandardCharsets.UTF_8);
+			private int pos;
+			private int row;
+
+			@Override
+			public int read() {
+				if (pos == line.length) {
+					if (row == rows) {
+						return -1;
+					}
+					row++;
+					line = ("IMP-" + row + "," + CITIES[row % CITIES.length] + "," + CITIES[(row * 7 + 1) % CITIES.length] + "," + departure + ","
+							+ BigDecimal.valueOf(row % 9000 + 1000) + "\n").getBytes(StandardCharsets.UTF_8);
+					pos = 0;
+				}
+				return line[pos++];
+			}
+		};
+	}
+
+	private static List<Object[]> flush(JdbcTemplate jdbc, String sql, List<Object[]> rows, boolean last) {
+		if (rows.size() < BATCH && !(last && !rows.isEmpty())) {
+			return rows;
+		}
+		jdbc.batchUpdate(sql, rows);
+		return new ArrayList<>(BATCH);
+	}
+}
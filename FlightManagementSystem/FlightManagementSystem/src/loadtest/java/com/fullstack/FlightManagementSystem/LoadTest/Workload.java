@@ -0,0 +1,106 @@
+package com.fullstack.FlightManagementSystem.LoadTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//The operations a virtual user performs. Each returns the HTTP status; the body is read to the end so the
+//measured time includes the whole response
+public class Workload {
+	//Statuses that are normal answers: searches for a route without flights are 404, a sold-out booking is 409.
+	//FIND and RFIND read one flight with its passengers through JPA and through the reactive (R2DBC) API
+	public enum Op {
+		LOGIN(200), SEARCH(302, 404), BOOK(201, 409), MANIFEST(200), FIND(302), RFIND(302);
+
+		private final Set<Integer> expected;
+
+		Op(Integer... expected) {
+			this.expected = Set.of(expected);
+		}
+
+		public boolean isExpected(int status) {
+			return expected.contains(status);
+		}
+	}
+
+	private final HttpClient http;
+	private final String base;
+	private final ObjectMapper om = new ObjectMapper();
+	private final List<SyntheticData.Route> routes;
+	private final int flights;
+	private final int users;
+
+	public Workload(HttpClient http, String base, List<SyntheticData.Route> routes, int flights, int users) {
+		this.http = http;
+		this.base = base;
+		this.routes = routes;
+		this.flights = flights;
+		this.users = users;
+	}
+
+	public int run(Op op, Random random, String customerToken, String staffToken) throws IOException, InterruptedException {
+		return switch (op) {
+		case LOGIN -> send(post("/auth/login", null, "{\"email\":\"" + SyntheticData.customerEmail(random.nextInt(users))
+				+ "\",\"password\":\"" + SyntheticData.PASSWORD + "\"}"));
+		case SEARCH -> {
+			//Mostly routes that exist, some that do not
+			SyntheticData.Route r = random.nextInt(10) == 0
+					? new SyntheticData.Route(SyntheticData.CITIES[random.nextInt(SyntheticData.CITIES.length)], "Nowhere")
+					: routes.get(random.nextInt(routes.size()));
+			yield send(get("/FMS/findBySourceAndDestination?source=" + encode(r.source()) + "&destination=" + encode(r.destination()), customerToken));
+		}
+		case BOOK -> send(post("/FMS/savePassenger/" + (1 + random.nextInt(flights)), customerToken,
+				"{\"firstName\":\"Load" + random.nextInt(100000) + "\",\"lastName\":\"Test\",\"age\":" + (18 + random.nextInt(60)) + "}"));
+		case MANIFEST -> send(get("/FMS/Passenger/export?flightId=" + (1 + random.nextInt(flights)), staffToken));
+		case FIND -> send(get("/FMS/find/" + (1 + random.nextInt(flights)), customerToken));
+		case RFIND -> send(get("/FMS/reactive/find/" + (1 + random.nextInt(flights)), customerToken));
+		};
+	}
+
+	public String login(String email) throws IOException, InterruptedException {
+		HttpResponse<String> res = http.send(post("/auth/login", null,
+				"{\"email\":\"" + email + "\",\"password\":\"" + SyntheticData.PASSWORD + "\"}"), HttpResponse.BodyHandlers.ofString());
+		if (res.statusCode() != 200) {
+			throw new IllegalStateException("Login for " + email + " failed with " + res.statusCode() + ": " + res.body());
+		}
+		JsonNode body = om.readTree(res.body());
+		return body.get("token").asText();
+	}
+
+	private int send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<InputStream> res = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream in = res.body()) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return res.statusCode();
+	}
+
+	private HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(URI.create(base + path)).header("Authorization", "Bearer " + token).GET().build();
+	}
+
+	private HttpRequest post(String path, String token, String json) {
+		HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path)).header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			b.header("Authorization", "Bearer " + token);
+		}
+		return b.build();
+	}
+
+	private static String encode(String s) {
+		return URLEncoder.encode(s, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,68 @@
+package com.fullstack.FlightManagementSystem.Audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+//One entry of the audit journal: who (actor) did what (action) to which flight or passenger, and when.
+//seq is given by the journal writer and keeps counting across segments and restarts; flightId is 0 when there is none.
+//
+//Payload layout (inside the journal's [length][crc32c] frame), big endian:
+//version(1) seq(8) at(8) action(1) entityId(4) flightId(4) actorLength(2) actor(UTF-8)
+public record AuditEvent(long seq, long at, String actor, Action action, int entityId, int flightId) {
+	public enum Action {
+		FLIGHT_CREATED, FLIGHT_UPDATED, FLIGHT_DELETED, PASSENGER_SAVED, PASSENGER_UPDATED, PASSENGER_DELETED
+	}
+
+	static final byte VERSION = 1;
+	static final int FIXED_BYTES = 1 + 8 + 8 + 1 + 4 + 4 + 2;
+	static final int MAX_ACTOR_BYTES = 512;
+
+	//Before the writer has numbered it
+	public static AuditEvent of(String actor, Action action, int entityId, int flightId) {
+		return new AuditEvent(0, System.currentTimeMillis(), actor, action, entityId, flightId);
+	}
+
+	AuditEvent withSeq(long seq) {
+		return new AuditEvent(seq, at, actor, action, entityId, flightId);
+	}
+
+	byte[] actorBytes() {
+		byte[] b = actor.getBytes(StandardCharsets.UTF_8);
+		if (b.length <= MAX_ACTOR_BYTES) {
+			return b;
+		}
+		byte[] cut = new byte[MAX_ACTOR_BYTES];
+		System.arraycopy(b, 0, cut, 0, MAX_ACTOR_BYTES);
+		return cut;
+	}
+
+	void writeTo(ByteBuffer buf, byte[] actorBytes) {
+		buf.put(VERSION).putLong(seq).putLong(at).put((byte) action.ordinal()).putInt(entityId).putInt(flightId)
+				.putShort((short) actorBytes.length).put(actorBytes);
+	}
+
+	//Reads exactly one payload of the given length, or throws IllegalArgumentException if it does not parse
+	static AuditEvent readFrom(ByteBuffer buf, int length) {
+		if (length < FIXED_BYTES || buf.get() != VERSION) {
+			throw new IllegalArgumentException("Not an audit record");
+		}
+		long seq = buf.getLong();
+		long at = buf.getLong();
+		int action = buf.get();
+		int entityId = buf.getInt();
+		int flightId = buf.getInt();
+		int actorLength = buf.getShort() & 0xffff;
+		if (action < 0 || action >= Action.values().length || FIXED_BYTES + actorLength != length) {
+			throw new IllegalArgumentException("Not an audit record");
+		}
+		byte[] actor = new byte[actorLength];
+		buf.get(actor);
+		return new AuditEvent(seq, at, new String(actor, StandardCharsets.UTF_8), Action.values()[action], entityId, flightId);
+	}
+
+	@Override
+	public String toString() {
+		return seq + "\t" + Instant.ofEpochMilli(at) + "\t" + actor + "\t" + action + "\t" + entityId + "\t" + (flightId == 0 ? "-" : flightId);
+	}
+}
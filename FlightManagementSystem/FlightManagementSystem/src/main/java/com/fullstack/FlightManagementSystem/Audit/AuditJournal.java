@@ -0,0 +1,288 @@
+package com.fullstack.FlightManagementSystem.Audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+//Append-only audit trail of flight and booking changes. The change events are journaled once their transaction has
+//committed; the request thread only puts the entry on a lock-free queue. One writer thread drains the queue, numbers
+//the entries, copies a batch into the current memory-mapped segment and forces it to disk once per batch (group
+//commit). Records are framed as [length][crc32c][payload], see AuditEvent; a segment that has no room for the next
+//record is finished and the next one is named after the first seq it holds. Every start opens a new segment, so a
+//record torn by a crash is only ever at the end of one. AuditJournalReader reads and replays the files.
+//
+//If the queue holds app.audit.queue-capacity entries the new one is dropped and counted (fms.audit.dropped) rather
+//than making the request wait
+@Component
+public class AuditJournal {
+	private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+	private static final String SYSTEM = "system";
+
+	private final boolean enabled;
+	private final Path dir;
+	private final int segmentBytes;
+	private final int capacity;
+	private final int batchSize;
+	private final boolean force;
+
+	private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicLong accepted = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private final Counter dropped;
+	private final Counter failed;
+	private final Counter events;
+	private final DistributionSummary batches;
+
+	private FileChannel lockChannel;
+	private FileLock lock;
+	private Thread writer;
+	private volatile boolean idle;
+	private volatile boolean stopping;
+
+	//Only touched by the writer thread
+	private MappedByteBuffer segment;
+	private long nextSeq;
+	private final CRC32C crc = new CRC32C();
+
+	@Autowired
+	public AuditJournal(MeterRegistry meters, @Value("${app.audit.enabled:true}") boolean enabled, @Value("${app.audit.dir:audit}") String dir,
+			@Value("${app.audit.segment-bytes:67108864}") int segmentBytes, @Value("${app.audit.queue-capacity:65536}") int capacity,
+			@Value("${app.audit.batch-size:512}") int batchSize, @Value("${app.audit.force:true}") boolean force) {
+		if (segmentBytes < 4096) {
+			throw new IllegalArgumentException("app.audit.segment-bytes must be at least 4096");
+		}
+		this.enabled = enabled;
+		this.dir = Paths.get(dir).toAbsolutePath();
+		this.segmentBytes = segmentBytes;
+		this.capacity = Math.max(1, capacity);
+		this.batchSize = Math.max(1, batchSize);
+		this.force = force;
+		this.dropped = Counter.builder("fms.audit.dropped").description("Audit entries dropped because the journal queue was full")
+				.register(meters);
+		this.failed = Counter.builder("fms.audit.failed").description("Audit entries that could not be written").register(meters);
+		this.events = Counter.builder("fms.audit.events").description("Audit entries written to the journal").register(meters);
+		this.batches = DistributionSummary.builder("fms.audit.batch").description("Audit entries per group commit").register(meters);
+		Gauge.builder("fms.audit.queue", queued, AtomicInteger::get).description("Audit entries waiting for the writer").register(meters);
+		if (enabled) {
+			open();
+		}
+	}
+
+	private void open() {
+		try {
+			Files.createDirectories(dir);
+			//One writer per directory, a second process (or a second context in the same JVM) fails here
+			lockChannel = FileChannel.open(dir.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			lock = lockChannel.tryLock();
+			if (lock == null) {
+				throw new IllegalStateException("Audit journal " + dir + " is in use by another process");
+			}
+			List<Path> segments = AuditJournalReader.segments(dir);
+			nextSeq = 1;
+			if (!segments.isEmpty()) {
+				Path last = segments.get(segments.size() - 1);
+				AuditJournalReader.Result r = new AuditJournalReader.Result();
+				AuditJournalReader.read(last, Long.MAX_VALUE, e -> {
+				}, r);
+				nextSeq = Math.max(AuditJournalReader.firstSeq(last), r.getLastSeq() + 1);
+				r.getProblems().forEach(p -> log.warn("Audit journal: {}", p));
+				if (nextSeq == AuditJournalReader.firstSeq(last)) {
+					Files.delete(last); //not one intact record in it, the new segment takes its name
+				}
+			}
+			roll();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not open the audit journal in " + dir, e);
+		}
+		writer = new Thread(this::drain, "audit-journal");
+		writer.setDaemon(true);
+		writer.start();
+		log.info("Audit journal in {}, next seq {}", dir, nextSeq);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		AuditEvent.Action action = switch (e.getType()) {
+		case SAVED -> AuditEvent.Action.FLIGHT_CREATED;
+		case UPDATED -> AuditEvent.Action.FLIGHT_UPDATED;
+		case DELETED -> AuditEvent.Action.FLIGHT_DELETED;
+		};
+		record(action, e.getFlightId(), e.getFlightId());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPassengerChanged(PassengerChangedEvent e) {
+		AuditEvent.Action action = switch (e.getType()) {
+		case SAVED -> AuditEvent.Action.PASSENGER_SAVED;
+		case UPDATED -> AuditEvent.Action.PASSENGER_UPDATED;
+		case DELETED -> AuditEvent.Action.PASSENGER_DELETED;
+		};
+		record(action, e.getPassengerId(), e.getFlightId() == null ? 0 : e.getFlightId());
+	}
+
+	//The caller is whoever is signed in on this thread, "system" for work without a user (startup, scheduled jobs)
+	public boolean record(AuditEvent.Action action, int entityId, int flightId) {
+		if (!enabled) {
+			return false;
+		}
+		Authentication a = SecurityContextHolder.getContext().getAuthentication();
+		String actor = a != null && a.isAuthenticated() && !(a instanceof AnonymousAuthenticationToken) ? a.getName() : SYSTEM;
+		return append(AuditEvent.of(actor, action, entityId, flightId));
+	}
+
+	boolean append(AuditEvent e) {
+		if (stopping || queued.incrementAndGet() > capacity) {
+			queued.decrementAndGet();
+			dropped.increment();
+			return false;
+		}
+		accepted.incrementAndGet();
+		queue.offer(e);
+		if (idle) {
+			LockSupport.unpark(writer);
+		}
+		return true;
+	}
+
+	//Waits until everything accepted so far is on disk (tests, shutdown). False if that took longer than the timeout
+	public boolean flush(long timeout, TimeUnit unit) {
+		long target = accepted.get();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (written.get() < target) {
+			if (writer == null || System.nanoTime() - deadline > 0) {
+				return false;
+			}
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(100_000);
+		}
+		return true;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public Path getDir() {
+		return dir;
+	}
+
+	@PreDestroy
+	void stop() {
+		if (writer == null) {
+			return;
+		}
+		stopping = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			lock.release();
+			lockChannel.close();
+		} catch (IOException e) {
+			log.warn("Could not release the audit journal lock", e);
+		}
+	}
+
+	private void drain() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		while (true) {
+			AuditEvent e;
+			while (batch.size() < batchSize && (e = queue.poll()) != null) {
+				batch.add(e);
+			}
+			if (batch.isEmpty()) {
+				if (stopping) {
+					return;
+				}
+				idle = true;
+				if (queue.isEmpty() && !stopping) {
+					LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+				}
+				idle = false;
+				continue;
+			}
+			queued.addAndGet(-batch.size());
+			try {
+				write(batch);
+				events.increment(batch.size());
+			} catch (Exception ex) {
+				failed.increment(batch.size());
+				log.error("Could not write {} audit entries", batch.size(), ex);
+				segment = null; //start over on a new segment
+			}
+			batches.record(batch.size());
+			written.addAndGet(batch.size());
+			batch.clear();
+		}
+	}
+
+	private void write(List<AuditEvent> batch) throws IOException {
+		for (AuditEvent e : batch) {
+			byte[] actor = e.actorBytes();
+			int length = AuditEvent.FIXED_BYTES + actor.length;
+			//Room for the record plus the zero length that marks the end of the segment
+			if (segment == null || segment.remaining() < AuditJournalReader.FRAME_BYTES + length + 4) {
+				roll();
+			}
+			int start = segment.position();
+			segment.position(start + AuditJournalReader.FRAME_BYTES);
+			e.withSeq(nextSeq++).writeTo(segment, actor);
+			crc.reset();
+			crc.update(segment.slice(start + AuditJournalReader.FRAME_BYTES, length));
+			segment.putInt(start + 4, (int) crc.getValue());
+			segment.putInt(start, length); //last, so a reader never sees a length without its record
+		}
+		if (force) {
+			segment.force();
+		}
+	}
+
+	//Finishes the current segment and maps a new, zero-filled one named after the next seq
+	private void roll() throws IOException {
+		if (segment != null && force) {
+			segment.force();
+		}
+		Path file = dir.resolve(AuditJournalReader.segmentName(nextSeq));
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			segment = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.fullstack.FlightManagementSystem.Audit;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//Reads the segments AuditJournal writes, oldest first. Each segment is read up to its end marker (a zero length) or
+//up to the first record whose frame or CRC does not check out, which is where a crash tore a write; that is reported
+//and reading goes on with the next segment, since the journal always starts a fresh one after a restart.
+//
+//Also the replay tool, it needs nothing but the compiled classes:
+//  java -cp target/classes com.fullstack.FlightManagementSystem.Audit.AuditJournalReader <audit dir> [from seq]
+//prints one tab separated line per event (seq, time, actor, action, id, flight) and a summary on stderr
+public final class AuditJournalReader {
+	static final String PREFIX = "audit-";
+	static final String SUFFIX = ".log";
+	static final int FRAME_BYTES = 8; //length(4) + crc32c(4)
+
+	public static final class Result {
+		private long events;
+		private long lastSeq = -1;
+		private final List<String> problems = new ArrayList<>();
+
+		public long getEvents() {
+			return events;
+		}
+
+		//Highest seq found, -1 for an empty journal
+		public long getLastSeq() {
+			return lastSeq;
+		}
+
+		public List<String> getProblems() {
+			return problems;
+		}
+	}
+
+	private AuditJournalReader() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: AuditJournalReader <audit dir> [from seq]");
+			System.exit(2);
+		}
+		long from = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		Result r = replay(Paths.get(args[0]), from, System.out::println);
+		System.err.println(r.getEvents() + " events, last seq " + r.getLastSeq());
+		r.getProblems().forEach(p -> System.err.println("warning: " + p));
+	}
+
+	//Segment files sorted by the first seq in their name
+	public static List<Path> segments(Path dir) throws IOException {
+		if (!Files.isDirectory(dir)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> {
+				String n = p.getFileName().toString();
+				return n.startsWith(PREFIX) && n.endsWith(SUFFIX);
+			}).sorted().toList();
+		}
+	}
+
+	static String segmentName(long firstSeq) {
+		return String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX);
+	}
+
+	static long firstSeq(Path segment) {
+		String n = segment.getFileName().toString();
+		try {
+			return Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	//Hands every intact event with seq >= fromSeq to sink, in journal order
+	public static Result replay(Path dir, long fromSeq, Consumer<AuditEvent> sink) throws IOException {
+		Result r = new Result();
+		List<Path> segments = segments(dir);
+		for (int i = 0; i < segments.size(); i++) {
+			//Nothing to hand out from a segment when the next one already starts at or before fromSeq
+			boolean skip = i + 1 < segments.size() && firstSeq(segments.get(i + 1)) <= fromSeq;
+			read(segments.get(i), skip ? Long.MAX_VALUE : fromSeq, sink, r);
+		}
+		return r;
+	}
+
+	static void read(Path segment, long fromSeq, Consumer<AuditEvent> sink, Result r) throws IOException {
+		MappedByteBuffer buf;
+		try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+			buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+		CRC32C crc = new CRC32C();
+		int pos = 0;
+		while (buf.limit() - pos >= FRAME_BYTES) {
+			int length = buf.getInt(pos);
+			if (length == 0) {
+				return;
+			}
+			if (length < 0 || length > buf.limit() - pos - FRAME_BYTES) {
+				r.problems.add(segment.getFileName() + ": bad record length at byte " + pos + ", rest of the segment skipped");
+				return;
+			}
+			ByteBuffer payload = buf.slice(pos + FRAME_BYTES, length);
+			crc.reset();
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != buf.getInt(pos + 4)) {
+				r.problems.add(segment.getFileName() + ": checksum mismatch at byte " + pos + ", rest of the segment skipped");
+				return;
+			}
+			AuditEvent e;
+			try {
+				e = AuditEvent.readFrom(payload, length);
+			} catch (IllegalArgumentException | BufferUnderflowException ex) {
+				r.problems.add(segment.getFileName() + ": unreadable record at byte " + pos + ", rest of the segment skipped");
+				return;
+			}
+			r.lastSeq = Math.max(r.lastSeq, e.seq());
+			if (e.seq() >= fromSeq) {
+				r.events++;
+				sink.accept(e);
+			}
+			pos += FRAME_BYTES + length;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.fullstack.FlightManagementSystem.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import com.fullstack.FlightManagementSystem.Security.JwtAuthenticationFilter;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+@Configuration
+public class MetricsConfig {
+
+	//http.server.requests already carries uri, method and status; this adds the caller's role.
+	//The JWT filter leaves the role on the request, because the security context is cleared before the timer stops
+	@Bean
+	public ServerRequestObservationConvention roleTaggedRequests() {
+		return new DefaultServerRequestObservationConvention() {
+			@Override
+			public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+				Object role = context.getCarrier().getAttribute(JwtAuthenticationFilter.ROLE_ATTRIBUTE);
+				return super.getLowCardinalityKeyValues(context).and(KeyValue.of("role", role == null ? "NONE" : role.toString()));
+			}
+		};
+	}
+}
@@ -0,0 +1,73 @@
+package com.fullstack.FlightManagementSystem.Config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fullstack.FlightManagementSystem.Service.QueryCounter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+//Counts the statements each request runs and warns about requests over budget or repeating one statement (N+1).
+//Streamed exports run their queries after this returns, on the async thread, and are not counted
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+	@Autowired
+	private QueryCounter qc;
+
+	@Value("${app.queries.max-per-request:20}")
+	private int maxQueries;
+	@Value("${app.queries.max-repeats:5}") //same statement shape this many times in one request is flagged as N+1
+	private int maxRepeats;
+	@Value("${app.queries.unchecked-paths:/FMS/import}") //bulk endpoints, counted but never flagged
+	private String[] uncheckedPaths;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		QueryCounter.Scope scope = qc.open();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			//Closed before reporting, so the elapsed time stops with the request; the counts stay readable
+			scope.close();
+			report(request, scope);
+		}
+	}
+
+	private void report(HttpServletRequest request, QueryCounter.Scope scope) {
+		if (scope.count() == 0) {
+			return;
+		}
+		boolean overBudget = scope.count() > maxQueries;
+		boolean nPlusOne = scope.maxRepeats() >= maxRepeats;
+		if ((overBudget || nPlusOne) && !unchecked(request.getRequestURI())) {
+			log.warn("{}{} {} ran {} in {} ms", nPlusOne ? "Possible N+1: " : "Query budget exceeded: ",
+					request.getMethod(), request.getRequestURI(), scope, scope.elapsedMillis());
+		} else if (log.isDebugEnabled()) {
+			log.debug("{} {} ran {} in {} ms", request.getMethod(), request.getRequestURI(), scope, scope.elapsedMillis());
+		}
+	}
+
+	private boolean unchecked(String uri) {
+		for (String p : uncheckedPaths) {
+			if (!p.isBlank() && uri.startsWith(p.trim())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
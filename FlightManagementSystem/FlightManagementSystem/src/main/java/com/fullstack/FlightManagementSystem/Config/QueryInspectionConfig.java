@@ -0,0 +1,31 @@
+package com.fullstack.FlightManagementSystem.Config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fullstack.FlightManagementSystem.Service.QueryCounter;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+//Routes every JDBC execution through QueryCounter. Replaces show-sql, which printed each statement to stdout
+//on the request thread; statements are now counted per request and only slow ones are logged
+@Configuration
+public class QueryInspectionConfig {
+
+	@Bean
+	public static BeanPostProcessor queryCountingDataSource(ObjectProvider<QueryCounter> counter) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource ds) {
+					return ProxyDataSourceBuilder.create(ds).name(beanName).listener(counter.getObject()).build();
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -2,6 +2,14 @@ package com.fullstack.FlightManagementSystem.Config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +27,10 @@ import org.springframework.security.config.http.SessionCreationPolicy; //Session
 import org.springframework.security.web.SecurityFilterChain; //SecurityFilterChain: The main security configuration
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter; //UsernamePasswordAuthenticationFilter: Built-in Spring filter
 import com.fullstack.FlightManagementSystem.Security.JwtAuthenticationFilter; //JwtAuthenticationFilter: Your custom filter
+import com.fullstack.FlightManagementSystem.Security.RateLimitFilter; //RateLimitFilter: Per-caller token buckets
+import com.fullstack.FlightManagementSystem.Security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType; //DispatcherType: Lets async dispatches of streamed responses through
 import jakarta.servlet.http.HttpServletResponse; //HttpServletResponse: For custom error responses
 
 import com.fullstack.FlightManagementSystem.Model.Users;
@@ -29,6 +41,18 @@ import com.fullstack.FlightManagementSystem.Model.Users;
 public class SecurityConfig {
 	@Autowired
 	private UserRepository ur;
+	@Autowired
+	private RateLimiter rl;
+	@Autowired
+	private MeterRegistry meters;
+	
+	@Value("${app.metrics.username:metrics}")
+	private String metricsUser;
+	@Value("${app.metrics.password}")
+	private String metricsPassword;
+	//Raising it upgrades each stored hash on its owner's next login (PasswordHasher.isOutdated)
+	@Value("${app.auth.bcrypt-strength:10}")
+	private int bcryptStrength = 10;
 	
 	@Bean
 	public JwtAuthenticationFilter jwtAuthenticationFilter() {
@@ -37,7 +61,7 @@ public class SecurityConfig {
 
 	@Bean
 	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		return new BCryptPasswordEncoder(bcryptStrength);
 	}
 
 	@Bean
@@ -52,7 +76,26 @@ public class SecurityConfig {
 		};
 	}
 
+	// Actuator has its own chain: health is open, everything else (the Prometheus scrape) needs HTTP Basic
+	// with the scrape account from app.metrics.*. JWTs and application users are not accepted here.
+	@Bean
+	@Order(1)
+	public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+	    DaoAuthenticationProvider scraper = new DaoAuthenticationProvider(new InMemoryUserDetailsManager(
+	            User.withUsername(metricsUser).password("{noop}" + metricsPassword).roles("METRICS").build()));
+	    http.securityMatcher(EndpointRequest.toAnyEndpoint())
+	        .csrf(csrf -> csrf.disable())
+	        .authorizeHttpRequests(auth -> auth
+	            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+	            .anyRequest().hasRole("METRICS"))
+	        .authenticationManager(new ProviderManager(scraper))
+	        .httpBasic(Customizer.withDefaults())
+	        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+	    return http.build();
+	}
+
 	@Bean
+	@Order(2)
 	public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
 	    // Step 1: Disable CSRF and configure CORS properly
@@ -70,6 +113,8 @@ public class SecurityConfig {
 
 	    // Step 2: Configure URL authorization (new way)
 	    http.authorizeHttpRequests(auth -> auth
+	            // Streamed responses (manifest export) finish on an async dispatch; the request was already authorized
+	            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 	            .requestMatchers("/auth/**").permitAll()
 	            .requestMatchers("/public/**").permitAll()
 	            .requestMatchers("/welcome").permitAll()
@@ -98,7 +143,10 @@ public class SecurityConfig {
 	    // Step 5: Add our JWT filter before the default authentication filter
 	    http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
-	    // Step 6: Build and return
+	    // Step 6: Rate limit right after it, so callers with a valid token are limited by subject instead of IP
+	    http.addFilterAfter(new RateLimitFilter(rl, meters), JwtAuthenticationFilter.class);
+
+	    // Step 7: Build and return
 	    return http.build();
 	}
 
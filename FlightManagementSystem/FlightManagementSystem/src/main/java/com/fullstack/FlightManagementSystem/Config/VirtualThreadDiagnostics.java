@@ -0,0 +1,86 @@
+package com.fullstack.FlightManagementSystem.Config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+//With spring.threads.virtual.enabled, Boot runs Tomcat requests, the application task executor (async MVC,
+//streamed exports) and @Scheduled tasks on virtual threads. A virtual thread that blocks inside a synchronized
+//block stays pinned to its carrier thread; enough of those and the carriers run out. This listens for the JFR
+//pinning event, times every pin over the threshold as fms.threads.pinned and logs each distinct call site once
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadDiagnostics {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadDiagnostics.class);
+	private static final String PINNED = "jdk.VirtualThreadPinned";
+	private static final int FRAMES = 12;
+	private static final int MAX_SITES = 200;
+
+	@Autowired(required = false)
+	private MeterRegistry meters;
+
+	@Value("${app.threads.pinned-threshold-ms:20}")
+	private long thresholdMs;
+
+	private final Set<String> reported = ConcurrentHashMap.newKeySet();
+	private RecordingStream stream;
+
+	@PostConstruct
+	void start() {
+		if (Runtime.version().feature() < 21) {
+			log.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads; requests stay on platform threads",
+					Runtime.version().feature());
+			return;
+		}
+		Timer pinned = meters == null ? null : Timer.builder("fms.threads.pinned")
+				.description("Virtual threads pinned to their carrier while blocked").register(meters);
+		stream = new RecordingStream();
+		stream.enable(PINNED).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+		stream.onEvent(PINNED, e -> {
+			if (pinned != null) {
+				pinned.record(e.getDuration());
+			}
+			String site = site(e);
+			if (reported.size() < MAX_SITES && reported.add(site)) {
+				log.warn("Virtual thread pinned for {} ms{}", e.getDuration().toMillis(), site);
+			}
+		});
+		stream.startAsync();
+		log.info("Virtual threads enabled; pinning over {} ms is reported", thresholdMs);
+	}
+
+	@PreDestroy
+	void stop() {
+		if (stream != null) {
+			stream.close();
+		}
+	}
+
+	private static String site(RecordedEvent e) {
+		if (e.getStackTrace() == null) {
+			return " (no stack trace)";
+		}
+		return e.getStackTrace().getFrames().stream().limit(FRAMES).map(VirtualThreadDiagnostics::frame)
+				.collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+	}
+
+	private static String frame(RecordedFrame f) {
+		return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+	}
+}
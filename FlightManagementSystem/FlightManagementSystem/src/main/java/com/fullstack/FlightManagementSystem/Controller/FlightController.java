@@ -1,23 +1,30 @@
 package com.fullstack.FlightManagementSystem.Controller;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.DTO.Itinerary;
+import com.fullstack.FlightManagementSystem.DTO.RouteIndexStats;
 import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.CursorPage;
 import com.fullstack.FlightManagementSystem.Model.Flight;
 import com.fullstack.FlightManagementSystem.Model.Passengers;
 import com.fullstack.FlightManagementSystem.Model.UserRole;
@@ -34,6 +41,20 @@ public class FlightController {
 	@Autowired
 	private UserService us;
 	
+	//Body is the raw CSV or NDJSON file, read as it arrives; ?format= overrides the Content-Type
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping("/import")
+	public ResponseEntity<ApiResponse<ImportReport>> importFlights(InputStream body,@RequestParam(required=false) String format,
+			@RequestHeader(value=HttpHeaders.CONTENT_TYPE,required=false) String contentType) {
+		return fs.importFlights(body, format, contentType);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping("/import/status")
+	public ResponseEntity<ApiResponse<ImportReport>> importStatus() {
+		return fs.getImportStatus();
+	}
+	
 	@PreAuthorize("hasRole('ADMIN')")
 	@PostMapping("/save")
 	public ResponseEntity<ApiResponse<Flight>> save(@RequestBody Flight f) {
@@ -48,14 +69,57 @@ public class FlightController {
 	
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
 	@GetMapping("/findBySourceAndDestination")
-	public ResponseEntity<ApiResponse<List<Flight>>> findBySourceAndDestination(@RequestParam String source,@RequestParam String destination){
+	public ResponseEntity<ApiResponse<List<FlightSummary>>> findBySourceAndDestination(@RequestParam String source,@RequestParam String destination){
 		return fs.findFlightBySourceAndDestination(source, destination);
 	}
 	
+	//Top-k fares from a source, optionally to one destination, between minPrice and maxPrice
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping("/fares")
+	public ResponseEntity<ApiResponse<List<FlightSummary>>> findFares(@RequestParam String source,
+			@RequestParam(required = false) String destination, @RequestParam(required = false) BigDecimal minPrice,
+			@RequestParam(required = false) BigDecimal maxPrice, @RequestParam(required = false) String sort,
+			@RequestParam(required = false) Integer k) {
+		return fs.findFares(source, destination, minPrice, maxPrice, sort, k);
+	}
+	
+	//?date=2026-11-02, or ?from=&to= / ?from=&hours= (from defaults to now); source and destination are optional
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping("/findByDeparture")
+	public ResponseEntity<ApiResponse<CursorPage<FlightSummary>>> findByDeparture(@RequestParam(required = false) String source,
+			@RequestParam(required = false) String destination, @RequestParam(required = false) String from,
+			@RequestParam(required = false) String to, @RequestParam(required = false) String date,
+			@RequestParam(required = false) Integer hours, @RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		return fs.findByDeparture(source, destination, from, to, date, hours, cursor, size);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping("/routes")
+	public ResponseEntity<ApiResponse<List<Itinerary>>> planRoutes(@RequestParam String source, @RequestParam String destination,
+			@RequestParam(required = false) Integer k, @RequestParam(required = false) Integer maxStops,
+			@RequestParam(required = false) Long minConnection, @RequestParam(required = false) String sort) {
+		return fs.planRoutes(source, destination, k, maxStops, minConnection, sort);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping("/routeIndex/stats")
+	public ResponseEntity<ApiResponse<RouteIndexStats>> routeIndexStats() {
+		return fs.getRouteIndexStats();
+	}
+	
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
 	@GetMapping("/findAll")
-	public ResponseEntity<ApiResponse<List<Flight>>> findAll() {
-		return fs.findAll();
+	public ResponseEntity<byte[]> findAll(@RequestHeader(value=HttpHeaders.IF_NONE_MATCH,required=false) String ifNoneMatch,
+			@RequestHeader(value=HttpHeaders.ACCEPT_ENCODING,required=false) String acceptEncoding) {
+		return fs.findAllSnapshot(ifNoneMatch, acceptEncoding);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping("/findPage")
+	public ResponseEntity<ApiResponse<CursorPage<FlightSummary>>> findPage(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size, @RequestParam(required = false) String sort) {
+		return fs.findPage(cursor, size, sort);
 	}
 	
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
@@ -74,13 +138,20 @@ public class FlightController {
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
 	@PostMapping("/savePassenger/{id}")
 	public ResponseEntity<ApiResponse<Passengers>> savePassengerWithFlight(@PathVariable int id,@RequestBody Passengers p){
-		Authentication a=SecurityContextHolder.getContext().getAuthentication();
-		String email=a.getName();
-		Users u=us.findByEmail(email);
-		if(u.getRole()==UserRole.CUSTOMER) {
-			p.setUser(u);
+		if(us.getCurrentUserRole()==UserRole.CUSTOMER) {
+			p.setUser(us.getCurrentUserReference());
 		}
 		return fs.savePassengerWithFlight(id, p);
 	}
 	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@PostMapping("/savePassengers/{id}")
+	public ResponseEntity<ApiResponse<List<Passengers>>> savePassengersWithFlight(@PathVariable int id,@RequestBody List<Passengers> group){
+		if(us.getCurrentUserRole()==UserRole.CUSTOMER) {
+			Users user=us.getCurrentUserReference();
+			group.forEach(p -> p.setUser(user));
+		}
+		return fs.savePassengersWithFlight(id, group);
+	}
+	
 }
@@ -5,8 +5,6 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 //import org.springframework.web.bind.annotation.PatchMapping;
@@ -17,11 +15,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
 import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.CursorPage;
 import com.fullstack.FlightManagementSystem.Model.Passengers;
 import com.fullstack.FlightManagementSystem.Model.UserRole;
-import com.fullstack.FlightManagementSystem.Model.Users;
 import com.fullstack.FlightManagementSystem.Service.PassengerService;
 import com.fullstack.FlightManagementSystem.Service.UserService;
 
@@ -40,6 +40,27 @@ public class PassengerController {
 		return ps.findAll();
 	}
 	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+	@GetMapping("/findPage")
+	public ResponseEntity<ApiResponse<CursorPage<Passengers>>> findPage(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size, @RequestParam(required = false) String sort){
+		return ps.findPage(cursor, size, sort);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) Integer flightId,
+			@RequestParam(required = false) String format){
+		return ps.exportManifest(flightId, format);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+	@GetMapping("/search")
+	public ResponseEntity<ApiResponse<CursorPage<PassengerMatch>>> search(@RequestParam String q, @RequestParam(required = false) Integer flightId,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size){
+		return ps.search(q, flightId, cursor, size);
+	}
+	
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
 	@GetMapping("/findByFirstName")
 	public ResponseEntity<ApiResponse<List<Passengers>>> findByFirstName(@RequestParam String firstName){
@@ -54,13 +75,10 @@ public class PassengerController {
 	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
 	@PostMapping("/save")
 	public ResponseEntity<ApiResponse<Passengers>> save(@RequestBody Passengers passenger){
-		// Get current authentication
-		Authentication a=SecurityContextHolder.getContext().getAuthentication();
-		// Get current user details
-		Users u=us.findByEmail(a.getName());
 		// If current user is CUSTOMER, ensure they can only save passengers under their own account
-		if(u.getRole()==UserRole.CUSTOMER) {
-			passenger.setUser(u);
+		// (role and id come from the token, so no user row is loaded here)
+		if(us.getCurrentUserRole()==UserRole.CUSTOMER) {
+			passenger.setUser(us.getCurrentUserReference());
 		}
 		// ADMIN and STAFF can save passengers for any user (passenger.getUser() remains as provided)
 		return ps.save(passenger);
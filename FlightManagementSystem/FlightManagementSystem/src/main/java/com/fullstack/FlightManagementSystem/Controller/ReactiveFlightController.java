@@ -0,0 +1,46 @@
+package com.fullstack.FlightManagementSystem.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Service.ReactiveFlightService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Reactive read API next to /FMS. Listings stream as NDJSON, one flight per line (or a JSON array with Accept: application/json)
+@RestController
+@RequestMapping("/FMS/reactive")
+public class ReactiveFlightController {
+	
+	@Autowired
+	private ReactiveFlightService rfs;
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping("/find/{id}")
+	public Mono<ResponseEntity<ApiResponse<Flight>>> findById(@PathVariable int id) {
+		return rfs.findFlightById(id);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping(value="/findBySourceAndDestination", produces={MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Flux<FlightSummary> findBySourceAndDestination(@RequestParam String source,@RequestParam String destination){
+		return rfs.findFlightBySourceAndDestination(source, destination);
+	}
+	
+	@PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('CUSTOMER')")
+	@GetMapping(value="/findAll", produces={MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Flux<FlightSummary> findAll(){
+		return rfs.findAll();
+	}
+}
@@ -5,13 +5,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fullstack.FlightManagementSystem.Exception.InvalidTokenException;
+import com.fullstack.FlightManagementSystem.Exception.ResourceNotFoundException;
 import com.fullstack.FlightManagementSystem.Model.Users;
 import com.fullstack.FlightManagementSystem.Security.JwtUtil;
+import com.fullstack.FlightManagementSystem.Security.RevokedTokens;
+import com.fullstack.FlightManagementSystem.Service.FmsMetrics;
 import com.fullstack.FlightManagementSystem.Service.UserService;
 
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 
 @RestController
@@ -21,18 +27,25 @@ public class AuthController {
 	private JwtUtil ju;
 	@Autowired
 	private UserService us;
+	@Autowired
+	private FmsMetrics metrics;
+	@Autowired
+	private RevokedTokens rt;
 	
 	@PostMapping("/register")
 	public ResponseEntity<AuthResponse> registerUser(@Valid @RequestBody RegisterRequest rru){
 		Users ru=us.registerUser(rru.getName(), rru.getEmail(), rru.getPassword(), rru.getRole());
-		String token=ju.generateToken(ru.getEmail());
+		String token=ju.generateToken(ru);
 		AuthResponse auth=AuthResponse.builder()
 				.token(token)
 				.type("Bearer")
+				.id(ru.getId())
 				.email(ru.getEmail())
 				.name(ru.getName())
 				.role(ru.getRole())
-				.expiresIn(86400000)
+				.expiresIn(ju.getExpirationMs())
+				.refreshToken(ju.generateRefreshToken(ru))
+				.refreshExpiresIn(ju.getRefreshExpirationMs())
 				.build();
 //		return ResponseEntity.ok(auth);
 		return new ResponseEntity<AuthResponse>(auth,HttpStatus.OK);
@@ -40,21 +53,80 @@ public class AuthController {
 	
 	@PostMapping("/login")
 	public ResponseEntity<AuthResponse> loginUser(@Valid @RequestBody LoginRequest lru){
-		Users u=us.findByEmail(lru.getEmail());
+		Users u;
+		try {
+			u=us.findByEmail(lru.getEmail());
+		} catch (ResourceNotFoundException e) {
+			metrics.login("unknown_user");
+			throw e;
+		}
 		if(!us.validatePassword(lru.getPassword(), u.getPassword())) {
+			metrics.login("bad_credentials");
 			throw new RuntimeException("Invalid credentials");
 		}
-		String token=ju.generateToken(u.getEmail());
+		metrics.login("success");
+		us.upgradePasswordHash(u, lru.getPassword());
+		String token=ju.generateToken(u);
 		AuthResponse auth=new AuthResponse();
 		auth.setToken(token);
 		auth.setType("Bearer");
+		auth.setId(u.getId());
 		auth.setEmail(u.getEmail());
 		auth.setName(u.getName());
 		auth.setRole(u.getRole());
-		auth.setExpiresIn(86400000);
+		auth.setExpiresIn(ju.getExpirationMs());
+		auth.setRefreshToken(ju.generateRefreshToken(u));
+		auth.setRefreshExpiresIn(ju.getRefreshExpirationMs());
 		return new ResponseEntity<AuthResponse>(auth,HttpStatus.OK);
 	}
 	
+	//Trades a refresh token for a new access and refresh token. The old refresh token is revoked in the same step,
+	//so each one works once; the user is loaded again so a changed role shows up in the new access token
+	@PostMapping("/refresh")
+	public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest rr){
+		Claims c=ju.parseToken(rr.getRefreshToken());
+		if(c==null||!ju.isRefreshToken(c)||!rt.revoke(c.getId(), c.getExpiration())) {
+			throw new InvalidTokenException("Refresh token is invalid, expired or already used");
+		}
+		Users u;
+		try {
+			u=us.findByEmail(c.getSubject());
+		} catch (ResourceNotFoundException e) {
+			throw new InvalidTokenException("Refresh token is invalid, expired or already used");
+		}
+		AuthResponse auth=AuthResponse.builder()
+				.token(ju.generateToken(u))
+				.type("Bearer")
+				.id(u.getId())
+				.email(u.getEmail())
+				.name(u.getName())
+				.role(u.getRole())
+				.expiresIn(ju.getExpirationMs())
+				.refreshToken(ju.generateRefreshToken(u))
+				.refreshExpiresIn(ju.getRefreshExpirationMs())
+				.build();
+		return new ResponseEntity<AuthResponse>(auth,HttpStatus.OK);
+	}
+	
+	//Revokes the bearer token and, when sent, the refresh token. Tokens that are already invalid are ignored
+	@PostMapping("/logout")
+	public ResponseEntity<Void> logout(@RequestHeader(value="Authorization", required=false) String authHeader,
+			@RequestBody(required=false) RefreshRequest rr){
+		if(authHeader!=null&&authHeader.startsWith("Bearer ")) {
+			Claims c=ju.parseToken(authHeader.substring(7));
+			if(c!=null&&!ju.isRefreshToken(c)) {
+				rt.revoke(c.getId(), c.getExpiration());
+			}
+		}
+		if(rr!=null&&rr.getRefreshToken()!=null) {
+			Claims c=ju.parseToken(rr.getRefreshToken());
+			if(c!=null&&ju.isRefreshToken(c)) {
+				rt.revoke(c.getId(), c.getExpiration());
+			}
+		}
+		return ResponseEntity.noContent().build();
+	}
+	
 }
 
 
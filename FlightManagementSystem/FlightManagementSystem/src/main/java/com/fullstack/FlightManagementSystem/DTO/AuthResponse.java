@@ -19,5 +19,7 @@ public class AuthResponse {
 	private String name;			//User's display name
 	private UserRole role;		//User's role (ADMIN, STAFF, CUSTOMER)
 	private long expiresIn;		//Token expiration time in milliseconds
+	private String refreshToken;	//Exchanged at /auth/refresh for a new pair, once
+	private long refreshExpiresIn;	//Refresh token expiration time in milliseconds
 	
 }
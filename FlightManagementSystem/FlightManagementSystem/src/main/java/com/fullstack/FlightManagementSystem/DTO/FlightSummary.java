@@ -0,0 +1,41 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Read model for flight listings: the flight columns plus how many passengers are booked, built by one query.
+//The passenger list itself is only loaded by /FMS/find/{id}
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightSummary {
+	private int f_id;
+	private String name;
+	private String source;
+	private String destination;
+	private String time;
+	private OffsetDateTime departure;
+	private OffsetDateTime arrival;
+	private BigDecimal price;
+	private String img;
+	private long passengerCount;
+	private Integer capacity;
+	private Integer seatsAvailable;
+	
+	public static FlightSummary of(Flight f, long passengerCount) {
+		return new FlightSummary(f.getF_id(), f.getName(), f.getSource(), f.getDestination(), f.getTime(), f.getDeparture(), f.getArrival(), f.getPrice(), f.getImg(),
+				passengerCount, f.getCapacity(), f.getSeatsAvailable());
+	}
+	
+	//Copy after seats were booked (positive) or released (negative)
+	public FlightSummary withBookedSeats(int seats) {
+		Integer available=seatsAvailable==null?null:seatsAvailable-seats;
+		return new FlightSummary(f_id, name, source, destination, time, departure, arrival, price, img, Math.max(0, passengerCount+seats), capacity, available);
+	}
+}
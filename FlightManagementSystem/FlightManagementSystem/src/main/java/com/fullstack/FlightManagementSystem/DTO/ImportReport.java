@@ -0,0 +1,25 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Progress of a schedule import. Updated by the importing thread while /FMS/import/status reads it
+@Data
+@NoArgsConstructor
+public class ImportReport {
+	private String format;
+	private String startedAt;
+	private volatile boolean running;
+	private volatile long rowsRead;
+	private volatile long inserted;
+	private volatile long updated;
+	private volatile long failed;
+	private volatile long batches;
+	private volatile long elapsedMs;
+	private volatile long rowsPerSecond;
+	private volatile boolean errorsTruncated;	//more rows failed than app.import.max-errors
+	private List<ImportRowError> errors = new CopyOnWriteArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+	private long line;
+	private String message;
+}
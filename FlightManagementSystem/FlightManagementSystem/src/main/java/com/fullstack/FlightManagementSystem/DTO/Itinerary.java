@@ -0,0 +1,20 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One way to fly a route: the legs in flying order, from the first departure to the last arrival
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Itinerary {
+	private List<FlightSummary> legs;
+	private int stops;
+	private BigDecimal totalPrice;
+	private long durationMinutes;
+	private long layoverMinutes;	//time on the ground between legs
+}
@@ -0,0 +1,19 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One line of a passenger manifest export. A projection, so streaming it never fills the persistence context
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ManifestRow {
+	private int p_id;
+	private String firstName;
+	private String lastName;
+	private int age;
+	private Integer flightId;
+	private String flightName;
+	private Integer userId;
+}
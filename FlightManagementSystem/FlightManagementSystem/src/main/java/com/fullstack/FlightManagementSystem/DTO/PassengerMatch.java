@@ -0,0 +1,18 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One passenger name search result. distance is 0 for an exact name, 10 per corrected typo and 1 more for every
+//search term that only matched the start of a word; results come closest first
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PassengerMatch {
+	private int p_id;
+	private String firstName;
+	private String lastName;
+	private Integer flightId;
+	private int distance;
+}
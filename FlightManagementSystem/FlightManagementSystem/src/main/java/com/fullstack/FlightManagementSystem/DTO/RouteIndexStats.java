@@ -0,0 +1,20 @@
+package com.fullstack.FlightManagementSystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RouteIndexStats {
+	private boolean ready;
+	private int routes;
+	private int flights;
+	private long hits;		//searches answered with at least one flight
+	private long misses;		//searches for a route with no flights
+	private long fallbacks;	//searches sent to the database because the index was not built yet
+	private long rebuilds;
+	private long lastCheckMismatches;
+	private String lastCheckAt;
+}
@@ -0,0 +1,13 @@
+package com.fullstack.FlightManagementSystem.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Published by FlightImporter once an import has written flights in bulk, in place of a FlightChangedEvent per row.
+//The route index reloads from the database and hands that scan on to the other indexes (RouteIndexRebuiltEvent)
+@Getter
+@AllArgsConstructor
+public class CatalogReloadedEvent {
+	private final long inserted;
+	private final long updated;
+}
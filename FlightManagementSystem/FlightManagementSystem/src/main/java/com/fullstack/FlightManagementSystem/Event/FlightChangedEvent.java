@@ -0,0 +1,23 @@
+package com.fullstack.FlightManagementSystem.Event;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Published by FlightService after a flight is saved, updated or deleted. flight is null for a delete
+@Getter
+@AllArgsConstructor
+public class FlightChangedEvent {
+	public enum Type {
+		SAVED, UPDATED, DELETED
+	}
+
+	private final Type type;
+	private final int flightId;
+	private final Flight flight;
+
+	public boolean isDeleted() {
+		return flight == null;
+	}
+}
@@ -0,0 +1,25 @@
+package com.fullstack.FlightManagementSystem.Event;
+
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Published after a passenger is booked, updated or removed. flightId is null for passengers not on a flight
+@Getter
+@AllArgsConstructor
+public class PassengerChangedEvent {
+	public enum Type {
+		SAVED, UPDATED, DELETED
+	}
+
+	private final Type type;
+	private final int passengerId;
+	private final Integer flightId;
+	private final String firstName;
+	private final String lastName;
+
+	public static PassengerChangedEvent of(Type type, Passengers p) {
+		return new PassengerChangedEvent(type, p.getP_id(), p.getFlightId(), p.getFirstName(), p.getLastName());
+	}
+}
@@ -0,0 +1,16 @@
+package com.fullstack.FlightManagementSystem.Event;
+
+import java.util.List;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Published by RouteIndex, while it still holds its lock, each time it swaps in a state reloaded from the database.
+//flights is that scan, ordered by id; the other indexes over the catalog rebuild from it instead of reading again
+@Getter
+@AllArgsConstructor
+public class RouteIndexRebuiltEvent {
+	private final List<FlightSummary> flights;
+}
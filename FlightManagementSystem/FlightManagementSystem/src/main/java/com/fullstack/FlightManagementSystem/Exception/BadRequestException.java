@@ -0,0 +1,7 @@
+package com.fullstack.FlightManagementSystem.Exception;
+
+public class BadRequestException extends RuntimeException{
+	public BadRequestException(String msg) {
+		super(msg);
+	}
+}
@@ -1,7 +1,10 @@
 package com.fullstack.FlightManagementSystem.Exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -21,4 +24,38 @@ public class GlobalExceptionHandler {
 		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.NOT_FOUND.value(),"Resource Not Found", r.getMessage());
 		return new ResponseEntity<ApiResponse<String>>(api, HttpStatus.NOT_FOUND);
 	}
+	
+	@ExceptionHandler(SeatUnavailableException.class)
+	public ResponseEntity<ApiResponse<String>> HandleSeatUnavailableException(SeatUnavailableException s){
+		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.CONFLICT.value(),"Seats Unavailable", s.getMessage());
+		return new ResponseEntity<ApiResponse<String>>(api, HttpStatus.CONFLICT);
+	}
+	
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<ApiResponse<String>> HandleBadRequestException(BadRequestException b){
+		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.BAD_REQUEST.value(),"Bad Request", b.getMessage());
+		return new ResponseEntity<ApiResponse<String>>(api, HttpStatus.BAD_REQUEST);
+	}
+	
+	//Refresh token that is not valid, has expired or was already exchanged
+	@ExceptionHandler(InvalidTokenException.class)
+	public ResponseEntity<ApiResponse<String>> HandleInvalidTokenException(InvalidTokenException t){
+		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.UNAUTHORIZED.value(),"Invalid Token", t.getMessage());
+		return new ResponseEntity<ApiResponse<String>>(api, HttpStatus.UNAUTHORIZED);
+	}
+	
+	//A bounded pool (password hashing) is full: turn the request away at once rather than queue it
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<ApiResponse<String>> HandleServiceBusyException(ServiceBusyException b){
+		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.SERVICE_UNAVAILABLE.value(),"Service Busy", b.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(api);
+	}
+	
+	//No database connection within spring.datasource.hikari.connection-timeout: the pool is the limit once
+	//requests run on virtual threads, so shed the request instead of letting it queue
+	@ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+	public ResponseEntity<ApiResponse<String>> HandleDatabaseUnavailable(Exception d){
+		ApiResponse<String> api= new ApiResponse<String>(HttpStatus.SERVICE_UNAVAILABLE.value(),"Service Busy", "The database is busy, please retry");
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(api);
+	}
 }
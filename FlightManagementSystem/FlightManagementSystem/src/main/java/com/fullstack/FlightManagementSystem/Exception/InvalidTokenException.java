@@ -0,0 +1,7 @@
+package com.fullstack.FlightManagementSystem.Exception;
+
+public class InvalidTokenException extends RuntimeException{
+	public InvalidTokenException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,7 @@
+package com.fullstack.FlightManagementSystem.Exception;
+
+public class SeatUnavailableException extends RuntimeException{
+	public SeatUnavailableException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,7 @@
+package com.fullstack.FlightManagementSystem.Exception;
+
+public class ServiceBusyException extends RuntimeException{
+	public ServiceBusyException(String msg) {
+		super(msg);
+	}
+}
@@ -2,8 +2,15 @@ package com.fullstack.FlightManagementSystem;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+//R2DBC only serves the reactive search (ReactiveFlightRepository owns its pool). An auto-configured
+//ConnectionFactory would replace the JDBC DataSource that JPA runs on
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableCaching
+@EnableScheduling
 public class FlightManagementSystemApplication {
 
 	public static void main(String[] args) {
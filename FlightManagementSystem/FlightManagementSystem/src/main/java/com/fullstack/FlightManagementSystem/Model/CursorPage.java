@@ -0,0 +1,19 @@
+package com.fullstack.FlightManagementSystem.Model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One keyset page of a list endpoint. nextCursor is opaque to clients, send it back as "cursor" to get the next page
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+	private List<T> items;
+	private int size;
+	private String sort;
+	private String nextCursor;
+	private boolean hasMore;
+}
@@ -1,14 +1,21 @@
 package com.fullstack.FlightManagementSystem.Model;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,20 +24,37 @@ import lombok.ToString;
 
 @Entity
 @Data
+//Date-bounded searches are range scans: by route on the composite index, across all routes on departure alone
+@Table(indexes = { @Index(name = "idx_flight_route_departure", columnList = "source, destination, departure"),
+		@Index(name = "idx_flight_departure", columnList = "departure"), @Index(name = "idx_flight_price_id", columnList = "price, f_id") })
 
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
+	public static final int ID_BLOCK = 50;
+	
+	//Pooled sequence so the schedule import can insert flights in JDBC batches
 	@jakarta.persistence.Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+	@SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = Flight.ID_BLOCK)
 	private int f_id;
 	
 	private String name;
 	private String source;
 	private String destination;
 	private String time;
+	//Stored in UTC. time is kept for older clients and filled in from departure when it is missing
+	private OffsetDateTime departure;
+	private OffsetDateTime arrival;
 	private BigDecimal price;
 	private String img;
+	//Both only change through the conditional updates in FRepo (never through a merge), so a flight
+	//update cannot race a booking and overwrite the seat count
+	@Column(updatable = false)
+	private Integer capacity;
+	@Column(updatable = false)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Integer seatsAvailable;
 
 	@OneToMany(mappedBy = "flight", cascade = CascadeType.REMOVE, orphanRemoval = true)
 	private List<Passengers> passengers = new ArrayList<>();
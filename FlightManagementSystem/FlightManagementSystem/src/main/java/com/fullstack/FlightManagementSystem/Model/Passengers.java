@@ -1,14 +1,18 @@
 package com.fullstack.FlightManagementSystem.Model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,9 +23,15 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@Table(indexes = { @Index(name = "idx_passengers_flight_id", columnList = "flight_id"),
+		@Index(name = "idx_passengers_last_name_id", columnList = "last_name, p_id") })
 public class Passengers {
+	public static final int ID_BLOCK = 50;
+	
+	//Pooled sequence: ids are handed out 50 at a time, so group bookings can be inserted in JDBC batches
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passengers_seq")
+	@SequenceGenerator(name = "passengers_seq", sequenceName = "passengers_seq", allocationSize = Passengers.ID_BLOCK)
 	private int p_id;
 	private String firstName;
 	private String lastName;
@@ -34,4 +44,10 @@ public class Passengers {
 	@JoinColumn(name = "User_id")
 	@JsonIgnore
 	private Users user;
+	
+	//Flight is not serialized, but clients still need to know which flight a passenger is on
+	@JsonProperty(value = "flightId", access = JsonProperty.Access.READ_ONLY)
+	public Integer getFlightId() {
+		return flight==null?null:flight.getF_id();
+	}
 }
@@ -1,12 +1,90 @@
 package com.fullstack.FlightManagementSystem.Repository;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
 import com.fullstack.FlightManagementSystem.Model.Flight;
 
 public interface FRepo extends JpaRepository<Flight, Integer> {
+	String SUMMARY = "select new com.fullstack.FlightManagementSystem.DTO.FlightSummary(f.f_id, f.name, f.source, f.destination, f.time, f.departure, f.arrival, f.price, f.img, "
+			+ "(select count(p) from Passengers p where p.flight = f), f.capacity, f.seatsAvailable) from Flight f ";
+
 	List<Flight> findBySourceAndDestination(String source, String destination);
+
+	//Seat inventory. The WHERE clause is the overbooking guard: the row lock serializes concurrent bookings
+	//and a decrement that would go below zero matches no row
+	@Modifying
+	@Query("update Flight f set f.seatsAvailable = f.seatsAvailable - :seats where f.f_id = :id and f.seatsAvailable >= :seats")
+	int reserveSeats(@Param("id") int id, @Param("seats") int seats);
+
+	@Modifying
+	@Query("update Flight f set f.seatsAvailable = f.seatsAvailable + :seats where f.f_id = :id and f.seatsAvailable + :seats <= f.capacity")
+	int releaseSeats(@Param("id") int id, @Param("seats") int seats);
+
+	//Only succeeds if the new capacity still covers the seats already booked
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Flight f set f.seatsAvailable = f.seatsAvailable + :capacity - f.capacity, f.capacity = :capacity where f.f_id = :id and f.capacity - f.seatsAvailable <= :capacity")
+	int resizeCapacity(@Param("id") int id, @Param("capacity") int capacity);
+
+	@Query("select f.seatsAvailable from Flight f where f.f_id = :id")
+	Integer findSeatsAvailable(@Param("id") int id);
+
+	//Flights created before capacities existed: give them the default, or their booked count if that is higher
+	@Modifying
+	@Query("update Flight f set f.capacity = cast(case when (select count(p) from Passengers p where p.flight = f) > :capacity "
+			+ "then (select count(p) from Passengers p where p.flight = f) else :capacity end as Integer) where f.capacity is null")
+	int backfillCapacity(@Param("capacity") int capacity);
+
+	@Modifying
+	@Query("update Flight f set f.seatsAvailable = cast(f.capacity - (select count(p) from Passengers p where p.flight = f) as Integer) where f.seatsAvailable is null")
+	int backfillSeatsAvailable();
+
+	//Passengers are only pulled in when a caller explicitly asks for one flight's manifest, with their booking users in
+	//the same join so those are not loaded one by one
+	@EntityGraph(attributePaths = { "passengers", "passengers.user" })
+	@Query("select f from Flight f where f.f_id = :id")
+	Optional<Flight> findWithPassengersById(@Param("id") int id);
+
+	@Query(SUMMARY + "order by f.f_id")
+	List<FlightSummary> findAllSummaries();
+
+	@Query(SUMMARY + "where f.source = :source and f.destination = :destination order by f.f_id")
+	List<FlightSummary> findSummariesBySourceAndDestination(@Param("source") String source, @Param("destination") String destination);
+
+	//Keyset pages: always seek past the last (value, id) that was sent, never OFFSET, so every page costs the same
+	@Query(SUMMARY + "where f.f_id > :afterId order by f.f_id")
+	List<FlightSummary> findPageAfterId(@Param("afterId") int afterId, Pageable limit);
+
+	//By price on idx_flight_price_id, unpriced flights last. Past the first page the priced and unpriced rows are
+	//separate seeks, each a range scan on the plain column
+	@Query(SUMMARY + "order by f.price asc nulls last, f.f_id")
+	List<FlightSummary> findFirstPageByPrice(Pageable limit);
+
+	@Query(SUMMARY + "where f.price >= :price and (f.price > :price or f.f_id > :afterId) order by f.price, f.f_id")
+	List<FlightSummary> findPageAfterPrice(@Param("price") BigDecimal price, @Param("afterId") int afterId, Pageable limit);
+
+	@Query(SUMMARY + "where f.price is null and f.f_id > :afterId order by f.f_id")
+	List<FlightSummary> findUnpricedPageAfterId(@Param("afterId") int afterId, Pageable limit);
+
+	//Departure windows, keyset paged on (departure, id). The first page seeks from the window start with afterId 0.
+	//The leading departure >= :after bound is what lets the index range scan start at the cursor
+	@Query(SUMMARY + "where f.source = :source and f.destination = :destination and f.departure >= :after and f.departure < :before "
+			+ "and (f.departure > :after or f.f_id > :afterId) order by f.departure, f.f_id")
+	List<FlightSummary> findRouteDepartingBetween(@Param("source") String source, @Param("destination") String destination,
+			@Param("after") OffsetDateTime after, @Param("afterId") int afterId, @Param("before") OffsetDateTime before, Pageable limit);
+
+	@Query(SUMMARY + "where f.departure >= :after and f.departure < :before and (f.departure > :after or f.f_id > :afterId) "
+			+ "order by f.departure, f.f_id")
+	List<FlightSummary> findDepartingBetween(@Param("after") OffsetDateTime after, @Param("afterId") int afterId,
+			@Param("before") OffsetDateTime before, Pageable limit);
 }
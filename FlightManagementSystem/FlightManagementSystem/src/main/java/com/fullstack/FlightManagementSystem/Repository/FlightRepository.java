@@ -1,13 +1,18 @@
 package com.fullstack.FlightManagementSystem.Repository;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
 
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
 import com.fullstack.FlightManagementSystem.Model.ApiResponse;
 import com.fullstack.FlightManagementSystem.Model.Flight;
 
@@ -19,11 +24,62 @@ public class FlightRepository {
 	public Optional<Flight> getflightbyid(int id){
 		return fr.findById(id);
 	}
-	public List<Flight> findBySourceAndDestination(String source, String Destination){
-		return fr.findBySourceAndDestination(source, Destination);
+	public Optional<Flight> getFlightWithPassengers(int id){
+		return fr.findWithPassengersById(id);
 	}
-	public List<Flight> findAll(){
-		return fr.findAll();
+	public List<FlightSummary> findBySourceAndDestination(String source, String Destination){
+		return fr.findSummariesBySourceAndDestination(source, Destination);
+	}
+	public List<FlightSummary> findAll(){
+		return fr.findAllSummaries();
+	}
+	public List<FlightSummary> findPageAfterId(int afterId, int limit){
+		return fr.findPageAfterId(afterId, PageRequest.ofSize(limit));
+	}
+	public List<FlightSummary> findFirstPageByPrice(int limit){
+		return fr.findFirstPageByPrice(PageRequest.ofSize(limit));
+	}
+	//After a priced row the page runs on into the unpriced ones when the priced ones give out; a null afterPrice
+	//means the cursor is already among the unpriced flights
+	public List<FlightSummary> findPageAfterPrice(BigDecimal afterPrice, int afterId, int limit){
+		if(afterPrice==null) {
+			return fr.findUnpricedPageAfterId(afterId, PageRequest.ofSize(limit));
+		}
+		List<FlightSummary> rows=fr.findPageAfterPrice(afterPrice, afterId, PageRequest.ofSize(limit));
+		if(rows.size()<limit) {
+			rows=new ArrayList<>(rows);
+			rows.addAll(fr.findUnpricedPageAfterId(0, PageRequest.ofSize(limit-rows.size())));
+		}
+		return rows;
+	}
+	//Flights departing in [after, before), after the (after, afterId) cursor; source and destination are both given or both null
+	public List<FlightSummary> findDepartingBetween(String source, String destination, OffsetDateTime after, int afterId,
+			OffsetDateTime before, int limit){
+		if(source==null) {
+			return fr.findDepartingBetween(after, afterId, before, PageRequest.ofSize(limit));
+		}
+		return fr.findRouteDepartingBetween(source, destination, after, afterId, before, PageRequest.ofSize(limit));
+	}
+	public boolean existsById(int id) {
+		return fr.existsById(id);
+	}
+	public int reserveSeats(int id, int seats) {
+		return fr.reserveSeats(id, seats);
+	}
+	public int releaseSeats(int id, int seats) {
+		return fr.releaseSeats(id, seats);
+	}
+	public int resizeCapacity(int id, int capacity) {
+		return fr.resizeCapacity(id, capacity);
+	}
+	public Integer findSeatsAvailable(int id) {
+		return fr.findSeatsAvailable(id);
+	}
+	public int backfillCapacity(int capacity) {
+		return fr.backfillCapacity(capacity);
+	}
+	public int backfillSeatsAvailable() {
+		return fr.backfillSeatsAvailable();
 	}
 	public void deleteFlight(Flight flight) {
 		fr.delete(flight);
@@ -1,13 +1,62 @@
 package com.fullstack.FlightManagementSystem.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.fullstack.FlightManagementSystem.DTO.ManifestRow;
 import com.fullstack.FlightManagementSystem.Model.Passengers;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PRepo extends JpaRepository<Passengers, Integer>{
-	List<Passengers> findByFirstName(String firstName);
+	//flight and user are eager; without the fetch joins each distinct flight and user is loaded by its own select (N+1)
+	@Override
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user")
+	List<Passengers> findAll();
+
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user where p.firstName = :firstName")
+	List<Passengers> findByFirstName(@Param("firstName") String firstName);
+
+	String MANIFEST = "select new com.fullstack.FlightManagementSystem.DTO.ManifestRow(p.p_id, p.firstName, p.lastName, p.age, f.f_id, f.name, u.id) "
+			+ "from Passengers p left join p.flight f left join p.user u ";
+
+	//Manifest export: read through a cursor, MANIFEST_FETCH_SIZE rows per round trip. Must be consumed inside a transaction
+	int MANIFEST_FETCH_SIZE = 1000;
+
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + MANIFEST_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query(MANIFEST + "order by p.p_id")
+	Stream<ManifestRow> streamManifest();
+
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + MANIFEST_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query(MANIFEST + "where f.f_id = :flightId order by p.p_id")
+	Stream<ManifestRow> streamManifestByFlight(@Param("flightId") int flightId);
+
+	//Name search candidates while PassengerNameIndex is still being built; prefix is lower case and ends with %
+	@Query(MANIFEST + "where (lower(p.firstName) like :prefix or lower(p.lastName) like :prefix) and (:flightId is null or f.f_id = :flightId) order by p.p_id")
+	List<ManifestRow> findManifestByNamePrefix(@Param("prefix") String prefix, @Param("flightId") Integer flightId, Pageable limit);
+
+	//Keyset pages. flight and user are eager, so they are fetched in the same statement instead of one select per row
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user where p.p_id > :afterId order by p.p_id")
+	List<Passengers> findPageAfterId(@Param("afterId") int afterId, Pageable limit);
+
+	//By last name on idx_passengers_last_name_id, passengers without one last; after the first page they are a seek of their own
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user order by p.lastName asc nulls last, p.p_id")
+	List<Passengers> findFirstPageByLastName(Pageable limit);
+
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user where p.lastName >= :lastName and (p.lastName > :lastName or p.p_id > :afterId) order by p.lastName, p.p_id")
+	List<Passengers> findPageAfterLastName(@Param("lastName") String lastName, @Param("afterId") int afterId, Pageable limit);
+
+	@Query("select p from Passengers p left join fetch p.flight left join fetch p.user where p.lastName is null and p.p_id > :afterId order by p.p_id")
+	List<Passengers> findUnnamedPageAfterId(@Param("afterId") int afterId, Pageable limit);
 }
@@ -0,0 +1,132 @@
+package com.fullstack.FlightManagementSystem.Repository;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Read-only flight queries over R2DBC for the reactive search API; writes stay on JPA.
+//The pool is kept private on purpose: a ConnectionFactory bean would make Boot treat R2DBC as the
+//application's database and back off from configuring the JDBC DataSource
+@Repository
+public class ReactiveFlightRepository {
+	private static final String SUMMARY = "select f.f_id, f.name, f.source, f.destination, f.time, f.departure, f.arrival, f.price, f.img, "
+			+ "(select count(*) from passengers p where p.flight_id = f.f_id) as passenger_count, f.capacity, f.seats_available from flight f ";
+
+	@Value("${app.r2dbc.url}")
+	private String url;
+	@Value("${app.r2dbc.username:}")
+	private String username;
+	@Value("${app.r2dbc.password:}")
+	private String password;
+	@Value("${app.r2dbc.pool.max-size:10}")
+	private int maxPoolSize;
+	@Value("${app.r2dbc.fetch-size:500}") //rows per round trip while a listing streams, so memory stays flat however long it is
+	private int fetchSize;
+
+	private ConnectionPool pool;
+	private DatabaseClient db;
+
+	@PostConstruct
+	void open() {
+		ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+		if (!username.isEmpty()) {
+			options.option(USER, username);
+		}
+		if (!password.isEmpty()) {
+			options.option(PASSWORD, password);
+		}
+		pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+				.name("flight-search").initialSize(0).maxSize(maxPoolSize).maxIdleTime(Duration.ofMinutes(10)).build());
+		db = DatabaseClient.create(pool);
+	}
+
+	@PreDestroy
+	void close() {
+		pool.dispose();
+	}
+
+	public Flux<FlightSummary> findAllSummaries() {
+		return db.sql(SUMMARY + "order by f.f_id")
+				.filter(s -> s.fetchSize(fetchSize))
+				.map(ReactiveFlightRepository::summary).all();
+	}
+
+	public Flux<FlightSummary> findSummariesBySourceAndDestination(String source, String destination) {
+		return db.sql(SUMMARY + "where f.source = :source and f.destination = :destination order by f.f_id")
+				.bind("source", source).bind("destination", destination)
+				.filter(s -> s.fetchSize(fetchSize))
+				.map(ReactiveFlightRepository::summary).all();
+	}
+
+	//The flight and its passengers in one statement, like the entity graph on the JPA side; empty if there is no such flight
+	public Mono<Flight> findWithPassengersById(int id) {
+		return db.sql("select f.f_id, f.name, f.source, f.destination, f.time, f.departure, f.arrival, f.price, f.img, f.capacity, f.seats_available, "
+				+ "p.p_id, p.first_name, p.last_name, p.age from flight f left join passengers p on p.flight_id = f.f_id where f.f_id = :id order by p.p_id")
+				.bind("id", id)
+				.map(r -> new FlightRow(flight(r), r.get("p_id", Integer.class) == null ? null
+						: Passengers.builder().p_id(r.get("p_id", Integer.class)).firstName(r.get("first_name", String.class))
+								.lastName(r.get("last_name", String.class)).age(r.get("age", Integer.class)).build()))
+				.all()
+				.collectList()
+				.flatMap(rows -> {
+					if (rows.isEmpty()) {
+						return Mono.empty();
+					}
+					Flight f = rows.get(0).flight();
+					for (FlightRow row : rows) {
+						if (row.passenger() != null) {
+							row.passenger().setFlight(f);
+							f.getPassengers().add(row.passenger());
+						}
+					}
+					return Mono.just(f);
+				});
+	}
+
+	private record FlightRow(Flight flight, Passengers passenger) {
+	}
+
+	private static FlightSummary summary(Readable r) {
+		return new FlightSummary(r.get("f_id", Integer.class), r.get("name", String.class), r.get("source", String.class),
+				r.get("destination", String.class), r.get("time", String.class), r.get("departure", OffsetDateTime.class),
+				r.get("arrival", OffsetDateTime.class), r.get("price", BigDecimal.class), r.get("img", String.class),
+				r.get("passenger_count", Long.class), r.get("capacity", Integer.class), r.get("seats_available", Integer.class));
+	}
+
+	private static Flight flight(Readable r) {
+		Flight f = new Flight();
+		f.setF_id(r.get("f_id", Integer.class));
+		f.setName(r.get("name", String.class));
+		f.setSource(r.get("source", String.class));
+		f.setDestination(r.get("destination", String.class));
+		f.setTime(r.get("time", String.class));
+		f.setDeparture(r.get("departure", OffsetDateTime.class));
+		f.setArrival(r.get("arrival", OffsetDateTime.class));
+		f.setPrice(r.get("price", BigDecimal.class));
+		f.setImg(r.get("img", String.class));
+		f.setCapacity(r.get("capacity", Integer.class));
+		f.setSeatsAvailable(r.get("seats_available", Integer.class));
+		return f;
+	}
+}
@@ -2,13 +2,31 @@ package com.fullstack.FlightManagementSystem.Repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fullstack.FlightManagementSystem.Model.Users;
 
 @Repository
 public interface UserRepository extends JpaRepository<Users, Integer> {
+	//Short-TTL cache (spring.cache.caffeine.spec) for the endpoints that still need the full row
+	@Cacheable(cacheNames = "users", unless = "#result == null")
 	Optional<Users> findByEmail(String email);
+	
+	@Override
+	@CacheEvict(cacheNames = "users", key = "#p0.email")
+	<S extends Users> S save(S entity);
 	boolean existsByEmail(String Email);
+	
+	//Only replaces the hash it was computed from, so a password changed in the meantime is never overwritten
+	@Transactional
+	@Modifying
+	@Query("update Users u set u.password = :hash where u.id = :id and u.password = :old")
+	int replacePasswordHash(@Param("id") int id, @Param("old") String old, @Param("hash") String hash);
 }
@@ -0,0 +1,134 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Repository.FlightRepository;
+
+//The /FMS/findAll response, serialized once per catalog version as plain and gzipped JSON bytes.
+//The version is the route index's: it moves on every flight save, update and delete and on every booking
+//or cancellation (passengerCount and seatsAvailable are part of the listing). A request costs a volatile read
+//and a buffer write; only the first request after a change rebuilds, from the index, without a query
+//
+//ETags are derived from the content, not the version number, so they stay valid across restarts and instances
+@Component
+public class CatalogSnapshot {
+
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private FlightRepository fr;
+	@Autowired
+	private ObjectMapper om;
+
+	private volatile Snapshot current;
+	private final LongAdder builds = new LongAdder();
+
+	public static final class Snapshot {
+		private final long version;
+		private final int flights;
+		private final byte[] json;
+		private final byte[] gzip;
+		private final String etag;
+		private final String gzipEtag;
+
+		private Snapshot(long version, int flights, byte[] json, byte[] gzip, String etag) {
+			this.version = version;
+			this.flights = flights;
+			this.json = json;
+			this.gzip = gzip;
+			this.etag = "\"" + etag + "\"";
+			this.gzipEtag = "\"" + etag + "-gz\"";
+		}
+
+		public boolean isEmpty() {
+			return flights == 0;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public byte[] body(boolean gzipped) {
+			return gzipped ? gzip : json;
+		}
+
+		public String etag(boolean gzipped) {
+			return gzipped ? gzipEtag : etag;
+		}
+
+		//If-None-Match may list several tags, weak ones or *; either encoding of this content counts as a match
+		public boolean matches(String ifNoneMatch) {
+			if (ifNoneMatch == null || isEmpty()) {
+				return false;
+			}
+			for (String tag : ifNoneMatch.split(",")) {
+				String t = tag.trim();
+				if (t.startsWith("W/")) {
+					t = t.substring(2);
+				}
+				if (t.equals("*") || t.equals(etag) || t.equals(gzipEtag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	//Until the route index is built the listing comes from the database and is not kept
+	public Snapshot get() {
+		if (!ri.isReady()) {
+			return build(-1, fr.findAll());
+		}
+		Snapshot s = current;
+		if (s != null && s.version == ri.version()) {
+			return s;
+		}
+		synchronized (this) {
+			s = current;
+			//Read the version before the flights: a change that lands in between leaves this snapshot one
+			//version behind, so the next request rebuilds instead of serving it as current
+			long version = ri.version();
+			if (s == null || s.version != version) {
+				s = build(version, ri.all());
+				current = s;
+			}
+			return s;
+		}
+	}
+
+	public long builds() {
+		return builds.sum();
+	}
+
+	private Snapshot build(long version, List<FlightSummary> flights) {
+		builds.increment();
+		try {
+			byte[] json = om.writeValueAsBytes(new ApiResponse<List<FlightSummary>>(HttpStatus.OK.value(), "Data Found", flights));
+			ByteArrayOutputStream gz = new ByteArrayOutputStream(json.length / 4 + 64);
+			try (GZIPOutputStream out = new GZIPOutputStream(gz)) {
+				out.write(json);
+			}
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+			return new Snapshot(version, flights.size(), json, gz.toByteArray(), HexFormat.of().formatHex(digest, 0, 12));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.RouteIndexRebuiltEvent;
+
+//Flight prices as whole cents in arrays sorted by (price, id), one per normalized route and one per origin, so a
+//price-range query is two binary searches and a slice, with no BigDecimal on the read path. Built from the route
+//index's scan each time that index rebuilds, and kept current from the flight change events in between.
+//Flights without a price are not indexed.
+//Reads are lock free: each array pair is replaced, never modified in place; writers synchronize on the index
+@Component
+public class FareIndex {
+	private static final Logger log = LoggerFactory.getLogger(FareIndex.class);
+
+	//Parallel arrays: the flight ids[i] costs cents[i]
+	private static final class Fares {
+		final long[] cents;
+		final int[] ids;
+
+		Fares(long[] cents, int[] ids) {
+			this.cents = cents;
+			this.ids = ids;
+		}
+	}
+
+	private record Entry(String route, String origin, long cents) {
+	}
+
+	private static final class State {
+		final Map<String, Fares> routes = new ConcurrentHashMap<>();
+		final Map<String, Fares> origins = new ConcurrentHashMap<>();
+		final Map<Integer, Entry> flights = new ConcurrentHashMap<>();
+	}
+
+	private volatile State state = new State();
+	private volatile boolean ready;
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public int size() {
+		return state.flights.size();
+	}
+
+	public static long cents(BigDecimal price) {
+		return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	//Ids of at most k flights from source (to destination, when given) priced within [minCents, maxCents],
+	//cheapest first or dearest first; equal prices in id order
+	public int[] find(String source, String destination, long minCents, long maxCents, boolean dearestFirst, int k) {
+		State s = state;
+		Fares f = destination == null ? s.origins.get(RouteIndex.normalize(source)) : s.routes.get(RouteIndex.key(source, destination));
+		if (f == null || minCents > maxCents) {
+			return new int[0];
+		}
+		int lo = firstAtLeast(f.cents, minCents);
+		int hi = maxCents == Long.MAX_VALUE ? f.cents.length : firstAtLeast(f.cents, maxCents + 1);
+		int n = Math.min(k, hi - lo);
+		if (n <= 0) {
+			return new int[0];
+		}
+		if (!dearestFirst) {
+			return Arrays.copyOfRange(f.ids, lo, lo + n);
+		}
+		//Descending by price, but equal prices still in id order
+		int[] out = new int[n];
+		int filled = 0;
+		int end = hi;
+		while (filled < n) {
+			long price = f.cents[end - 1];
+			int start = firstAtLeast(f.cents, price);
+			for (int i = Math.max(start, lo); i < end && filled < n; i++) {
+				out[filled++] = f.ids[i];
+			}
+			end = start;
+		}
+		return out;
+	}
+
+	private static int firstAtLeast(long[] cents, long value) {
+		int lo = 0;
+		int hi = cents.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cents[mid] < value) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	//Swaps in an index over the flights the route index just loaded
+	@EventListener
+	public void onRouteIndexRebuilt(RouteIndexRebuiltEvent e) {
+		State fresh = new State();
+		for (FlightSummary f : e.getFlights()) {
+			put(fresh, f.getF_id(), f.getSource(), f.getDestination(), f.getPrice());
+		}
+		synchronized (this) {
+			state = fresh;
+			if (!ready) {
+				ready = true;
+				log.info("Fare index built: {} priced flights", fresh.flights.size());
+			}
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		synchronized (this) {
+			State s = state;
+			remove(s, e.getFlightId());
+			if (!e.isDeleted()) {
+				put(s, e.getFlightId(), e.getFlight().getSource(), e.getFlight().getDestination(), e.getFlight().getPrice());
+			}
+		}
+	}
+
+	private static void put(State s, int id, String source, String destination, BigDecimal price) {
+		if (price == null) {
+			return;
+		}
+		Entry entry = new Entry(RouteIndex.key(source, destination), RouteIndex.normalize(source), cents(price));
+		s.flights.put(id, entry);
+		s.routes.compute(entry.route(), (k, f) -> with(f, entry.cents(), id));
+		s.origins.compute(entry.origin(), (k, f) -> with(f, entry.cents(), id));
+	}
+
+	private static void remove(State s, int id) {
+		Entry entry = s.flights.remove(id);
+		if (entry == null) {
+			return;
+		}
+		s.routes.computeIfPresent(entry.route(), (k, f) -> without(f, entry.cents(), id));
+		s.origins.computeIfPresent(entry.origin(), (k, f) -> without(f, entry.cents(), id));
+	}
+
+	//Position of (cents, id) in (price, id) order, or -(insertion point) - 1 when absent
+	private static int indexOf(Fares f, long cents, int id) {
+		int lo = 0;
+		int hi = f.cents.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int c = f.cents[mid] != cents ? Long.compare(f.cents[mid], cents) : Integer.compare(f.ids[mid], id);
+			if (c < 0) {
+				lo = mid + 1;
+			} else if (c > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -lo - 1;
+	}
+
+	private static Fares with(Fares f, long cents, int id) {
+		if (f == null) {
+			return new Fares(new long[] { cents }, new int[] { id });
+		}
+		int i = -indexOf(f, cents, id) - 1;
+		long[] c = new long[f.cents.length + 1];
+		int[] ids = new int[f.ids.length + 1];
+		System.arraycopy(f.cents, 0, c, 0, i);
+		System.arraycopy(f.ids, 0, ids, 0, i);
+		c[i] = cents;
+		ids[i] = id;
+		System.arraycopy(f.cents, i, c, i + 1, f.cents.length - i);
+		System.arraycopy(f.ids, i, ids, i + 1, f.ids.length - i);
+		return new Fares(c, ids);
+	}
+
+	private static Fares without(Fares f, long cents, int id) {
+		int i = indexOf(f, cents, id);
+		if (i < 0) {
+			return f;
+		}
+		if (f.cents.length == 1) {
+			return null;
+		}
+		long[] c = new long[f.cents.length - 1];
+		int[] ids = new int[f.ids.length - 1];
+		System.arraycopy(f.cents, 0, c, 0, i);
+		System.arraycopy(f.ids, 0, ids, 0, i);
+		System.arraycopy(f.cents, i + 1, c, i, c.length - i);
+		System.arraycopy(f.ids, i + 1, ids, i, ids.length - i);
+		return new Fares(c, ids);
+	}
+}
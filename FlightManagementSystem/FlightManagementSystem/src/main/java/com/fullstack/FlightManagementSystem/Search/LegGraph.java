@@ -0,0 +1,237 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+//Flight legs as a time-dependent graph, the data structure behind RoutePlanner. Airports map to their outgoing legs
+//sorted by departure, so the legs that can follow an arrival are found with a binary search. Times are minutes on one
+//timeline and prices are whole cents, so planning does no date or decimal arithmetic.
+//Reads are lock free: each airport's array is replaced, never modified in place; writers synchronize on the graph
+final class LegGraph {
+	//Plans give up after this many partial itineraries, whatever they have found by then
+	static final int MAX_LABELS = 200_000;
+
+	static final class Leg {
+		final int id;
+		final String from;
+		final String to;
+		final long departure;
+		final long arrival;
+		final long priceCents;
+
+		Leg(int id, String from, String to, long departure, long arrival, long priceCents) {
+			this.id = id;
+			this.from = from;
+			this.to = to;
+			this.departure = departure;
+			this.arrival = arrival;
+			this.priceCents = priceCents;
+		}
+	}
+
+	//A complete itinerary: its legs in flying order with the totals it was ranked on
+	static final class Plan {
+		final Leg[] legs;
+		final long priceCents;
+		final long minutes;
+
+		Plan(Leg[] legs, long priceCents, long minutes) {
+			this.legs = legs;
+			this.priceCents = priceCents;
+			this.minutes = minutes;
+		}
+	}
+
+	//A partial itinerary ending with leg. Shares its prefix with the label it was extended from
+	private static final class Label {
+		final Leg leg;
+		final Label prev;
+		final int legs;
+		final long priceCents;
+		final long firstDeparture;
+
+		Label(Leg leg, Label prev) {
+			this.leg = leg;
+			this.prev = prev;
+			this.legs = prev == null ? 1 : prev.legs + 1;
+			this.priceCents = prev == null ? leg.priceCents : prev.priceCents + leg.priceCents;
+			this.firstDeparture = prev == null ? leg.departure : prev.firstDeparture;
+		}
+
+		long minutes() {
+			return leg.arrival - firstDeparture;
+		}
+
+		boolean visits(String airport) {
+			for (Label l = this; l != null; l = l.prev) {
+				if (l.leg.from.equals(airport)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		//Anything this label's continuation can reach, the other one reaches at least as well: no dearer, no later,
+		//with no more legs used (and, ranked by duration, having set off no earlier)
+		boolean dominates(Label o, RoutePlanner.Rank rank) {
+			return priceCents <= o.priceCents && leg.arrival <= o.leg.arrival && legs <= o.legs
+					&& (rank == RoutePlanner.Rank.PRICE || firstDeparture >= o.firstDeparture);
+		}
+	}
+
+	private static final Comparator<Leg> BY_DEPARTURE = Comparator.<Leg>comparingLong(l -> l.departure).thenComparingInt(l -> l.id);
+	private static final Leg[] NONE = new Leg[0];
+
+	private final Map<String, Leg[]> outgoing = new ConcurrentHashMap<>();
+	private final Map<Integer, Leg> legs = new ConcurrentHashMap<>();
+	//The same legs split by destination too, for the last leg of an itinerary, which has to land at the destination
+	private final Map<String, Leg[]> direct = new ConcurrentHashMap<>();
+
+	int size() {
+		return legs.size();
+	}
+
+	int airports() {
+		return outgoing.size();
+	}
+
+	synchronized void put(Leg leg) {
+		remove(leg.id);
+		legs.put(leg.id, leg);
+		outgoing.compute(leg.from, (k, out) -> with(out, leg));
+		direct.compute(route(leg.from, leg.to), (k, out) -> with(out, leg));
+	}
+
+	synchronized void remove(int id) {
+		Leg old = legs.remove(id);
+		if (old == null) {
+			return;
+		}
+		outgoing.computeIfPresent(old.from, (k, out) -> without(out, old));
+		direct.computeIfPresent(route(old.from, old.to), (k, out) -> without(out, old));
+	}
+
+	private static String route(String from, String to) {
+		return from + '\n' + to;
+	}
+
+	private static Leg[] with(Leg[] out, Leg leg) {
+		if (out == null) {
+			return new Leg[] { leg };
+		}
+		int i = -Arrays.binarySearch(out, leg, BY_DEPARTURE) - 1;
+		Leg[] next = new Leg[out.length + 1];
+		System.arraycopy(out, 0, next, 0, i);
+		next[i] = leg;
+		System.arraycopy(out, i, next, i + 1, out.length - i);
+		return next;
+	}
+
+	private static Leg[] without(Leg[] out, Leg leg) {
+		if (out.length == 1) {
+			return null;
+		}
+		int i = Arrays.binarySearch(out, leg, BY_DEPARTURE);
+		Leg[] next = new Leg[out.length - 1];
+		System.arraycopy(out, 0, next, 0, i);
+		System.arraycopy(out, i + 1, next, i, out.length - i - 1);
+		return next;
+	}
+
+	//Complete itineraries in the order plan returns them
+	static Comparator<Plan> order(RoutePlanner.Rank rank) {
+		Comparator<Plan> order = rank == RoutePlanner.Rank.PRICE
+				? Comparator.<Plan>comparingLong(p -> p.priceCents).thenComparingLong(p -> p.minutes)
+				: Comparator.<Plan>comparingLong(p -> p.minutes).thenComparingLong(p -> p.priceCents);
+		return order.thenComparingInt(p -> p.legs.length);
+	}
+
+	//The k best itineraries from one airport to another with at most maxStops connections, each leaving at least
+	//minConnection minutes after the previous leg lands, using only legs the filter accepts. Best-first search over
+	//partial itineraries: with prices and durations that only grow as legs are added, complete itineraries come off
+	//the queue in rank order. A partial itinerary is dropped when k others already reached its airport and dominate it
+	List<Plan> plan(String from, String to, int k, int maxStops, long minConnection, RoutePlanner.Rank rank, IntPredicate usable) {
+		Comparator<Label> order = rank == RoutePlanner.Rank.PRICE
+				? Comparator.<Label>comparingLong(l -> l.priceCents).thenComparingLong(Label::minutes)
+				: Comparator.<Label>comparingLong(Label::minutes).thenComparingLong(l -> l.priceCents);
+		order = order.thenComparingInt(l -> l.legs);
+		PriorityQueue<Label> open = new PriorityQueue<>(order);
+		Map<String, List<Label>> settled = new HashMap<>();
+		List<Plan> plans = new ArrayList<>();
+		for (Leg leg : maxStops == 0 ? direct.getOrDefault(route(from, to), NONE) : outgoing.getOrDefault(from, NONE)) {
+			if (usable.test(leg.id) && !leg.to.equals(from)) {
+				open.add(new Label(leg, null));
+			}
+		}
+		int labels = open.size();
+		while (!open.isEmpty() && plans.size() < k) {
+			Label l = open.poll();
+			if (l.leg.to.equals(to)) {
+				plans.add(plan(l));
+				continue;
+			}
+			List<Label> here = settled.computeIfAbsent(l.leg.to, a -> new ArrayList<>());
+			if (dominated(here, l, k, rank)) {
+				continue;
+			}
+			here.add(l);
+			Leg[] out = l.legs == maxStops ? direct.getOrDefault(route(l.leg.to, to), NONE) : outgoing.getOrDefault(l.leg.to, NONE);
+			for (int i = firstDepartingAt(out, l.leg.arrival + minConnection); i < out.length && labels < MAX_LABELS; i++) {
+				Leg next = out[i];
+				boolean arrives = next.to.equals(to);
+				if (!usable.test(next.id) || l.visits(next.to)) {
+					continue;
+				}
+				Label child = new Label(next, l);
+				if (!arrives && dominated(settled.get(next.to), child, k, rank)) {
+					continue;
+				}
+				open.add(child);
+				labels++;
+			}
+		}
+		return plans;
+	}
+
+	private static boolean dominated(List<Label> settled, Label l, int k, RoutePlanner.Rank rank) {
+		if (settled == null || settled.size() < k) {
+			return false;
+		}
+		int by = 0;
+		for (Label s : settled) {
+			if (s.dominates(l, rank) && ++by >= k) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int firstDepartingAt(Leg[] out, long minute) {
+		int lo = 0;
+		int hi = out.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (out[mid].departure < minute) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private static Plan plan(Label last) {
+		Leg[] path = new Leg[last.legs];
+		for (Label l = last; l != null; l = l.prev) {
+			path[l.legs - 1] = l.leg;
+		}
+		return new Plan(path, last.priceCents, last.minutes());
+	}
+}
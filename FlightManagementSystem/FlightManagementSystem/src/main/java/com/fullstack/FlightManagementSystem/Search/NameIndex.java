@@ -0,0 +1,464 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
+
+//Inverted index over passenger names, the data structure behind PassengerNameIndex.
+//Every word of the first and last name is cut into bigrams after a leading '$' ("john" -> $j jo oh hn), and each
+//bigram points at the passengers that have it. Passengers live in dense slots, handed out in id order and not
+//reused after a delete (the scheduled rebuild compacts them), so posting lists are sorted slot arrays, a search can
+//count bigram hits in a plain array, and walking a list visits passengers by id.
+//
+//A search first intersects the posting lists of all the query's bigrams: that finds every name where each term
+//starts a word, which always ranks above a typo. For a single term, whole-word matches come from a word map and
+//the prefix matches are then walked in id order, so the walk stops at a full page. Only when that does not fill the page are typos looked for: a
+//term of n bigrams within k typos of the start of a word still shares n - 3k of them (a swap breaks three), so only
+//passengers with that many hits for every term get a real edit distance. Like most fuzzy search, the first letter
+//is not forgiven, which keeps that candidate set small. A search scoped to a flight skips the
+//bigrams and checks the flight's passengers directly.
+//Not thread safe: PassengerNameIndex guards it with a read/write lock
+final class NameIndex {
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern APOSTROPHES = Pattern.compile("['’]");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final String[] NO_WORDS = new String[0];
+	//Search terms past this are ignored, which keeps the prefix part of a distance below one typo
+	static final int MAX_TERMS = 8;
+	static final int TYPO = 10;
+
+	static final class Entry {
+		final int id;
+		final int slot;
+		final Integer flightId;
+		final String firstName;
+		final String lastName;
+		final String[] words;
+
+		Entry(int id, int slot, Integer flightId, String firstName, String lastName) {
+			this.id = id;
+			this.slot = slot;
+			this.flightId = flightId;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			String[] first = words(firstName);
+			String[] last = words(lastName);
+			this.words = Arrays.copyOf(first, first.length + last.length);
+			System.arraycopy(last, 0, this.words, first.length, last.length);
+		}
+	}
+
+	//Slots in ascending order. New passengers mostly get fresh slots at the end, so almost every add is an append
+	static final class Postings {
+		private int[] slots = new int[4];
+		private int size;
+
+		int size() {
+			return size;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(slots, size);
+		}
+
+		void add(int slot) {
+			int i = size == 0 || slots[size - 1] < slot ? -size - 1 : Arrays.binarySearch(slots, 0, size, slot);
+			if (i >= 0) {
+				return;
+			}
+			i = -i - 1;
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size + (size >> 1) + 1);
+			}
+			System.arraycopy(slots, i, slots, i + 1, size - i);
+			slots[i] = slot;
+			size++;
+		}
+
+		//First position at or after from holding a slot >= the given one: doubling steps, then a binary search
+		int seek(int slot, int from) {
+			int step = 1;
+			int hi = from;
+			while (hi < size && slots[hi] < slot) {
+				from = hi + 1;
+				hi += step;
+				step <<= 1;
+			}
+			int i = Arrays.binarySearch(slots, from, Math.min(hi + 1, size), slot);
+			return i >= 0 ? i : -i - 1;
+		}
+
+		void remove(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i >= 0) {
+				System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+				size--;
+			}
+		}
+	}
+
+	private static final Postings EMPTY = new Postings();
+
+	private final Map<Integer, Entry> passengers = new HashMap<>();
+	private final Map<Integer, Postings> grams = new HashMap<>();
+	private final Map<String, Postings> words = new HashMap<>();
+	private final Map<Integer, Postings> flights = new HashMap<>();
+	private Entry[] slots = new Entry[1024];
+	private int nextSlot;
+	private int maxId;
+	//False once an id arrives below one already indexed (another instance's id block), until the next rebuild
+	private boolean ordered = true;
+
+	int size() {
+		return passengers.size();
+	}
+
+	int grams() {
+		return grams.size();
+	}
+
+	//Lower case, accents and apostrophes dropped, split on anything that is not a letter or digit
+	static String[] words(String name) {
+		if (name == null || name.isBlank()) {
+			return NO_WORDS;
+		}
+		String s = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+		s = APOSTROPHES.matcher(s.toLowerCase(Locale.ROOT)).replaceAll("");
+		return Arrays.stream(SEPARATORS.split(s)).filter(w -> !w.isEmpty()).toArray(String[]::new);
+	}
+
+	//Typos allowed in a search term of this length
+	static int maxEdits(int length) {
+		return length < 4 ? 0 : length < 8 ? 1 : 2;
+	}
+
+	//Distinct bigrams of '$' + word, packed as two chars in an int
+	static int[] grams(String word) {
+		int[] g = new int[word.length()];
+		char prev = '$';
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			g[i] = prev << 16 | c;
+			prev = c;
+		}
+		return Arrays.stream(g).distinct().toArray();
+	}
+
+	//Ranking key: distance in the high half, id in the low half, so (distance, id) orders like a long
+	static long key(int distance, int id) {
+		return (long) distance << 32 | id;
+	}
+
+	//An update keeps the passenger's slot, a new passenger gets the next one
+	void put(int id, Integer flightId, String firstName, String lastName) {
+		Entry old = passengers.get(id);
+		int slot;
+		if (old != null) {
+			unlink(old);
+			slot = old.slot;
+		} else {
+			slot = nextSlot++;
+			if (slot == slots.length) {
+				slots = Arrays.copyOf(slots, slots.length * 2);
+			}
+			ordered &= id > maxId;
+			maxId = Math.max(maxId, id);
+		}
+		Entry e = new Entry(id, slot, flightId, firstName, lastName);
+		passengers.put(id, e);
+		slots[slot] = e;
+		for (String w : e.words) {
+			words.computeIfAbsent(w, k -> new Postings()).add(slot);
+			for (int g : grams(w)) {
+				grams.computeIfAbsent(g, k -> new Postings()).add(slot);
+			}
+		}
+		if (flightId != null) {
+			flights.computeIfAbsent(flightId, k -> new Postings()).add(slot);
+		}
+	}
+
+	void remove(int id) {
+		Entry e = passengers.remove(id);
+		if (e != null) {
+			unlink(e);
+			slots[e.slot] = null;
+		}
+	}
+
+	private void unlink(Entry e) {
+		for (String w : e.words) {
+			removeFrom(words, w, e.slot);
+			for (int g : grams(w)) {
+				removeFrom(grams, g, e.slot);
+			}
+		}
+		if (e.flightId != null) {
+			removeFrom(flights, e.flightId, e.slot);
+		}
+	}
+
+	private static <K> void removeFrom(Map<K, Postings> lists, K key, int slot) {
+		Postings p = lists.get(key);
+		if (p != null) {
+			p.remove(slot);
+			if (p.size() == 0) {
+				lists.remove(key);
+			}
+		}
+	}
+
+	//Deleting a flight deletes its passengers (cascade on Flight.passengers)
+	void removeFlight(int flightId) {
+		Postings p = flights.get(flightId);
+		if (p == null) {
+			return;
+		}
+		for (int slot : p.toArray()) {
+			remove(slots[slot].id);
+		}
+	}
+
+	//Up to limit matches ranked by distance then id, starting after the given key (-1 for the first page).
+	//Every term has to match the start of some word of the name, with typos allowed by maxEdits
+	List<PassengerMatch> search(String query, Integer flightId, int limit, long after) {
+		String[] terms = words(query);
+		if (terms.length > MAX_TERMS) {
+			terms = Arrays.copyOf(terms, MAX_TERMS);
+		}
+		Top top = new Top(limit, after);
+		if (terms.length == 0 || limit < 1) {
+			return top.matches();
+		}
+		if (flightId != null) {
+			for (int slot : flights.getOrDefault(flightId, EMPTY).toArray()) {
+				top.offer(slots[slot], distance(terms, slots[slot]));
+			}
+			return top.matches();
+		}
+		boolean exactPass = after < key(TYPO, 0);
+		if (exactPass) {
+			//Whole words rank first; every other match of a single term is a prefix, and those arrive in id order
+			boolean walkInOrder = terms.length == 1 && ordered;
+			if (walkInOrder) {
+				for (int slot : words.getOrDefault(terms[0], EMPTY).toArray()) {
+					top.offer(slots[slot], 0);
+				}
+			}
+			exact(terms, top, walkInOrder);
+			if (top.full()) {
+				return top.matches();
+			}
+		}
+		if (Arrays.stream(terms).anyMatch(t -> maxEdits(t.length()) > 0)) {
+			for (int slot : fuzzy(terms)) {
+				int d = distance(terms, slots[slot]);
+				if (!exactPass || d >= TYPO) {
+					top.offer(slots[slot], d);
+				}
+			}
+		}
+		return top.matches();
+	}
+
+	//Offers every passenger that has all bigrams of every term and no typo. The shortest list is walked and each
+	//slot is looked up in the longer lists with a galloping search from where the last lookup ended, so a short
+	//list costs little against a long one. With prefixesOnly, whole words have been offered already and the walk
+	//stops once the page is full: every later match is a prefix with a higher id
+	private void exact(String[] terms, Top top, boolean prefixesOnly) {
+		List<Postings> lists = new ArrayList<>();
+		for (String t : terms) {
+			for (int g : grams(t)) {
+				Postings p = grams.get(g);
+				if (p == null) {
+					return;
+				}
+				lists.add(p);
+			}
+		}
+		lists.sort(Comparator.comparingInt(Postings::size));
+		Postings shortest = lists.get(0);
+		int[] at = new int[lists.size()];
+		walk: for (int i = 0; i < shortest.size && !(prefixesOnly && top.full()); i++) {
+			int slot = shortest.slots[i];
+			for (int l = 1; l < lists.size(); l++) {
+				Postings p = lists.get(l);
+				at[l] = p.seek(slot, at[l]);
+				if (at[l] == p.size) {
+					break walk;
+				}
+				if (p.slots[at[l]] != slot) {
+					continue walk;
+				}
+			}
+			int d = distance(terms, slots[slot]);
+			if (d < TYPO && !(prefixesOnly && d == 0)) {
+				top.offer(slots[slot], d);
+			}
+		}
+	}
+
+	//Slots with enough bigram hits for every term to be within its typo allowance. The first letter has to be
+	//right, so only slots in a term's "$" + first letter list are counted. hits is reset through the slots touched
+	//by each term; passed counts the terms a slot has satisfied so far
+	private int[] fuzzy(String[] terms) {
+		byte[] hits = new byte[nextSlot];
+		byte[] passed = new byte[nextSlot];
+		int[] out = new int[0];
+		for (int k = 0; k < terms.length; k++) {
+			int[] g = grams(terms[k]);
+			//Very short or repetitive terms would need no shared bigram at all; at least one is always required
+			int needed = Math.max(1, g.length - 3 * maxEdits(terms[k].length()));
+			Postings first = grams.getOrDefault(g[0], EMPTY);
+			int[] touched = new int[first.size];
+			int n = 0;
+			for (int i = 0; i < first.size; i++) {
+				int slot = first.slots[i];
+				if (passed[slot] == k) {
+					hits[slot] = 1;
+					touched[n++] = slot;
+				}
+			}
+			for (int j = 1; j < g.length && n > 0; j++) {
+				Postings p = grams.getOrDefault(g[j], EMPTY);
+				for (int i = 0; i < p.size; i++) {
+					int slot = p.slots[i];
+					if (hits[slot] > 0 && hits[slot] < Byte.MAX_VALUE) {
+						hits[slot]++;
+					}
+				}
+			}
+			int kept = 0;
+			for (int i = 0; i < n; i++) {
+				int slot = touched[i];
+				if (hits[slot] >= needed) {
+					passed[slot]++;
+					touched[kept++] = slot;
+				}
+				hits[slot] = 0;
+			}
+			out = Arrays.copyOf(touched, kept);
+			if (kept == 0) {
+				break;
+			}
+		}
+		return out;
+	}
+
+	//The best limit keys seen so far, sorted. A page is small, so insertion beats a heap
+	private final class Top {
+		private final long after;
+		private final long[] keys;
+		private int found;
+
+		Top(int limit, long after) {
+			this.after = after;
+			this.keys = new long[Math.max(0, limit)];
+		}
+
+		boolean full() {
+			return found == keys.length;
+		}
+
+		void offer(Entry e, int distance) {
+			if (distance < 0) {
+				return;
+			}
+			long k = key(distance, e.id);
+			if (k <= after || (full() && k >= keys[found - 1])) {
+				return;
+			}
+			int i = full() ? found - 1 : found++;
+			while (i > 0 && keys[i - 1] > k) {
+				keys[i] = keys[i - 1];
+				i--;
+			}
+			keys[i] = k;
+		}
+
+		List<PassengerMatch> matches() {
+			List<PassengerMatch> page = new ArrayList<>(found);
+			for (int i = 0; i < found; i++) {
+				Entry e = passengers.get((int) keys[i]);
+				page.add(new PassengerMatch(e.id, e.firstName, e.lastName, e.flightId, (int) (keys[i] >>> 32)));
+			}
+			return page;
+		}
+	}
+
+	//Sum over the terms of the best word match, or -1 if some term matches no word
+	static int distance(String[] terms, Entry e) {
+		int total = 0;
+		for (String t : terms) {
+			int best = -1;
+			for (String w : e.words) {
+				int d = distance(t, w, maxEdits(t.length()));
+				if (d >= 0 && (best < 0 || d < best)) {
+					best = d;
+				}
+			}
+			if (best < 0) {
+				return -1;
+			}
+			total += best;
+		}
+		return total;
+	}
+
+	//TYPO per typo between the term and the closest prefix of the word (insert, delete, substitute or swap two
+	//neighbours), plus 1 when that prefix is not the whole word. -1 when more than max typos are needed or the
+	//first letters differ
+	static int distance(String term, String word, int max) {
+		if (word.startsWith(term)) {
+			return word.length() == term.length() ? 0 : 1;
+		}
+		int m = term.length();
+		int n = word.length();
+		if (max == 0 || n < m - max || term.charAt(0) != word.charAt(0)) {
+			return -1;
+		}
+		int[] before = new int[n + 1];
+		int[] prev = new int[n + 1];
+		int[] cur = new int[n + 1];
+		for (int j = 0; j <= n; j++) {
+			prev[j] = j;
+		}
+		for (int i = 1; i <= m; i++) {
+			cur[0] = i;
+			int rowMin = i;
+			char a = term.charAt(i - 1);
+			for (int j = 1; j <= n; j++) {
+				char b = word.charAt(j - 1);
+				int d = Math.min(prev[j - 1] + (a == b ? 0 : 1), Math.min(prev[j], cur[j - 1]) + 1);
+				if (i > 1 && j > 1 && a == word.charAt(j - 2) && term.charAt(i - 2) == b) {
+					d = Math.min(d, before[j - 2] + 1);
+				}
+				cur[j] = d;
+				rowMin = Math.min(rowMin, d);
+			}
+			if (rowMin > max) {
+				return -1;
+			}
+			int[] t = before;
+			before = prev;
+			prev = cur;
+			cur = t;
+		}
+		int prefix = Integer.MAX_VALUE;
+		for (int j = 0; j <= n; j++) {
+			prefix = Math.min(prefix, prev[j]);
+		}
+		if (prefix > max) {
+			return -1;
+		}
+		return TYPO * prefix + (prev[n] == prefix ? 0 : 1);
+	}
+}
@@ -0,0 +1,191 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fullstack.FlightManagementSystem.DTO.ManifestRow;
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+
+//Prefix and typo tolerant passenger name search (see NameIndex), answered from memory.
+//Built from the manifest cursor once the application is ready and kept current from the passenger and flight
+//change events. A scheduled rebuild picks up changes made by other instances; events that arrive while it reads
+//the database are replayed onto the new index before it is swapped in, so nothing is lost to the rebuild.
+//Searches share a read lock, changes take the write lock for the few posting lists they touch
+@Component
+public class PassengerNameIndex {
+	private static final Logger log = LoggerFactory.getLogger(PassengerNameIndex.class);
+	//Rows read from the database per search until the index is built
+	private static final int FALLBACK_ROWS = 10000;
+
+	@Autowired
+	private PRepo pr;
+
+	private final TransactionTemplate tx;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ReentrantLock rebuilding = new ReentrantLock();
+	private NameIndex index = new NameIndex(); //guarded by lock
+	private List<Object> replay; //events seen during a rebuild, guarded by lock
+	private volatile boolean ready;
+
+	public PassengerNameIndex(PlatformTransactionManager txm) {
+		this.tx = new TransactionTemplate(txm);
+		this.tx.setReadOnly(true);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//Ranking key of a result, for the page cursor
+	public static long key(int distance, int id) {
+		return NameIndex.key(distance, id);
+	}
+
+	//Up to limit matches, closest first, after the given key (-1 for the first page). Until the index is built,
+	//candidates are read from the database by the first two letters of the longest term (so a typo there is
+	//not forgiven) and ranked the same way
+	public List<PassengerMatch> search(String query, Integer flightId, int limit, long after) {
+		if (!ready) {
+			return fallback(query, flightId).search(query, flightId, limit, after);
+		}
+		lock.readLock().lock();
+		try {
+			return index.search(query, flightId, limit, after);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private NameIndex fallback(String query, Integer flightId) {
+		NameIndex candidates = new NameIndex();
+		String longest = "";
+		for (String w : NameIndex.words(query)) {
+			longest = w.length() > longest.length() ? w : longest;
+		}
+		if (!longest.isEmpty()) {
+			String prefix = longest.substring(0, Math.min(2, longest.length())) + "%";
+			for (ManifestRow r : pr.findManifestByNamePrefix(prefix, flightId, PageRequest.ofSize(FALLBACK_ROWS))) {
+				candidates.put(r.getP_id(), r.getFlightId(), r.getFirstName(), r.getLastName());
+			}
+		}
+		return candidates;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		rebuild();
+	}
+
+	@Scheduled(initialDelayString = "${app.passenger-index.rebuild-interval-ms:3600000}", fixedDelayString = "${app.passenger-index.rebuild-interval-ms:3600000}")
+	public void scheduledRebuild() {
+		rebuild();
+	}
+
+	//Reads every passenger into a new index and swaps it in. Returns the number of passengers indexed
+	public int rebuild() {
+		rebuilding.lock();
+		try {
+			setReplay(new ArrayList<>());
+			long start = System.nanoTime();
+			NameIndex fresh = new NameIndex();
+			try {
+				tx.executeWithoutResult(s -> {
+					try (Stream<ManifestRow> rows = pr.streamManifest()) {
+						rows.forEach(r -> fresh.put(r.getP_id(), r.getFlightId(), r.getFirstName(), r.getLastName()));
+					}
+				});
+			} catch (RuntimeException e) {
+				setReplay(null);
+				throw e;
+			}
+			lock.writeLock().lock();
+			try {
+				for (Object e : replay) {
+					apply(fresh, e);
+				}
+				index = fresh;
+				replay = null;
+				ready = true;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Passenger name index built: {} passengers, {} bigrams in {} ms", fresh.size(), fresh.grams(),
+					(System.nanoTime() - start) / 1_000_000);
+			return fresh.size();
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	private void setReplay(List<Object> events) {
+		lock.writeLock().lock();
+		try {
+			replay = events;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPassengerChanged(PassengerChangedEvent e) {
+		change(e);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		if (e.isDeleted()) {
+			change(e);
+		}
+	}
+
+	private void change(Object e) {
+		lock.writeLock().lock();
+		try {
+			apply(index, e);
+			if (replay != null) {
+				replay.add(e);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static void apply(NameIndex index, Object event) {
+		if (event instanceof FlightChangedEvent f) {
+			index.removeFlight(f.getFlightId());
+		} else if (event instanceof PassengerChangedEvent p) {
+			if (p.getType() == PassengerChangedEvent.Type.DELETED) {
+				index.remove(p.getPassengerId());
+			} else {
+				index.put(p.getPassengerId(), p.getFlightId(), p.getFirstName(), p.getLastName());
+			}
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.DTO.RouteIndexStats;
+import com.fullstack.FlightManagementSystem.Event.CatalogReloadedEvent;
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.RouteIndexRebuiltEvent;
+import com.fullstack.FlightManagementSystem.Repository.FlightRepository;
+
+//In-process index of flight summaries keyed by normalized (source, destination), so route search never
+//touches the database. Built once the application is ready, then kept current from the flight and passenger
+//change events. A scheduled check rebuilds it from the database and counts how many entries had drifted
+//(for example after a change made by another instance). Every rebuild is handed on as a RouteIndexRebuiltEvent,
+//so the fare index and route planner reload from the same scan rather than running their own.
+//Reads are lock free: each route maps to an array sorted by id that is replaced, never modified in place.
+@Component
+public class RouteIndex {
+	private static final Logger log = LoggerFactory.getLogger(RouteIndex.class);
+
+	@Autowired
+	private FlightRepository fr;
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	private static final class State {
+		final Map<String, FlightSummary[]> routes = new ConcurrentHashMap<>();
+		final Map<Integer, FlightSummary> flights = new ConcurrentHashMap<>();
+	}
+
+	private volatile State state = new State();
+	private volatile boolean ready;
+	private long mutations; //guarded by this, lets a rebuild notice changes that landed while it was reading
+	private volatile long version; //written under this after a change is applied, read by CatalogSnapshot
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder rebuilds = new LongAdder();
+	private volatile long lastCheckMismatches;
+	private volatile Instant lastCheckAt;
+
+	public static String key(String source, String destination) {
+		return normalize(source) + '→' + normalize(destination);
+	}
+
+	static String normalize(String s) {
+		return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	//Null until the index has been built, the caller then goes to the database
+	public List<FlightSummary> find(String source, String destination) {
+		if (!ready) {
+			fallbacks.increment();
+			return null;
+		}
+		FlightSummary[] route = state.routes.get(key(source, destination));
+		if (route == null) {
+			misses.increment();
+			return List.of();
+		}
+		hits.increment();
+		return Collections.unmodifiableList(Arrays.asList(route));
+	}
+
+	public FlightSummary get(int flightId) {
+		return state.flights.get(flightId);
+	}
+
+	//Every flight, ordered by id like the findAll query
+	public List<FlightSummary> all() {
+		List<FlightSummary> all = new ArrayList<>(state.flights.values());
+		all.sort((a, b) -> Integer.compare(a.getF_id(), b.getF_id()));
+		return all;
+	}
+
+	//Bumped after every change to the indexed flights (including seat and passenger counts) and every rebuild
+	public long version() {
+		return version;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		rebuild();
+		log.info("Route index built: {} flights on {} routes", state.flights.size(), state.routes.size());
+	}
+
+	@Scheduled(initialDelayString = "${app.route-index.check-interval-ms:300000}", fixedDelayString = "${app.route-index.check-interval-ms:300000}")
+	public void checkConsistency() {
+		long mismatches = rebuild();
+		if (mismatches < 0) {
+			return;
+		}
+		lastCheckMismatches = mismatches;
+		lastCheckAt = Instant.now();
+		if (mismatches > 0) {
+			log.warn("Route index had drifted from the database on {} flights, rebuilt", mismatches);
+		}
+	}
+
+	//Reloads everything from the database and swaps it in. Returns how many flights differed from the
+	//previous index, or -1 if changes kept arriving during the reload (the next check will try again).
+	//The event goes out under the lock, so a flight change cannot reach the other indexes between the swap and
+	//their reload: this index handles every change first and waits for the lock
+	public long rebuild() {
+		for (int attempt = 0; attempt < 3; attempt++) {
+			long seen;
+			synchronized (this) {
+				seen = mutations;
+			}
+			State fresh = new State();
+			List<FlightSummary> scanned = fr.findAll();
+			for (FlightSummary s : scanned) {
+				put(fresh, s);
+			}
+			synchronized (this) {
+				if (seen != mutations && (ready || attempt < 2)) {
+					continue;
+				}
+				long mismatches = ready ? diff(state, fresh) : 0;
+				state = fresh;
+				ready = true;
+				version++;
+				rebuilds.increment();
+				events.publishEvent(new RouteIndexRebuiltEvent(Collections.unmodifiableList(scanned)));
+				return mismatches;
+			}
+		}
+		return -1;
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		synchronized (this) {
+			mutations++;
+			State s = state;
+			FlightSummary old = s.flights.get(e.getFlightId());
+			if (old != null) {
+				remove(s, old);
+			}
+			if (!e.isDeleted()) {
+				put(s, FlightSummary.of(e.getFlight(), old == null ? 0 : old.getPassengerCount()));
+			}
+			version++;
+		}
+	}
+
+	//A bulk import publishes this instead of one change per flight
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogReloaded(CatalogReloadedEvent e) {
+		rebuild();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPassengerChanged(PassengerChangedEvent e) {
+		if (e.getFlightId() == null || e.getType() == PassengerChangedEvent.Type.UPDATED) {
+			return;
+		}
+		int seats = e.getType() == PassengerChangedEvent.Type.SAVED ? 1 : -1;
+		synchronized (this) {
+			mutations++;
+			State s = state;
+			FlightSummary old = s.flights.get(e.getFlightId());
+			if (old != null) {
+				remove(s, old);
+				put(s, old.withBookedSeats(seats));
+				version++;
+			}
+		}
+	}
+
+	public RouteIndexStats stats() {
+		State s = state;
+		return new RouteIndexStats(ready, s.routes.size(), s.flights.size(), hits.sum(), misses.sum(), fallbacks.sum(),
+				rebuilds.sum(), lastCheckMismatches, lastCheckAt == null ? null : lastCheckAt.toString());
+	}
+
+	private static void put(State s, FlightSummary f) {
+		s.flights.put(f.getF_id(), f);
+		s.routes.compute(key(f.getSource(), f.getDestination()), (k, route) -> {
+			if (route == null) {
+				return new FlightSummary[] { f };
+			}
+			int i = 0;
+			while (i < route.length && route[i].getF_id() < f.getF_id()) {
+				i++;
+			}
+			FlightSummary[] next = new FlightSummary[route.length + 1];
+			System.arraycopy(route, 0, next, 0, i);
+			next[i] = f;
+			System.arraycopy(route, i, next, i + 1, route.length - i);
+			return next;
+		});
+	}
+
+	private static void remove(State s, FlightSummary f) {
+		s.flights.remove(f.getF_id());
+		s.routes.computeIfPresent(key(f.getSource(), f.getDestination()), (k, route) -> {
+			List<FlightSummary> rest = new ArrayList<>(route.length);
+			for (FlightSummary r : route) {
+				if (r.getF_id() != f.getF_id()) {
+					rest.add(r);
+				}
+			}
+			return rest.isEmpty() ? null : rest.toArray(new FlightSummary[0]);
+		});
+	}
+
+	private static long diff(State current, State fresh) {
+		long mismatches = 0;
+		for (FlightSummary f : fresh.flights.values()) {
+			if (!Objects.equals(f, current.flights.get(f.getF_id()))) {
+				mismatches++;
+			}
+		}
+		for (Integer id : current.flights.keySet()) {
+			if (!fresh.flights.containsKey(id)) {
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+}
@@ -0,0 +1,188 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.DTO.Itinerary;
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.RouteIndexRebuiltEvent;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+
+//Connecting-flight search over every flight as a leg of LegGraph. Built from the route index's scan each time
+//that index rebuilds, and kept current from the flight change events in between. Legs without a departure time
+//or a price cannot be planned with and are left out.
+//
+//Flights with a departure are legs on one timeline in epoch minutes, landing at their arrival (or
+//app.routes.default-leg-minutes later when it is missing), so connections run across midnight and across days.
+//Rows older than departures that only carry a time of day are planned among themselves in a second graph, every leg
+//on the same day at that time; the two are merged by rank. A connection has to leave at least the minimum
+//connection time after the previous leg lands. Full flights (from the route index's seat counts) are skipped
+@Component
+public class RoutePlanner {
+	private static final Logger log = LoggerFactory.getLogger(RoutePlanner.class);
+
+	//What itineraries are ranked by first; the other one breaks ties
+	public enum Rank {
+		PRICE, DURATION
+	}
+
+	private static final DateTimeFormatter TIME = new DateTimeFormatterBuilder().parseCaseInsensitive()
+			.appendPattern("[h:mm[:ss] a][h:mm[:ss]a][H:mm[:ss]]").toFormatter(Locale.ROOT);
+
+	@Autowired
+	private RouteIndex ri;
+
+	@Value("${app.routes.default-leg-minutes:120}")
+	private long legMinutes;
+
+	private volatile LegGraph graph = new LegGraph(); //legs with a departure
+	private volatile LegGraph daily = new LegGraph(); //legs with only a time of day
+	private final Map<Integer, FlightSummary> flights = new ConcurrentHashMap<>();
+	private volatile boolean ready;
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public int legs() {
+		return graph.size() + daily.size();
+	}
+
+	//Minutes after midnight for "14:05", "9:30", "14:05:00" or "2:05 PM"; -1 when the time is missing or not a time
+	public static long departureMinutes(String time) {
+		if (time == null || time.isBlank()) {
+			return -1;
+		}
+		try {
+			return LocalTime.parse(time.trim(), TIME).toSecondOfDay() / 60;
+		} catch (DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+	//Null when the flight cannot be planned with. Minutes are epoch minutes for a flight with a departure, and minutes
+	//after midnight for one with only a time of day
+	private LegGraph.Leg leg(FlightSummary f) {
+		if (f.getPrice() == null || f.getSource() == null || f.getDestination() == null) {
+			return null;
+		}
+		long departure;
+		long arrival;
+		if (f.getDeparture() != null) {
+			departure = Math.floorDiv(f.getDeparture().toEpochSecond(), 60);
+			arrival = f.getArrival() == null ? departure + legMinutes : Math.floorDiv(f.getArrival().toEpochSecond(), 60);
+		} else {
+			departure = departureMinutes(f.getTime());
+			if (departure < 0) {
+				return null;
+			}
+			arrival = departure + legMinutes;
+		}
+		return new LegGraph.Leg(f.getF_id(), RouteIndex.normalize(f.getSource()), RouteIndex.normalize(f.getDestination()),
+				departure, arrival, FareIndex.cents(f.getPrice()));
+	}
+
+	//Adds the flight's leg to the graph for its kind of time
+	private static void put(LegGraph dated, LegGraph timeOfDay, FlightSummary f, LegGraph.Leg leg) {
+		(f.getDeparture() != null ? dated : timeOfDay).put(leg);
+	}
+
+	public List<Itinerary> plan(String source, String destination, int k, int maxStops, long minConnection, Rank rank) {
+		String from = RouteIndex.normalize(source);
+		String to = RouteIndex.normalize(destination);
+		List<LegGraph.Plan> plans = graph.plan(from, to, k, maxStops, minConnection, rank, this::hasSeats);
+		LegGraph legacy = daily;
+		if (legacy.size() > 0) {
+			plans = new ArrayList<>(plans);
+			plans.addAll(legacy.plan(from, to, k, maxStops, minConnection, rank, this::hasSeats));
+			plans.sort(LegGraph.order(rank));
+			plans = plans.subList(0, Math.min(k, plans.size()));
+		}
+		List<Itinerary> out = new ArrayList<>(plans.size());
+		for (LegGraph.Plan p : plans) {
+			List<FlightSummary> legs = new ArrayList<>(p.legs.length);
+			long flying = 0;
+			for (LegGraph.Leg l : p.legs) {
+				legs.add(summary(l.id));
+				flying += l.arrival - l.departure;
+			}
+			out.add(new Itinerary(legs, p.legs.length - 1, BigDecimal.valueOf(p.priceCents, 2), p.minutes, p.minutes - flying));
+		}
+		return out;
+	}
+
+	//The route index has the current seat and passenger counts
+	private FlightSummary summary(int id) {
+		FlightSummary s = ri.get(id);
+		return s != null ? s : flights.get(id);
+	}
+
+	private boolean hasSeats(int id) {
+		FlightSummary s = summary(id);
+		return s == null || s.getSeatsAvailable() == null || s.getSeatsAvailable() > 0;
+	}
+
+	//Swaps in a graph over the flights the route index just loaded
+	@EventListener
+	public void onRouteIndexRebuilt(RouteIndexRebuiltEvent e) {
+		LegGraph fresh = new LegGraph();
+		LegGraph freshDaily = new LegGraph();
+		Map<Integer, FlightSummary> all = new ConcurrentHashMap<>();
+		for (FlightSummary f : e.getFlights()) {
+			all.put(f.getF_id(), f);
+			LegGraph.Leg leg = leg(f);
+			if (leg != null) {
+				put(fresh, freshDaily, f, leg);
+			}
+		}
+		synchronized (this) {
+			graph = fresh;
+			daily = freshDaily;
+			flights.clear();
+			flights.putAll(all);
+			if (!ready) {
+				ready = true;
+				log.info("Route planner built: {} legs from {} airports, {} legs with only a time of day", fresh.size(), fresh.airports(),
+						freshDaily.size());
+			}
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		synchronized (this) {
+			LegGraph g = graph;
+			LegGraph d = daily;
+			g.remove(e.getFlightId());
+			d.remove(e.getFlightId());
+			if (e.isDeleted()) {
+				flights.remove(e.getFlightId());
+				return;
+			}
+			Flight f = e.getFlight();
+			FlightSummary s = FlightSummary.of(f, 0);
+			flights.put(f.getF_id(), s);
+			LegGraph.Leg leg = leg(s);
+			if (leg != null) {
+				put(g, d, s, leg);
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//Principal built from the signed JWT claims, so authenticating a request needs no Users lookup.
+//getName() is the email, which keeps Authentication.getName() working as before
+@Data
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal, Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private int id;
+	private String email;
+	private UserRole role;
+
+	@Override
+	public String getName() {
+		return email;
+	}
+}
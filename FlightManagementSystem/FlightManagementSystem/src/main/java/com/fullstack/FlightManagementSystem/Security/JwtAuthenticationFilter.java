@@ -1,9 +1,11 @@
 package com.fullstack.FlightManagementSystem.Security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,6 +14,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,10 +23,15 @@ import jakarta.servlet.http.HttpServletResponse;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+	//Role of the authenticated caller, read when http.server.requests is tagged (after the security context is gone)
+	public static final String ROLE_ATTRIBUTE=JwtAuthenticationFilter.class.getName()+".role";
+	
 	@Autowired
 	private JwtUtil ju;
 	@Autowired
 	private UserDetailsService uds;
+	@Autowired
+	private RevokedTokens rt;
 	
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -31,16 +40,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		String authHeader= request.getHeader("Authorization");
 		if(authHeader!=null&&!authHeader.isEmpty()&&authHeader.startsWith("Bearer ")) {
 			String token=authHeader.substring(7);
-			String email=ju.extractEmail(token);
+			//One verification per request: parseToken checks signature and expiry together (or hits the cache)
+			Claims claims=ju.parseToken(token);
+			//Refresh tokens are only for /auth/refresh, and revoked tokens are out; both are checked in memory
+			if(claims!=null&&(ju.isRefreshToken(claims)||rt.isRevoked(claims.getId()))) {
+				claims=null;
+			}
+			String email=claims==null?null:claims.getSubject();
 			if(email!=null&&SecurityContextHolder.getContext().getAuthentication()==null) {
-				UserDetails u=uds.loadUserByUsername(email);
-				if(ju.validateToken(token, email)) {
-					UsernamePasswordAuthenticationToken authToken=new UsernamePasswordAuthenticationToken(u, null, u.getAuthorities());
-					authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-					SecurityContextHolder.getContext().setAuthentication(authToken);
+				UsernamePasswordAuthenticationToken authToken;
+				AuthenticatedUser user=ju.toAuthenticatedUser(claims);
+				if(user!=null) {
+					//Stateless: id and role come from the signed claims, no database round trip
+					authToken=new UsernamePasswordAuthenticationToken(user, null, List.of(new SimpleGrantedAuthority("ROLE_"+user.getRole().name())));
+				}else {
+					//Older token without the claims
+					UserDetails u=uds.loadUserByUsername(email);
+					authToken=new UsernamePasswordAuthenticationToken(u, null, u.getAuthorities());
 				}
+				authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+				request.setAttribute(ROLE_ATTRIBUTE, user!=null?user.getRole().name():roleOf(authToken));
+				SecurityContextHolder.getContext().setAuthentication(authToken);
 			}
 		}
 		filterChain.doFilter(request, response);
 	}
+	
+	private static String roleOf(UsernamePasswordAuthenticationToken auth) {
+		return auth.getAuthorities().stream().map(a -> a.getAuthority().replaceFirst("^ROLE_", "")).findFirst().orElse("NONE");
+	}
 }
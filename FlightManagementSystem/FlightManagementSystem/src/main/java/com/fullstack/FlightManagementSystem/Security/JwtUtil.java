@@ -10,78 +10,174 @@ import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
 
 
 @Component
 public class JwtUtil {
+	public static final String CLAIM_USER_ID="uid";
+	public static final String CLAIM_ROLE="role";
+	public static final String CLAIM_USE="use";
+	public static final String USE_REFRESH="refresh";
+	
 	@Value("${jwt.secret:mySecretKey}")
 	private String jwtSecret;
-	@Value("${jwt.expiration:86400000}") //(24 hours in milliseconds)
+	@Value("${jwt.expiration:900000}") //(15 minutes in milliseconds) access tokens are short lived...
 	private int jwtExpirationMs;
+	@Value("${jwt.refresh-expiration:604800000}") //...and renewed with a refresh token (7 days) at /auth/refresh
+	private long refreshExpirationMs=604800000;
+	@Value("${jwt.cache.max-size:10000}") //how many verified tokens to remember, 0 turns the cache off
+	private int cacheMaxSize;
+	
+	//Built once: the key and the parser are immutable and thread safe
+	private SecretKey secretKey;
+	private JwtParser parser;
+	private VerifiedTokenCache verifiedTokens;
 	
-	private SecretKey generateSecretKey() {
-		return Keys.hmacShaKeyFor(jwtSecret.getBytes()); //to create a secure key
+	//Optional so JwtUtil can still be built by hand (tests, benchmarks); without a registry the counters go nowhere
+	@Autowired(required=false)
+	private MeterRegistry meters;
+	private Counter expired;
+	private Counter badSignature;
+	private Counter malformed;
+	private Counter otherFailure;
+	
+	@PostConstruct
+	void init() {
+		secretKey=Keys.hmacShaKeyFor(jwtSecret.getBytes()); //to create a secure key
+		parser=Jwts.parser().verifyWith(secretKey).build();
+		verifiedTokens=new VerifiedTokenCache(cacheMaxSize);
+		MeterRegistry registry=meters!=null?meters:Metrics.globalRegistry;
+		expired=failureCounter(registry, "expired");
+		badSignature=failureCounter(registry, "signature");
+		malformed=failureCounter(registry, "malformed");
+		otherFailure=failureCounter(registry, "other");
+	}
+	
+	private static Counter failureCounter(MeterRegistry registry, String reason) {
+		return Counter.builder("fms.jwt.validation.failures").description("Bearer tokens rejected").tag("reason", reason).register(registry);
+	}
+	
+	//The user id and role are signed into the token, so the filter can authorize without loading the user.
+	//Every token gets an id (jti) so it can be revoked
+	public String generateToken(Users user) {
+		Map<String, Object> claims=new HashMap<String, Object>();
+		claims.put(CLAIM_USER_ID, user.getId());
+		claims.put(CLAIM_ROLE, user.getRole().name());
+		return sign(claims, user.getEmail(), jwtExpirationMs);
 	}
 	
-	public String generateToken(String email) {
+	//Only good for /auth/refresh: it carries no role, and JwtAuthenticationFilter turns it away as a bearer token
+	public String generateRefreshToken(Users user) {
 		Map<String, Object> claims=new HashMap<String, Object>();
+		claims.put(CLAIM_USER_ID, user.getId());
+		claims.put(CLAIM_USE, USE_REFRESH);
+		return sign(claims, user.getEmail(), refreshExpirationMs);
+	}
+	
+	private String sign(Map<String, Object> claims, String subject, long lifetimeMs) {
+		Instant now=Instant.now();
 		return Jwts.builder()
 				.claims(claims)
-				.subject(email)
-				.issuedAt(Date.from(Instant.now()))
-				.expiration(Date.from(Instant.now().plusMillis(jwtExpirationMs)))
-				.signWith(generateSecretKey())
+				.id(UUID.randomUUID().toString())
+				.subject(subject)
+				.issuedAt(Date.from(now))
+				.expiration(Date.from(now.plusMillis(lifetimeMs)))
+				.signWith(secretKey)
 				.compact();
 	}
 	
+	public boolean isRefreshToken(Claims claims) {
+		return USE_REFRESH.equals(claims.get(CLAIM_USE, String.class));
+	}
+	
+	public long getExpirationMs() {
+		return jwtExpirationMs;
+	}
+	
+	public long getRefreshExpirationMs() {
+		return refreshExpirationMs;
+	}
+	
+	//Verifies signature and expiration exactly once and returns the claims, or null if the token is not valid.
+	//A token that was already verified is answered from the cache without touching the crypto again
+	public Claims parseToken(String token) {
+		Claims claims=verifiedTokens.get(token);
+		if(claims!=null) {
+			return claims;
+		}
+		try {
+			claims=parser.parseSignedClaims(token).getPayload();
+		} catch (ExpiredJwtException e) {
+			expired.increment();
+			return null;
+		} catch (SignatureException e) {
+			badSignature.increment();
+			return null;
+		} catch (MalformedJwtException e) {
+			malformed.increment();
+			return null;
+		} catch (JwtException | IllegalArgumentException e) {
+			otherFailure.increment();
+			return null;
+		}
+		verifiedTokens.put(token, claims);
+		return claims;
+	}
+	
+	//Null for tokens issued before the uid/role claims were added, those still need a user lookup
+	public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+		Integer id=claims.get(CLAIM_USER_ID, Integer.class);
+		String role=claims.get(CLAIM_ROLE, String.class);
+		if(id==null||role==null) {
+			return null;
+		}
+		try {
+			return new AuthenticatedUser(id, claims.getSubject(), UserRole.valueOf(role));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
 	public String extractEmail(String token) {
-	    return Jwts.parser()  // create JWT parser
-	            .verifyWith(generateSecretKey()) // verify with the same secret key
-	            .build()
-	            .parseSignedClaims(token) // parse and validate token
-	            .getPayload()
-	            .getSubject(); // extract subject (email)
+		Claims claims=parseToken(token);
+		return claims==null?null:claims.getSubject(); // extract subject (email)
 	}
 	
 	public Date extractExpiration(String token){
-		return Jwts.parser()
-				.verifyWith(generateSecretKey())
-				.build()
-				.parseSignedClaims(token)
-				.getPayload()
-				.getExpiration();
+		Claims claims=parseToken(token);
+		return claims==null?null:claims.getExpiration();
 	}
 	
 	public boolean isTokenExpired(String token){
-		return extractExpiration(token).before(new Date());
-//		if(extractExpiration(token).before(new Date())) {
-//			return true;
-//		}else {
-//			return false;
-//		}
+		Date expiration=extractExpiration(token);
+		return expiration==null||expiration.before(new Date());
 	}
 	
 	public boolean validateToken(String token, String email){
-		return extractEmail(token).equals(email)&&!isTokenExpired(token);
+		Claims claims=parseToken(token);
+		return claims!=null&&claims.getSubject().equals(email)&&claims.getExpiration().after(new Date());
 	}
 }
-
-
-
-
-
-
-
-
-
-
-
-
@@ -0,0 +1,137 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.fullstack.FlightManagementSystem.Exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+//Password hashing (BCrypt, deliberately CPU heavy) on its own small pool instead of the request threads, so a login
+//storm can use at most app.auth.hashing.threads cores and everything else keeps the rest. Waiting work is capped at
+//app.auth.hashing.queue-size; beyond that, or when a hash is not done within app.auth.hashing.timeout-ms, the caller
+//gets ServiceBusyException (503) straight away. Queue wait and hashing time are timed separately
+@Component
+public class PasswordHasher {
+	private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+	private final PasswordEncoder pe;
+	private final ThreadPoolExecutor pool;
+	private final long timeoutMs;
+	private final MeterRegistry meters;
+	private final Timer waits;
+
+	@Autowired
+	public PasswordHasher(PasswordEncoder pe, MeterRegistry meters, @Value("${app.auth.hashing.threads:0}") int threads,
+			@Value("${app.auth.hashing.queue-size:32}") int queueSize, @Value("${app.auth.hashing.timeout-ms:5000}") long timeoutMs) {
+		this.pe = pe;
+		this.meters = meters;
+		this.timeoutMs = timeoutMs;
+		int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		AtomicInteger ids = new AtomicInteger();
+		this.pool = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+			Thread t = new Thread(r, "password-hash-" + ids.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.waits = Timer.builder("fms.auth.hashing.wait").description("Time password hashes waited for a hashing thread")
+				.register(meters);
+		Gauge.builder("fms.auth.hashing.queue", pool, p -> p.getQueue().size()).description("Password hashes waiting for a thread")
+				.register(meters);
+		Gauge.builder("fms.auth.hashing.active", pool, ThreadPoolExecutor::getActiveCount).description("Password hashes running")
+				.register(meters);
+		log.info("Password hashing on {} threads, at most {} waiting", n, Math.max(1, queueSize));
+	}
+
+	@PreDestroy
+	void stop() {
+		pool.shutdownNow();
+	}
+
+	public String encode(String raw) {
+		return run("encode", () -> pe.encode(raw));
+	}
+
+	public boolean matches(String raw, String encoded) {
+		return run("matches", () -> pe.matches(raw, encoded));
+	}
+
+	//True when the hash was made with different settings (a lower BCrypt cost) than the encoder now uses
+	public boolean isOutdated(String encoded) {
+		return pe.upgradeEncoding(encoded);
+	}
+
+	//Re-hashes in the background and hands the new hash to store; the caller does not wait. Skipped when the pool is
+	//full, the next login will try again
+	public void rehash(String raw, Consumer<String> store) {
+		try {
+			pool.execute(() -> {
+				try {
+					store.accept(timed("rehash", () -> pe.encode(raw)));
+				} catch (Exception e) {
+					log.warn("Could not store an upgraded password hash", e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected("rehash");
+		}
+	}
+
+	private <T> T run(String op, Callable<T> task) {
+		long queued = System.nanoTime();
+		Future<T> f;
+		try {
+			f = pool.submit(() -> {
+				waits.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+				return timed(op, task);
+			});
+		} catch (RejectedExecutionException e) {
+			rejected(op);
+			throw new ServiceBusyException("Too many sign-ins in progress, please retry");
+		}
+		try {
+			return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			f.cancel(true);
+			rejected(op);
+			throw new ServiceBusyException("Sign-in is taking too long, please retry");
+		} catch (InterruptedException e) {
+			f.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ServiceBusyException("Sign-in was interrupted, please retry");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private <T> T timed(String op, Callable<T> task) throws Exception {
+		return Timer.builder("fms.auth.hashing").description("Password hashing time").tag("op", op).register(meters).recordCallable(task);
+	}
+
+	private void rejected(String op) {
+		Counter.builder("fms.auth.hashing.rejected").description("Password hashes turned away because the hashing pool was busy")
+				.tag("op", op).register(meters).increment();
+	}
+}
@@ -0,0 +1,60 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+//Runs right after JwtAuthenticationFilter: signed-in callers are limited by their JWT subject, everyone else by
+//client IP. A request over its rule's limit gets 429 with Retry-After in whole seconds.
+//Not a bean on purpose, so Boot does not also register it as a servlet filter and count every request twice
+public class RateLimitFilter extends OncePerRequestFilter {
+	private final RateLimiter rl;
+	private final MeterRegistry meters;
+
+	public RateLimitFilter(RateLimiter rl, MeterRegistry meters) {
+		this.rl = rl;
+		this.meters = meters;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		RateLimiter.Rule rule = rl.isEnabled() ? rl.rule(request.getRequestURI().substring(request.getContextPath().length())) : null;
+		if (rule == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		long wait = rl.acquire(rule, caller(request));
+		if (wait == 0) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		Counter.builder("fms.ratelimit.rejected").description("Requests refused with 429").tag("rule", rule.getPrefix())
+				.register(meters).increment();
+		long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+		response.setStatus(429);
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+		response.setContentType("application/json");
+		response.getWriter().write("{\"error\":\"Too many requests\",\"message\":\"Rate limit exceeded, retry in " + seconds + " s\"}");
+	}
+
+	private static String caller(HttpServletRequest request) {
+		Authentication a = SecurityContextHolder.getContext().getAuthentication();
+		if (a != null && a.isAuthenticated() && !(a instanceof AnonymousAuthenticationToken)) {
+			return "u:" + a.getName();
+		}
+		return "ip:" + request.getRemoteAddr();
+	}
+}
@@ -0,0 +1,158 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Token buckets per (rule, caller) for RateLimitFilter. Each bucket is one AtomicLong holding the time at which it is
+//full again (the GCRA form of a token bucket), so taking a token is a single CAS with no lock. Buckets live in
+//power-of-two stripes of at most maxKeys / stripes entries each. A bucket that has refilled completely is the same
+//as no bucket, so idle buckets are dropped for free by the periodic sweep and whenever a stripe fills up; only if a
+//stripe is still full after that is an arbitrary tenth of it dropped.
+//
+//Rules (app.rate-limit.rules) are "path prefix=burst:tokens per second", comma separated; the first matching prefix
+//applies and a path that matches none is not limited
+@Component
+public class RateLimiter {
+	public static final class Rule {
+		final int index;
+		final String prefix;
+		final int burst;
+		final double perSecond;
+		final long interval; //nanos per token
+		final long tolerance; //how far ahead of now the bucket may run before it is empty
+
+		Rule(int index, String prefix, int burst, double perSecond) {
+			if (burst < 1 || !(perSecond > 0)) {
+				throw new IllegalArgumentException("Rate limit for " + prefix + " needs a burst of at least 1 and a positive rate");
+			}
+			this.index = index;
+			this.prefix = prefix;
+			this.burst = burst;
+			this.perSecond = perSecond;
+			this.interval = Math.max(1, (long) (1_000_000_000L / perSecond));
+			this.tolerance = interval * (burst - 1);
+		}
+
+		public String getPrefix() {
+			return prefix;
+		}
+	}
+
+	private final boolean enabled;
+	private final Rule[] rules;
+	private final List<Map<String, AtomicLong>> stripes;
+	private final int mask;
+	private final int perStripe;
+
+	@Autowired
+	public RateLimiter(@Value("${app.rate-limit.enabled:true}") boolean enabled, @Value("${app.rate-limit.rules:/=100:50}") String rules,
+			@Value("${app.rate-limit.max-keys:100000}") int maxKeys, @Value("${app.rate-limit.stripes:64}") int stripes) {
+		this.enabled = enabled;
+		this.rules = parse(rules);
+		int n = Integer.highestOneBit(Math.max(1, stripes));
+		this.mask = n - 1;
+		this.perStripe = Math.max(1, maxKeys / n);
+		this.stripes = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			this.stripes.add(new ConcurrentHashMap<>());
+		}
+	}
+
+	static Rule[] parse(String rules) {
+		List<Rule> out = new ArrayList<>();
+		for (String r : rules.split(",")) {
+			if (r.isBlank()) {
+				continue;
+			}
+			String[] pathAndLimit = r.trim().split("=", 2);
+			String[] limit = pathAndLimit.length == 2 ? pathAndLimit[1].split(":", 2) : new String[0];
+			if (limit.length != 2) {
+				throw new IllegalArgumentException("Rate limit rule '" + r.trim() + "' should look like /path=burst:perSecond");
+			}
+			out.add(new Rule(out.size(), pathAndLimit[0].trim().toLowerCase(Locale.ROOT), Integer.parseInt(limit[0].trim()),
+					Double.parseDouble(limit[1].trim())));
+		}
+		return out.toArray(new Rule[0]);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	//Null when no rule covers the path
+	public Rule rule(String path) {
+		for (Rule r : rules) {
+			if (path.regionMatches(true, 0, r.prefix, 0, r.prefix.length())) {
+				return r;
+			}
+		}
+		return null;
+	}
+
+	//Takes a token from caller's bucket for the rule. 0 when allowed, otherwise the nanos until a token is free
+	public long acquire(Rule rule, String caller) {
+		return acquire(rule, caller, System.nanoTime());
+	}
+
+	long acquire(Rule rule, String caller, long now) {
+		String key = rule.index + "|" + caller;
+		Map<String, AtomicLong> stripe = stripes.get(spread(key.hashCode()) & mask);
+		AtomicLong full = stripe.get(key);
+		if (full == null) {
+			if (stripe.size() >= perStripe) {
+				evict(stripe, now);
+			}
+			full = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+		}
+		while (true) {
+			long t = full.get();
+			if (t - now > rule.tolerance) {
+				return t - rule.tolerance - now;
+			}
+			long next = (t - now > 0 ? t : now) + rule.interval;
+			if (full.compareAndSet(t, next)) {
+				return 0;
+			}
+		}
+	}
+
+	public int size() {
+		int n = 0;
+		for (Map<String, AtomicLong> s : stripes) {
+			n += s.size();
+		}
+		return n;
+	}
+
+	@Scheduled(initialDelayString = "${app.rate-limit.sweep-interval-ms:60000}", fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+	public void sweep() {
+		long now = System.nanoTime();
+		for (Map<String, AtomicLong> s : stripes) {
+			s.values().removeIf(full -> full.get() - now <= 0);
+		}
+	}
+
+	private void evict(Map<String, AtomicLong> stripe, long now) {
+		stripe.values().removeIf(full -> full.get() - now <= 0);
+		int toDrop = stripe.size() - perStripe + Math.max(1, perStripe / 10);
+		Iterator<String> it = stripe.keySet().iterator();
+		while (toDrop-- > 0 && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,150 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//Ids (jti) of tokens revoked before they expire: refresh tokens once they have been exchanged, and both tokens on
+//logout. JwtAuthenticationFilter asks on every request, so the first answer comes from a Bloom filter: a few bit reads
+//say "never revoked" for nearly every live token, and only a hit (a revoked token, or about fpp of the others) goes
+//on to the exact set. An id leaves the exact set once its token has expired, because the signature check rejects the
+//token from then on; the periodic prune then rebuilds the Bloom filter, which cannot forget, from what is left.
+//Held in this process only, nothing is read from the database
+@Component
+public class RevokedTokens {
+	private static final class Bloom {
+		final AtomicLongArray words;
+		final int mask;
+		final int hashes;
+		final int capacity;
+
+		Bloom(int capacity, double fpp) {
+			double bits = -capacity * Math.log(fpp) / (Math.log(2) * Math.log(2));
+			int size = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(64, Math.ceil(bits))) * 2 - 1);
+			this.words = new AtomicLongArray(size >>> 6);
+			this.mask = size - 1;
+			this.hashes = Math.max(1, (int) Math.round(size / (double) capacity * Math.log(2)));
+			this.capacity = capacity;
+		}
+
+		void add(long h) {
+			int h1 = (int) h;
+			int h2 = (int) (h >>> 32) | 1;
+			for (int i = 0; i < hashes; i++) {
+				int bit = (h1 + i * h2) & mask;
+				long m = 1L << bit;
+				int w = bit >>> 6;
+				long old;
+				while (((old = words.get(w)) & m) == 0 && !words.compareAndSet(w, old, old | m)) {
+				}
+			}
+		}
+
+		boolean mightContain(long h) {
+			int h1 = (int) h;
+			int h2 = (int) (h >>> 32) | 1;
+			for (int i = 0; i < hashes; i++) {
+				int bit = (h1 + i * h2) & mask;
+				if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private final Map<String, Long> exact = new ConcurrentHashMap<>(); //jti -> token expiry, epoch millis
+	private final int expected;
+	private final double fpp;
+	private final Counter rejected;
+	private volatile Bloom bloom;
+
+	@Autowired
+	public RevokedTokens(MeterRegistry meters, @Value("${app.auth.revocation.expected:100000}") int expected,
+			@Value("${app.auth.revocation.false-positive-rate:0.01}") double fpp) {
+		if (expected < 1 || !(fpp > 0 && fpp < 1)) {
+			throw new IllegalArgumentException("app.auth.revocation needs expected >= 1 and a false-positive-rate between 0 and 1");
+		}
+		this.expected = expected;
+		this.fpp = fpp;
+		this.bloom = new Bloom(expected, fpp);
+		this.rejected = Counter.builder("fms.jwt.validation.failures").description("Bearer tokens rejected").tag("reason", "revoked")
+				.register(meters);
+		Gauge.builder("fms.jwt.revoked", exact, Map::size).description("Revoked tokens that have not expired yet").register(meters);
+	}
+
+	//Tokens without an id (issued before ids were added) cannot be revoked and simply run out
+	public boolean isRevoked(String jti) {
+		if (jti == null || !bloom.mightContain(hash(jti))) {
+			return false;
+		}
+		if (exact.containsKey(jti)) {
+			rejected.increment();
+			return true;
+		}
+		return false;
+	}
+
+	//False when the id was already revoked, which is what lets a refresh token be exchanged only once
+	public synchronized boolean revoke(String jti, Date expiresAt) {
+		if (jti == null || expiresAt == null) {
+			return false;
+		}
+		if (exact.putIfAbsent(jti, expiresAt.getTime()) != null) {
+			return false;
+		}
+		bloom.add(hash(jti));
+		if (exact.size() > bloom.capacity) {
+			rebuild(); //past the size it was built for the filter is mostly ones, start over at twice the size
+		}
+		return true;
+	}
+
+	public int size() {
+		return exact.size();
+	}
+
+	@Scheduled(initialDelayString = "${app.auth.revocation.prune-interval-ms:60000}", fixedDelayString = "${app.auth.revocation.prune-interval-ms:60000}")
+	public synchronized void prune() {
+		long now = System.currentTimeMillis();
+		exact.values().removeIf(exp -> exp <= now);
+		rebuild();
+	}
+
+	//Writers are synchronized, so no revocation can slip in between filling the new filter and publishing it
+	private void rebuild() {
+		Bloom b = new Bloom(Math.max(expected, exact.size() * 2), fpp);
+		for (String jti : exact.keySet()) {
+			b.add(hash(jti));
+		}
+		bloom = b;
+	}
+
+	boolean mightBeRevoked(String jti) {
+		return bloom.mightContain(hash(jti));
+	}
+
+	//FNV-1a over the chars, then the MurmurHash3 finalizer so both halves are well mixed for double hashing
+	private static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb93fe1a3e2f9L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
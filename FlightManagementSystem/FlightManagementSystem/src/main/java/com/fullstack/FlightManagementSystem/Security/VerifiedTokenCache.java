@@ -0,0 +1,66 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.jsonwebtoken.Claims;
+
+//Tokens whose signature has already been checked, so a client sending the same bearer token again skips the HMAC.
+//Entries are dropped once the token expires, and the map never grows past maxSize.
+public class VerifiedTokenCache {
+	private final Map<String, Claims> tokens = new ConcurrentHashMap<>();
+	private final int maxSize;
+
+	public VerifiedTokenCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Claims get(String token) {
+		Claims c = tokens.get(token);
+		if (c == null) {
+			return null;
+		}
+		if (isExpired(c, System.currentTimeMillis())) {
+			tokens.remove(token);
+			return null;
+		}
+		return c;
+	}
+
+	public void put(String token, Claims claims) {
+		if (maxSize <= 0) {
+			return;
+		}
+		if (tokens.size() >= maxSize) {
+			evict();
+		}
+		tokens.put(token, claims);
+	}
+
+	public void invalidate(String token) {
+		tokens.remove(token);
+	}
+
+	public int size() {
+		return tokens.size();
+	}
+
+	//First drop everything that has expired. If the cache is still full, drop an arbitrary tenth of it
+	private void evict() {
+		long now = System.currentTimeMillis();
+		tokens.values().removeIf(c -> isExpired(c, now));
+		int toDrop = tokens.size() - maxSize + Math.max(1, maxSize / 10);
+		Iterator<String> it = tokens.keySet().iterator();
+		while (toDrop-- > 0 && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static boolean isExpired(Claims c, long now) {
+		Date exp = c.getExpiration();
+		return exp != null && exp.getTime() <= now;
+	}
+}
@@ -0,0 +1,36 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Model.Users;
+
+//Lives for one HTTP request. Whatever the @PreAuthorize expressions load (the current user, the passenger
+//whose ownership was checked) is kept here so the handler and services reuse it instead of querying again
+@Component
+@RequestScope
+public class CurrentRequestContext {
+	private Users currentUser;
+	private final Map<Integer, Optional<Passengers>> passengers = new HashMap<>();
+
+	public Users currentUser(Supplier<Users> loader) {
+		if (currentUser == null) {
+			currentUser = loader.get();
+		}
+		return currentUser;
+	}
+
+	public Optional<Passengers> passenger(int id, Supplier<Optional<Passengers>> loader) {
+		return passengers.computeIfAbsent(id, k -> loader.get());
+	}
+
+	public void forgetPassenger(int id) {
+		passengers.remove(id);
+	}
+}
@@ -0,0 +1,115 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fullstack.FlightManagementSystem.Search.RoutePlanner;
+
+//Schema version 1: flights saved before departure and arrival existed only have a time of day. Each such row whose
+//time parses is given a departure on app.flights.legacy-departure-date in app.flights.zone, landing
+//app.routes.default-leg-minutes later. The version is recorded in schema_version in the same transaction, so the
+//backfill runs once per database; saves, updates and imports have required a departure since, so the rows it
+//fills are the ones that predate it. With such rows present the date has to be configured, startup fails otherwise.
+//Times that do not parse are counted and stay untyped
+@Component
+public class DepartureBackfill implements ApplicationRunner {
+	private static final Logger log = LoggerFactory.getLogger(DepartureBackfill.class);
+	private static final int CHUNK = 1000;
+	public static final int VERSION = 1;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final TransactionTemplate tx;
+
+	@Value("${app.flights.zone:UTC}")
+	private String zone;
+	@Value("${app.flights.legacy-departure-date:}")
+	private String legacyDate;
+	@Value("${app.routes.default-leg-minutes:120}")
+	private long legMinutes;
+
+	private record Legacy(int id, String time) {
+	}
+
+	public DepartureBackfill(PlatformTransactionManager txm) {
+		this.tx = new TransactionTemplate(txm);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		jdbc.execute("create table if not exists schema_version (version integer primary key, description varchar(200) not null, "
+				+ "applied_at timestamp with time zone not null)");
+		if (applied()) {
+			return;
+		}
+		try {
+			tx.executeWithoutResult(status -> migrate());
+		} catch (DuplicateKeyException e) {
+			log.info("Schema version {} was applied by another instance", VERSION);
+		}
+	}
+
+	public boolean applied() {
+		return jdbc.queryForObject("select count(*) from schema_version where version = ?", Long.class, VERSION) > 0;
+	}
+
+	//Claims the version first: a second instance blocks on the key until this commits, then gets a duplicate
+	private void migrate() {
+		jdbc.update("insert into schema_version (version, description, applied_at) values (?, ?, ?)", VERSION,
+				"backfill flight departure and arrival from time", OffsetDateTime.now(ZoneOffset.UTC));
+		Long legacyRows = jdbc.queryForObject("select count(*) from flight where departure is null and time is not null", Long.class);
+		if (legacyRows == 0) {
+			return;
+		}
+		if (legacyDate.isBlank()) {
+			throw new IllegalStateException(legacyRows + " flights only have a time of day; set app.flights.legacy-departure-date "
+					+ "to the date they fly on so schema version " + VERSION + " can give them a departure");
+		}
+		ZoneId z = ZoneId.of(zone);
+		LocalDate date = LocalDate.parse(legacyDate.trim());
+		long filled = 0;
+		long skipped = 0;
+		int afterId = 0;
+		while (true) {
+			List<Legacy> rows = jdbc.query("select f_id, time from flight where departure is null and time is not null and f_id > ? "
+					+ "order by f_id limit " + CHUNK, (rs, n) -> new Legacy(rs.getInt(1), rs.getString(2)), afterId);
+			if (rows.isEmpty()) {
+				break;
+			}
+			List<Object[]> updates = new ArrayList<>(rows.size());
+			for (Legacy row : rows) {
+				long minutes = RoutePlanner.departureMinutes(row.time());
+				if (minutes < 0) {
+					skipped++;
+					continue;
+				}
+				OffsetDateTime departure = FlightTimes.utc(date.atStartOfDay(z).plusMinutes(minutes).toOffsetDateTime());
+				updates.add(new Object[] { departure, departure.plusMinutes(legMinutes), row.id() });
+			}
+			if (!updates.isEmpty()) {
+				jdbc.batchUpdate("update flight set departure = ?, arrival = ? where f_id = ?", updates);
+				filled += updates.size();
+			}
+			afterId = rows.get(rows.size() - 1).id();
+		}
+		log.info("Schema version {}: backfilled departure and arrival on {} flights from their time on {} ({}), {} times could not be parsed",
+				VERSION, filled, date, z, skipped);
+	}
+}
@@ -0,0 +1,410 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.FlightManagementSystem.Audit.AuditEvent;
+import com.fullstack.FlightManagementSystem.Audit.AuditJournal;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.DTO.ImportRowError;
+import com.fullstack.FlightManagementSystem.Event.CatalogReloadedEvent;
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+//Streams a schedule (CSV with a header row, or one JSON flight per line) straight from the request body.
+//Rows are read one line at a time and written in batches, each batch in its own transaction with the
+//persistence context cleared afterwards, so memory stays flat however large the file is.
+//A row with an f_id updates that flight, a row without one inserts a new flight. Each row that a committed batch
+//wrote is journaled as FLIGHT_CREATED or FLIGHT_UPDATED under the caller's name
+@Service
+public class FlightImporter {
+	private static final Logger log = LoggerFactory.getLogger(FlightImporter.class);
+
+	public enum Format {
+		CSV, NDJSON;
+
+		public static Format of(String format, String contentType) {
+			String f = format != null && !format.isBlank() ? format : contentType == null ? "" : contentType;
+			f = f.toLowerCase(Locale.ROOT);
+			if (f.contains("csv")) {
+				return CSV;
+			}
+			if (f.contains("ndjson") || f.contains("jsonl") || f.contains("json-seq")) {
+				return NDJSON;
+			}
+			throw new BadRequestException("Import format must be csv or ndjson");
+		}
+	}
+
+	private record Row(long line, Flight flight) {
+	}
+
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private SeatInventory si;
+	@Autowired
+	private ApplicationEventPublisher events;
+	@Autowired
+	private ObjectMapper om;
+	@Autowired
+	private AuditJournal journal;
+	@PersistenceContext
+	private EntityManager em;
+
+	private final TransactionTemplate tx;
+
+	@Value("${app.import.batch-size:1000}")
+	private int batchSize;
+	@Value("${app.import.max-errors:100}")
+	private int maxErrors;
+	@Value("${app.import.progress-every:100000}")
+	private long progressEvery;
+
+	private final AtomicReference<ImportReport> latest = new AtomicReference<>();
+
+	public FlightImporter(PlatformTransactionManager txm) {
+		this.tx = new TransactionTemplate(txm);
+	}
+
+	//Last import, or the one still running
+	public ImportReport status() {
+		return latest.get();
+	}
+
+	public ImportReport importFlights(InputStream in, Format format) {
+		ImportReport report = new ImportReport();
+		report.setFormat(format.name());
+		report.setStartedAt(Instant.now().toString());
+		report.setRunning(true);
+		ImportReport previous = latest.get();
+		if ((previous != null && previous.isRunning()) || !latest.compareAndSet(previous, report)) {
+			throw new BadRequestException("Another flight import is still running");
+		}
+		long start = System.nanoTime();
+		try {
+			read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format, report, start);
+		} catch (IOException e) {
+			throw new BadRequestException("Could not read the upload after line " + report.getRowsRead() + ": " + e.getMessage());
+		} finally {
+			report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+			report.setRowsPerSecond(rate(report.getRowsRead(), start));
+			report.setRunning(false);
+			if (report.getInserted() + report.getUpdated() > 0) {
+				//Rows are written without a FlightChangedEvent each: the indexes reload the catalog once instead
+				events.publishEvent(new CatalogReloadedEvent(report.getInserted(), report.getUpdated()));
+			}
+			log.info("Flight import finished: {} rows, {} inserted, {} updated, {} failed in {} ms", report.getRowsRead(),
+					report.getInserted(), report.getUpdated(), report.getFailed(), report.getElapsedMs());
+		}
+		return report;
+	}
+
+	private void read(BufferedReader reader, Format format, ImportReport report, long start) throws IOException {
+		Function<String, Flight> parser;
+		long line = 0;
+		if (format == Format.CSV) {
+			String header = reader.readLine();
+			line++;
+			if (header == null) {
+				throw new BadRequestException("The CSV upload is empty");
+			}
+			parser = csvParser(header);
+		} else {
+			parser = json -> {
+				try {
+					return om.readValue(json, Flight.class);
+				} catch (JsonProcessingException e) {
+					throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+				}
+			};
+		}
+		List<Row> batch = new ArrayList<>(batchSize);
+		String text;
+		while ((text = reader.readLine()) != null) {
+			line++;
+			if (text.isBlank()) {
+				continue;
+			}
+			report.setRowsRead(report.getRowsRead() + 1);
+			try {
+				Flight f = parser.apply(text);
+				validate(f);
+				batch.add(new Row(line, f));
+			} catch (RuntimeException e) {
+				fail(report, line, e.getMessage());
+			}
+			if (batch.size() == batchSize) {
+				write(batch, report);
+				batch.clear();
+			}
+			if (report.getRowsRead() % progressEvery == 0) {
+				report.setRowsPerSecond(rate(report.getRowsRead(), start));
+				log.info("Flight import: {} rows read, {} failed, {} rows/s", report.getRowsRead(), report.getFailed(),
+						report.getRowsPerSecond());
+			}
+		}
+		if (!batch.isEmpty()) {
+			write(batch, report);
+		}
+	}
+
+	//One transaction per batch. If it fails the rows are retried one by one so a single bad row
+	//does not take its whole batch down with it
+	private void write(List<Row> batch, ImportReport report) {
+		report.setBatches(report.getBatches() + 1);
+		try {
+			apply(tx.execute(s -> upsert(batch)), report);
+		} catch (RuntimeException e) {
+			for (Row row : batch) {
+				try {
+					apply(tx.execute(s -> upsert(List.of(row))), report);
+				} catch (RuntimeException rowFailure) {
+					fail(report, row.line(), rootMessage(rowFailure));
+				}
+			}
+		}
+	}
+
+	//Written ids and row errors of one committed batch; nothing reaches the report or the journal until the batch commits
+	private record Outcome(List<Integer> inserted, List<Integer> updated, List<ImportRowError> errors) {
+	}
+
+	private Outcome upsert(List<Row> batch) {
+		em.unwrap(Session.class).setJdbcBatchSize(Math.min(batchSize, 1000));
+		List<ImportRowError> errors = new ArrayList<>();
+		Set<Integer> ids = new HashSet<>();
+		List<Row> rows = new ArrayList<>(batch.size());
+		for (Row row : batch) {
+			Flight f = row.flight();
+			if (f.getF_id() == 0) {
+				rows.add(row);
+			} else if (!ids.add(f.getF_id())) {
+				errors.add(new ImportRowError(row.line(), "Flight " + f.getF_id() + " appears more than once in the same batch"));
+			} else if (f.getCapacity() != null && fr.resizeCapacity(f.getF_id(), f.getCapacity()) == 0 && fr.existsById(f.getF_id())) {
+				//resizeCapacity clears the persistence context, so it runs before any flight of this batch is loaded
+				errors.add(new ImportRowError(row.line(), "Capacity " + f.getCapacity() + " is lower than the seats already booked on flight " + f.getF_id()));
+				ids.remove(f.getF_id());
+			} else {
+				rows.add(row);
+			}
+		}
+		Map<Integer, Flight> existing = new HashMap<>();
+		for (Flight f : fr.findAllById(ids)) {
+			existing.put(f.getF_id(), f);
+		}
+		List<Integer> updated = new ArrayList<>();
+		List<Flight> created = new ArrayList<>();
+		for (Row row : rows) {
+			Flight f = row.flight();
+			if (f.getF_id() == 0) {
+				//A copy, so a batch that rolls back can be retried with rows that still have no id
+				Flight insert = copyFields(f, new Flight());
+				insert.setCapacity(f.getCapacity() == null ? si.getDefaultCapacity() : f.getCapacity());
+				insert.setSeatsAvailable(insert.getCapacity());
+				created.add(insert);
+				continue;
+			}
+			Flight stored = existing.get(f.getF_id());
+			if (stored == null) {
+				errors.add(new ImportRowError(row.line(), "No flight with id " + f.getF_id()));
+				continue;
+			}
+			copyFields(f, stored);
+			if (f.getCapacity() != null) {
+				si.forget(f.getF_id());
+			}
+			updated.add(f.getF_id());
+		}
+		fr.saveAll(created);
+		em.flush();
+		em.clear();
+		return new Outcome(created.stream().map(Flight::getF_id).toList(), updated, errors);
+	}
+
+	private void apply(Outcome outcome, ImportReport report) {
+		report.setInserted(report.getInserted() + outcome.inserted().size());
+		report.setUpdated(report.getUpdated() + outcome.updated().size());
+		for (int id : outcome.inserted()) {
+			journal.record(AuditEvent.Action.FLIGHT_CREATED, id, id);
+		}
+		for (int id : outcome.updated()) {
+			journal.record(AuditEvent.Action.FLIGHT_UPDATED, id, id);
+		}
+		for (ImportRowError e : outcome.errors()) {
+			fail(report, e.getLine(), e.getMessage());
+		}
+	}
+
+	private static Flight copyFields(Flight from, Flight to) {
+		to.setName(from.getName());
+		to.setSource(from.getSource());
+		to.setDestination(from.getDestination());
+		to.setTime(from.getTime());
+		to.setDeparture(from.getDeparture());
+		to.setArrival(from.getArrival());
+		to.setPrice(from.getPrice());
+		to.setImg(from.getImg());
+		return to;
+	}
+
+	private static void validate(Flight f) {
+		if (f == null) {
+			throw new IllegalArgumentException("Empty row");
+		}
+		if (isBlank(f.getName()) || isBlank(f.getSource()) || isBlank(f.getDestination())) {
+			throw new IllegalArgumentException("name, source and destination are required");
+		}
+		if (f.getPrice() != null && f.getPrice().signum() < 0) {
+			throw new IllegalArgumentException("price cannot be negative");
+		}
+		if (f.getCapacity() != null && f.getCapacity() < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		FlightTimes.normalize(f);
+	}
+
+	private void fail(ImportReport report, long line, String message) {
+		report.setFailed(report.getFailed() + 1);
+		if (report.getErrors().size() < maxErrors) {
+			report.getErrors().add(new ImportRowError(line, message));
+		} else {
+			report.setErrorsTruncated(true);
+		}
+	}
+
+	private static final List<String> CSV_COLUMNS = List.of("f_id", "name", "source", "destination", "time", "departure", "arrival", "price", "img",
+			"capacity");
+
+	//Maps each CSV column to its Flight setter once, from the header
+	private static Function<String, Flight> csvParser(String header) {
+		List<String> columns = new ArrayList<>();
+		for (String column : splitCsv(header)) {
+			String c = column.trim().toLowerCase(Locale.ROOT);
+			if (c.equals("id")) {
+				c = "f_id";
+			}
+			if (!CSV_COLUMNS.contains(c)) {
+				throw new BadRequestException("Unknown CSV column '" + column + "', expected " + CSV_COLUMNS);
+			}
+			columns.add(c);
+		}
+		if (!columns.containsAll(List.of("name", "source", "destination"))) {
+			throw new BadRequestException("The CSV header needs at least name, source and destination");
+		}
+		return text -> {
+			List<String> values = splitCsv(text);
+			if (values.size() != columns.size()) {
+				throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+			}
+			Flight f = new Flight();
+			for (int i = 0; i < values.size(); i++) {
+				String v = values.get(i).trim();
+				if (v.isEmpty()) {
+					continue;
+				}
+				try {
+					switch (columns.get(i)) {
+					case "f_id" -> f.setF_id(Integer.parseInt(v));
+					case "name" -> f.setName(v);
+					case "source" -> f.setSource(v);
+					case "destination" -> f.setDestination(v);
+					case "time" -> f.setTime(v);
+					case "departure" -> f.setDeparture(OffsetDateTime.parse(v));
+					case "arrival" -> f.setArrival(OffsetDateTime.parse(v));
+					case "price" -> f.setPrice(new BigDecimal(v));
+					case "img" -> f.setImg(v);
+					case "capacity" -> f.setCapacity(Integer.parseInt(v));
+					default -> throw new IllegalStateException(columns.get(i));
+					}
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Column " + columns.get(i) + " is not a number: " + v);
+				} catch (DateTimeParseException e) {
+					throw new IllegalArgumentException("Column " + columns.get(i) + " is not an ISO-8601 date-time with an offset: " + v);
+				}
+			}
+			return f;
+		};
+	}
+
+	//RFC 4180 fields: commas inside double quotes, "" for a literal quote. Fields cannot span lines
+	static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Unterminated quoted field");
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private static boolean isBlank(String s) {
+		return s == null || s.isBlank();
+	}
+
+	private static long rate(long rows, long start) {
+		long nanos = System.nanoTime() - start;
+		return nanos == 0 ? 0 : rows * 1_000_000_000L / nanos;
+	}
+
+	private static String rootMessage(Throwable e) {
+		Throwable t = e;
+		while (t.getCause() != null) {
+			t = t.getCause();
+		}
+		return t.getMessage();
+	}
+}
@@ -1,20 +1,47 @@
 package com.fullstack.FlightManagementSystem.Service;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.DTO.Itinerary;
+import com.fullstack.FlightManagementSystem.DTO.RouteIndexStats;
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
 import com.fullstack.FlightManagementSystem.Exception.IdNotFoundException;
 import com.fullstack.FlightManagementSystem.Exception.ResourceNotFoundException;
 import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.CursorPage;
 import com.fullstack.FlightManagementSystem.Model.Flight;
 import com.fullstack.FlightManagementSystem.Model.Passengers;
 import com.fullstack.FlightManagementSystem.Repository.FlightRepository;
 import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Search.CatalogSnapshot;
+import com.fullstack.FlightManagementSystem.Search.FareIndex;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+import com.fullstack.FlightManagementSystem.Search.RoutePlanner;
 
 @Service
 public class FlightService {
@@ -23,9 +50,51 @@ public class FlightService {
 	
 	@Autowired
 	private PRepo pr;
+	
+	@Autowired
+	private RouteIndex ri;
+	
+	@Autowired
+	private CatalogSnapshot cs;
+	
+	@Autowired
+	private RoutePlanner rp;
+	
+	@Autowired
+	private FareIndex fx;
+	
+	@Autowired
+	private SeatInventory si;
+	
+	@Autowired
+	private FlightImporter fi;
+	
+	@Autowired
+	private FmsMetrics metrics;
+	
+	@Autowired
+	private ApplicationEventPublisher events;
+	
+	@Value("${app.pagination.default-size:20}")
+	private int defaultPageSize;
+	@Value("${app.pagination.max-size:100}")
+	private int maxPageSize;
+	@Value("${app.bookings.max-group-size:500}")
+	private int maxGroupSize;
+	@Value("${app.routes.min-connection-minutes:45}")
+	private long defaultMinConnection;
+	@Value("${app.routes.max-stops:2}")
+	private int maxStops;
+	@Value("${app.routes.max-results:10}")
+	private int maxItineraries;
+	@Value("${app.flights.zone:UTC}")
+	private ZoneId zone;
+	@Value("${app.flights.max-departure-window-days:31}")
+	private long maxWindowDays;
 
+	//The only read that returns the passenger list, loaded in the same query through the entity graph
 	public ResponseEntity<ApiResponse<Flight>> findFlightById(int id) {
-		Optional<Flight> o=fr.getflightbyid(id);
+		Optional<Flight> o=fr.getFlightWithPassengers(id);
 		if(!o.isPresent()) {
 			throw new IdNotFoundException(id+"Invalid Id");
 		}
@@ -33,34 +102,260 @@ public class FlightService {
 		return new ResponseEntity<ApiResponse<Flight>>(api,HttpStatus.FOUND);
 	}
 	
-	public ResponseEntity<ApiResponse<List<Flight>>> findFlightBySourceAndDestination(String source,String destination){
-		List<Flight> o=fr.findBySourceAndDestination(source, destination);
+	//Served from the in-memory route index (case and surrounding spaces ignored), the database is only used before it is built
+	public ResponseEntity<ApiResponse<List<FlightSummary>>> findFlightBySourceAndDestination(String source,String destination){
+		List<FlightSummary> o=ri.find(source, destination);
+		if(o==null) {
+			o=fr.findBySourceAndDestination(source, destination);
+		}
 		if(o.isEmpty()) {
 			throw new ResourceNotFoundException("Resource Not Found or Invalid Input");
 		}
-		ApiResponse<List<Flight>> api=new ApiResponse<List<Flight>>(HttpStatus.FOUND.value(),"Data Found",o);
-		return new ResponseEntity<ApiResponse<List<Flight>>>(api ,HttpStatus.FOUND);
+		ApiResponse<List<FlightSummary>> api=new ApiResponse<List<FlightSummary>>(HttpStatus.FOUND.value(),"Data Found",o);
+		return new ResponseEntity<ApiResponse<List<FlightSummary>>>(api ,HttpStatus.FOUND);
 	}
 	
-	public ResponseEntity<ApiResponse<List<Flight>>> findAll(){
-		List<Flight> l=fr.findAll();
+	//Direct and connecting itineraries from the in-memory leg graph, best first. Stops and results are capped by
+	//configuration; the minimum connection time defaults to app.routes.min-connection-minutes
+	public ResponseEntity<ApiResponse<List<Itinerary>>> planRoutes(String source, String destination, Integer k, Integer stops,
+			Long minConnection, String sort){
+		if(source.trim().equalsIgnoreCase(destination.trim())) {
+			throw new BadRequestException("Source and destination must differ");
+		}
+		RoutePlanner.Rank rank;
+		try {
+			rank=sort==null||sort.isBlank()?RoutePlanner.Rank.PRICE:RoutePlanner.Rank.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+		}catch(IllegalArgumentException e) {
+			throw new BadRequestException("Unsupported sort '"+sort+"', expected price or duration");
+		}
+		if(stops!=null && (stops<0 || stops>maxStops)) {
+			throw new BadRequestException("Stops must be between 0 and "+maxStops);
+		}
+		if(minConnection!=null && minConnection<0) {
+			throw new BadRequestException("Minimum connection time cannot be negative");
+		}
+		int results=PageCursor.resolveSize(k, 5, maxItineraries);
+		List<Itinerary> l=rp.plan(source, destination, results, stops==null?maxStops:stops,
+				minConnection==null?defaultMinConnection:minConnection, rank);
+		if(l.isEmpty()) {
+			throw new ResourceNotFoundException("No Route Found");
+		}
+		ApiResponse<List<Itinerary>> api=new ApiResponse<List<Itinerary>>(HttpStatus.OK.value(),"Routes Found",l);
+		return new ResponseEntity<ApiResponse<List<Itinerary>>>(api,HttpStatus.OK);
+	}
+	
+	//Priced flights from source (to destination when given) within [minPrice, maxPrice], cheapest first or with
+	//sort=price_desc dearest first, at most k of them. Answered from the fare index, seat and passenger counts from the route index
+	public ResponseEntity<ApiResponse<List<FlightSummary>>> findFares(String source, String destination, BigDecimal minPrice,
+			BigDecimal maxPrice, String sort, Integer k){
+		boolean dearestFirst;
+		if(sort==null || sort.isBlank() || sort.equals("price")) {
+			dearestFirst=false;
+		}else if(sort.equals("price_desc")) {
+			dearestFirst=true;
+		}else {
+			throw new BadRequestException("Unsupported sort '"+sort+"', expected price or price_desc");
+		}
+		if((minPrice!=null && minPrice.signum()<0) || (maxPrice!=null && maxPrice.signum()<0)) {
+			throw new BadRequestException("Prices cannot be negative");
+		}
+		if(minPrice!=null && maxPrice!=null && minPrice.compareTo(maxPrice)>0) {
+			throw new BadRequestException("minPrice cannot be above maxPrice");
+		}
+		long min=minPrice==null?0:FareIndex.cents(minPrice);
+		long max=maxPrice==null?Long.MAX_VALUE:FareIndex.cents(maxPrice);
+		String to=destination==null||destination.isBlank()?null:destination;
+		int[] ids=fx.find(source, to, min, max, dearestFirst, PageCursor.resolveSize(k, defaultPageSize, maxPageSize));
+		List<FlightSummary> l=new ArrayList<>(ids.length);
+		for(int id:ids) {
+			FlightSummary f=ri.get(id);
+			if(f!=null) {
+				l.add(f);
+			}
+		}
+		if(l.isEmpty()) {
+			throw new ResourceNotFoundException("No Flights Found in that price range");
+		}
+		ApiResponse<List<FlightSummary>> api=new ApiResponse<List<FlightSummary>>(HttpStatus.OK.value(),"Data Found",l);
+		return new ResponseEntity<ApiResponse<List<FlightSummary>>>(api,HttpStatus.OK);
+	}
+	
+	public ResponseEntity<ApiResponse<List<FlightSummary>>> findAll(){
+		List<FlightSummary> l=fr.findAll();
 		if(l.isEmpty()) {
 			throw new ResourceNotFoundException("No Records Found");
 		}
-		ApiResponse<List<Flight>> api=new ApiResponse<List<Flight>>(HttpStatus.OK.value(),"Data Found",l);
-		return new ResponseEntity<ApiResponse<List<Flight>>>(api,HttpStatus.OK);
+		ApiResponse<List<FlightSummary>> api=new ApiResponse<List<FlightSummary>>(HttpStatus.OK.value(),"Data Found",l);
+		return new ResponseEntity<ApiResponse<List<FlightSummary>>>(api,HttpStatus.OK);
 	}
 	
+	//The same listing as findAll, written from the pre-serialized catalog snapshot (gzipped when the client accepts it).
+	//A client that sends back the ETag it was given gets 304 until the catalog changes
+	public ResponseEntity<byte[]> findAllSnapshot(String ifNoneMatch, String acceptEncoding){
+		CatalogSnapshot.Snapshot s=cs.get();
+		if(s.isEmpty()) {
+			throw new ResourceNotFoundException("No Records Found");
+		}
+		boolean gzip=acceptEncoding!=null && acceptEncoding.contains("gzip");
+		boolean notModified=s.matches(ifNoneMatch);
+		ResponseEntity.BodyBuilder response=ResponseEntity.status(notModified?HttpStatus.NOT_MODIFIED:HttpStatus.OK)
+				.eTag(s.etag(gzip))
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if(notModified) {
+			return response.build();
+		}
+		if(gzip) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.contentType(MediaType.APPLICATION_JSON).body(s.body(gzip));
+	}
+	
+	//Keyset page ordered by id (default) or price. One extra row is read to know whether another page exists
+	public ResponseEntity<ApiResponse<CursorPage<FlightSummary>>> findPage(String cursor, Integer size, String sort){
+		int limit=PageCursor.resolveSize(size, defaultPageSize, maxPageSize);
+		String key=(sort==null||sort.isBlank())?"id":sort;
+		List<FlightSummary> rows;
+		if(key.equals("id")) {
+			int afterId=cursor==null?0:PageCursor.decode(cursor, key).getLastId();
+			rows=fr.findPageAfterId(afterId, limit+1);
+		}else if(key.equals("price")) {
+			if(cursor==null) {
+				rows=fr.findFirstPageByPrice(limit+1);
+			}else {
+				PageCursor c=PageCursor.decode(cursor, key);
+				rows=fr.findPageAfterPrice(c.getLastValue()==null?null:c.getLastValueAsDecimal(), c.getLastId(), limit+1);
+			}
+		}else {
+			throw new BadRequestException("Unsupported sort '"+key+"', expected id or price");
+		}
+		boolean hasMore=rows.size()>limit;
+		List<FlightSummary> items=hasMore?rows.subList(0, limit):rows;
+		String next=null;
+		if(hasMore) {
+			FlightSummary last=items.get(items.size()-1);
+			next=PageCursor.encode(key, last.getF_id(), key.equals("price")?last.getPrice():null);
+		}
+		CursorPage<FlightSummary> page=new CursorPage<FlightSummary>(items, items.size(), key, next, hasMore);
+		ApiResponse<CursorPage<FlightSummary>> api=new ApiResponse<CursorPage<FlightSummary>>(HttpStatus.OK.value(),"Data Found",page);
+		return new ResponseEntity<ApiResponse<CursorPage<FlightSummary>>>(api,HttpStatus.OK);
+	}
+	
+	//Flights departing in a window, earliest first, as keyset pages on (departure, id). The window is a whole date in
+	//app.flights.zone, or from (default now) to "to" or for "hours". With a source and destination the composite
+	//route index is range-scanned (exact names, like the database fallback of findBySourceAndDestination)
+	public ResponseEntity<ApiResponse<CursorPage<FlightSummary>>> findByDeparture(String source, String destination, String from,
+			String to, String date, Integer hours, String cursor, Integer size){
+		if((source==null||source.isBlank())!=(destination==null||destination.isBlank())) {
+			throw new BadRequestException("Give both source and destination, or neither");
+		}
+		OffsetDateTime start;
+		OffsetDateTime end;
+		if(date!=null && !date.isBlank()) {
+			if(from!=null || to!=null || hours!=null) {
+				throw new BadRequestException("date cannot be combined with from, to or hours");
+			}
+			LocalDate day;
+			try {
+				day=LocalDate.parse(date.trim());
+			}catch(DateTimeParseException e) {
+				throw new BadRequestException("date must look like 2026-11-02");
+			}
+			start=day.atStartOfDay(zone).toOffsetDateTime();
+			end=day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+		}else {
+			start=from==null||from.isBlank()?OffsetDateTime.now(zone):FlightTimes.parse(from, zone, "from");
+			if(to!=null && hours!=null) {
+				throw new BadRequestException("Give either to or hours, not both");
+			}
+			if(to!=null) {
+				end=FlightTimes.parse(to, zone, "to");
+			}else if(hours!=null) {
+				if(hours<1) {
+					throw new BadRequestException("hours must be at least 1");
+				}
+				end=start.plusHours(hours);
+			}else {
+				throw new BadRequestException("One of date, to or hours is required");
+			}
+		}
+		if(!end.isAfter(start)) {
+			throw new BadRequestException("The window must end after it starts");
+		}
+		if(Duration.between(start, end).toDays()>=maxWindowDays) {
+			throw new BadRequestException("The window can be at most "+maxWindowDays+" days");
+		}
+		start=FlightTimes.utc(start);
+		end=FlightTimes.utc(end);
+		int limit=PageCursor.resolveSize(size, defaultPageSize, maxPageSize);
+		OffsetDateTime after=start;
+		int afterId=0;
+		if(cursor!=null) {
+			PageCursor c=PageCursor.decode(cursor, "departure");
+			after=c.getLastValueAsTime();
+			afterId=c.getLastId();
+			if(after.isBefore(start)) {
+				throw new BadRequestException("Cursor is outside the requested window");
+			}
+		}
+		String s=source==null||source.isBlank()?null:source.trim();
+		String d=s==null?null:destination.trim();
+		List<FlightSummary> rows=fr.findDepartingBetween(s, d, after, afterId, end, limit+1);
+		boolean hasMore=rows.size()>limit;
+		List<FlightSummary> items=hasMore?rows.subList(0, limit):rows;
+		String next=null;
+		if(hasMore) {
+			FlightSummary last=items.get(items.size()-1);
+			next=PageCursor.encode("departure", last.getF_id(), FlightTimes.utc(last.getDeparture()));
+		}
+		CursorPage<FlightSummary> page=new CursorPage<FlightSummary>(items, items.size(), "departure", next, hasMore);
+		ApiResponse<CursorPage<FlightSummary>> api=new ApiResponse<CursorPage<FlightSummary>>(HttpStatus.OK.value(),"Data Found",page);
+		return new ResponseEntity<ApiResponse<CursorPage<FlightSummary>>>(api,HttpStatus.OK);
+	}
+	
+	//Copies the editable fields onto the stored flight. The seat count is never taken from the request,
+	//a capacity change goes through resizeCapacity so it stays consistent with concurrent bookings
+	@Transactional
 	public ResponseEntity<ApiResponse<Flight>> update(Flight f, int id) {
-		Optional<Flight> o=fr.getflightbyid(id);
-		if(!o.isPresent()) {
+		if(!fr.existsById(id)) {
 			throw new IdNotFoundException(id+" : Invalid Id");
 		}
-		return fr.saveData(f);
+		FlightTimes.normalize(f);
+		if(f.getCapacity()!=null) {
+			if(f.getCapacity()<1) {
+				throw new BadRequestException("Capacity must be at least 1");
+			}
+			if(fr.resizeCapacity(id, f.getCapacity())==0) {
+				throw new BadRequestException("Capacity "+f.getCapacity()+" is lower than the seats already booked on flight "+id);
+			}
+		}
+		Flight existing=fr.getflightbyid(id).get();
+		existing.setName(f.getName());
+		existing.setSource(f.getSource());
+		existing.setDestination(f.getDestination());
+		existing.setTime(f.getTime());
+		existing.setDeparture(f.getDeparture());
+		existing.setArrival(f.getArrival());
+		existing.setPrice(f.getPrice());
+		existing.setImg(f.getImg());
+		ResponseEntity<ApiResponse<Flight>> saved=fr.saveData(existing);
+		events.publishEvent(new FlightChangedEvent(FlightChangedEvent.Type.UPDATED, id, saved.getBody().getData()));
+		return saved;
 	}
 	
 	public ResponseEntity<ApiResponse<Flight>> saveData(Flight f) {
-		return fr.saveData(f);
+		if(f.getCapacity()==null) {
+			f.setCapacity(si.getDefaultCapacity());
+		}
+		if(f.getCapacity()<1) {
+			throw new BadRequestException("Capacity must be at least 1");
+		}
+		FlightTimes.normalize(f);
+		f.setSeatsAvailable(f.getCapacity());
+		ResponseEntity<ApiResponse<Flight>> saved=fr.saveData(f);
+		Flight flight=saved.getBody().getData();
+		events.publishEvent(new FlightChangedEvent(FlightChangedEvent.Type.SAVED, flight.getF_id(), flight));
+		return saved;
 	}
 	
 	public ResponseEntity<ApiResponse<String>> deleteData(int id) {
@@ -69,17 +364,67 @@ public class FlightService {
 			throw new IdNotFoundException(id+" : Invalid Id");
 		}
 		fr.deleteFlight(o.get());
+		events.publishEvent(new FlightChangedEvent(FlightChangedEvent.Type.DELETED, id, null));
 		ApiResponse<String> api=new ApiResponse<String>(HttpStatus.OK.value(),"Data Deleted","Flight with id : "+id+" got deleted");
 		return new ResponseEntity<ApiResponse<String>>(api,HttpStatus.OK);
 	}
 	
-	//Saving passenger when the flight is available
+	//Saving passenger when the flight is available and still has a seat
+	@Transactional
 	public ResponseEntity<ApiResponse<Passengers>> savePassengerWithFlight(int id, Passengers p){
 		Flight f=fr.getflightbyid(id).orElseThrow(()-> new IdNotFoundException(id+" : Invalid Flight Id"));
+			si.reserve(id, 1);
 			p.setFlight(f);
 			Passengers passenger= pr.save(p);
+			events.publishEvent(PassengerChangedEvent.of(PassengerChangedEvent.Type.SAVED, passenger));
+			metrics.booked(FmsMetrics.SINGLE, 1);
 			ApiResponse<Passengers> api=new ApiResponse<Passengers>(HttpStatus.CREATED.value(),"Passenger Data Saved",passenger);
 			return new ResponseEntity<ApiResponse<Passengers>>(api, HttpStatus.CREATED);
 	}
+	
+	//Group booking: every seat is reserved in one step, so the whole group is booked or none of it is.
+	//Ids come from the pooled sequence and the inserts are flushed in JDBC batches (hibernate.jdbc.batch_size)
+	@Transactional
+	public ResponseEntity<ApiResponse<List<Passengers>>> savePassengersWithFlight(int id, List<Passengers> group){
+		if(group==null || group.isEmpty()) {
+			throw new BadRequestException("At least one passenger is required");
+		}
+		if(group.size()>maxGroupSize) {
+			throw new BadRequestException("A group booking takes at most "+maxGroupSize+" passengers");
+		}
+		Flight f=fr.getflightbyid(id).orElseThrow(()-> new IdNotFoundException(id+" : Invalid Flight Id"));
+		si.reserve(id, group.size());
+		for(Passengers p:group) {
+			p.setP_id(0);
+			p.setFlight(f);
+		}
+		List<Passengers> passengers=pr.saveAll(group);
+		for(Passengers p:passengers) {
+			events.publishEvent(PassengerChangedEvent.of(PassengerChangedEvent.Type.SAVED, p));
+		}
+		metrics.booked(FmsMetrics.GROUP, passengers.size());
+		ApiResponse<List<Passengers>> api=new ApiResponse<List<Passengers>>(HttpStatus.CREATED.value(),passengers.size()+" Passengers Saved",passengers);
+		return new ResponseEntity<ApiResponse<List<Passengers>>>(api, HttpStatus.CREATED);
+	}
+	
+	public ResponseEntity<ApiResponse<ImportReport>> importFlights(InputStream in, String format, String contentType){
+		ImportReport report=fi.importFlights(in, FlightImporter.Format.of(format, contentType));
+		ApiResponse<ImportReport> api=new ApiResponse<ImportReport>(HttpStatus.OK.value(),"Import Finished",report);
+		return new ResponseEntity<ApiResponse<ImportReport>>(api,HttpStatus.OK);
+	}
+	
+	public ResponseEntity<ApiResponse<ImportReport>> getImportStatus(){
+		ImportReport report=fi.status();
+		if(report==null) {
+			throw new ResourceNotFoundException("No flight import has run yet");
+		}
+		ApiResponse<ImportReport> api=new ApiResponse<ImportReport>(HttpStatus.OK.value(),report.isRunning()?"Import Running":"Import Finished",report);
+		return new ResponseEntity<ApiResponse<ImportReport>>(api,HttpStatus.OK);
+	}
+	
+	public ResponseEntity<ApiResponse<RouteIndexStats>> getRouteIndexStats(){
+		ApiResponse<RouteIndexStats> api=new ApiResponse<RouteIndexStats>(HttpStatus.OK.value(),"Route Index Stats",ri.stats());
+		return new ResponseEntity<ApiResponse<RouteIndexStats>>(api,HttpStatus.OK);
+	}
 
 }
@@ -0,0 +1,56 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+
+//Departure and arrival handling shared by saves, updates and the schedule import
+public final class FlightTimes {
+	private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+	private FlightTimes() {
+	}
+
+	//Checks the pair and stores it in UTC at the database's microsecond precision, so what the indexes hold in memory
+	//equals what is read back. Every save, update and imported row needs a departure; only rows older than schema
+	//version 1 (DepartureBackfill) may lack one. A flight sent without the legacy time string gets it from the local
+	//departure time
+	public static void normalize(Flight f) {
+		if (f.getDeparture() == null) {
+			throw new BadRequestException("departure is required, as an ISO-8601 date-time such as 2026-11-02T06:30:00+05:30");
+		}
+		if (f.getArrival() != null && !f.getArrival().isAfter(f.getDeparture())) {
+			throw new BadRequestException("Arrival must be after departure");
+		}
+		if (f.getTime() == null || f.getTime().isBlank()) {
+			f.setTime(f.getDeparture().format(TIME));
+		}
+		f.setDeparture(utc(f.getDeparture()));
+		f.setArrival(f.getArrival() == null ? null : utc(f.getArrival()));
+	}
+
+	public static OffsetDateTime utc(OffsetDateTime t) {
+		return t.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+	}
+
+	//ISO-8601 with an offset ("2026-11-02T06:30:00+05:30"), or without one in the given zone
+	public static OffsetDateTime parse(String value, ZoneId zone, String name) {
+		String v = value.trim();
+		try {
+			return OffsetDateTime.parse(v);
+		} catch (DateTimeParseException e) {
+			try {
+				return LocalDateTime.parse(v).atZone(zone).toOffsetDateTime();
+			} catch (DateTimeParseException e2) {
+				throw new BadRequestException(name + " must be an ISO-8601 date-time, for example 2026-11-02T06:30:00+05:30");
+			}
+		}
+	}
+}
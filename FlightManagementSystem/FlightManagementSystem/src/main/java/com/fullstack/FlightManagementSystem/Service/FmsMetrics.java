@@ -0,0 +1,40 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//Business counters next to the technical metrics Actuator already collects (http.server.requests, hikaricp.*, hibernate.*)
+@Component
+public class FmsMetrics {
+	public static final String SINGLE = "single";
+	public static final String GROUP = "group";
+
+	private final MeterRegistry meters;
+
+	public FmsMetrics(MeterRegistry meters) {
+		this.meters = meters;
+	}
+
+	//Requests: outcome booked or sold_out. Passengers: seats actually taken
+	public void booked(String kind, int passengers) {
+		bookings(kind, "booked").increment();
+		Counter.builder("fms.bookings.passengers").description("Passengers booked onto flights").tag("kind", kind)
+				.register(meters).increment(passengers);
+	}
+
+	public void soldOut(String kind) {
+		bookings(kind, "sold_out").increment();
+	}
+
+	//outcome: success, bad_credentials or unknown_user
+	public void login(String outcome) {
+		Counter.builder("fms.logins").description("Login attempts").tag("outcome", outcome).register(meters).increment();
+	}
+
+	private Counter bookings(String kind, String outcome) {
+		return Counter.builder("fms.bookings").description("Booking requests").tag("kind", kind).tag("outcome", outcome)
+				.register(meters);
+	}
+}
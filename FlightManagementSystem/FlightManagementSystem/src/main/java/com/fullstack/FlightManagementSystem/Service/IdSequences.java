@@ -0,0 +1,39 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+
+//Flight and passenger ids used to come from identity columns. On an existing database the new sequences start
+//at 1, so each one is moved past the highest id once before the first insert. nextval only moves forward,
+//so checking it is safe while other instances are already handing out ids
+@Component
+public class IdSequences implements ApplicationRunner {
+	private static final Logger log = LoggerFactory.getLogger(IdSequences.class);
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		align("passengers_seq", "passengers", "p_id", Passengers.ID_BLOCK);
+		align("flights_seq", "flight", "f_id", Flight.ID_BLOCK);
+	}
+
+	private void align(String sequence, String table, String column, int block) {
+		long next = jdbc.queryForObject("select nextval('" + sequence + "')", Long.class);
+		long max = jdbc.queryForObject("select coalesce(max(" + column + "), 0) from " + table, Long.class);
+		if (next <= max) {
+			long restart = max + block + 1;
+			jdbc.execute("alter sequence " + sequence + " restart with " + restart);
+			log.info("Moved {} past existing {} id {} to {}", sequence, table, max, restart);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fullstack.FlightManagementSystem.DTO.ManifestRow;
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+
+//Writes a passenger manifest row by row from a database cursor. Rows are projections rather than entities,
+//so nothing is kept in the persistence context, and the output is flushed every FLUSH_EVERY rows so the
+//client gets the first bytes straight away
+@Service
+public class ManifestExporter {
+	private static final int FLUSH_EVERY = 500;
+
+	public enum Format {
+		NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+		public final String contentType;
+		public final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		public static Format of(String format) {
+			if (format == null || format.isBlank()) {
+				return NDJSON;
+			}
+			try {
+				return valueOf(format.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new BadRequestException("Export format must be ndjson or csv");
+			}
+		}
+	}
+
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private ObjectMapper om;
+
+	private final TransactionTemplate tx;
+
+	public ManifestExporter(PlatformTransactionManager txm) {
+		this.tx = new TransactionTemplate(txm);
+		this.tx.setReadOnly(true);
+	}
+
+	//The cursor lives for the whole write, inside one read-only transaction
+	public void write(Integer flightId, Format format, OutputStream out) {
+		tx.executeWithoutResult(s -> {
+			try (Stream<ManifestRow> rows = flightId == null ? pr.streamManifest() : pr.streamManifestByFlight(flightId)) {
+				Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+				if (format == Format.CSV) {
+					w.write("p_id,firstName,lastName,age,flightId,flightName,userId\n");
+				}
+				w.flush();
+				ObjectWriter json = om.writerFor(ManifestRow.class);
+				Iterator<ManifestRow> it = rows.iterator();
+				int n = 0;
+				while (it.hasNext()) {
+					ManifestRow r = it.next();
+					if (format == Format.CSV) {
+						writeCsv(w, r);
+					} else {
+						w.write(json.writeValueAsString(r));
+						w.write('\n');
+					}
+					if (++n % FLUSH_EVERY == 0) {
+						w.flush();
+					}
+				}
+				w.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static void writeCsv(Writer w, ManifestRow r) throws IOException {
+		w.write(Integer.toString(r.getP_id()));
+		w.write(',');
+		w.write(csv(r.getFirstName()));
+		w.write(',');
+		w.write(csv(r.getLastName()));
+		w.write(',');
+		w.write(Integer.toString(r.getAge()));
+		w.write(',');
+		w.write(r.getFlightId() == null ? "" : r.getFlightId().toString());
+		w.write(',');
+		w.write(csv(r.getFlightName()));
+		w.write(',');
+		w.write(r.getUserId() == null ? "" : r.getUserId().toString());
+		w.write('\n');
+	}
+
+	//Quotes a field only when it has to, doubling any quotes inside it
+	static String csv(String v) {
+		if (v == null) {
+			return "";
+		}
+		if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) {
+			return v;
+		}
+		return '"' + v.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,86 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+
+//Continuation token for keyset pagination: the sort key plus the (value, id) of the last row that was sent.
+//Clients only ever see the Base64 form, so the layout can change without breaking them. A null value (a row that
+//sorts among the nulls) is written without the trailing ":value", so it stays distinct from an empty string.
+public final class PageCursor {
+	private final String sort;
+	private final int lastId;
+	private final String lastValue;
+
+	private PageCursor(String sort, int lastId, String lastValue) {
+		this.sort = sort;
+		this.lastId = lastId;
+		this.lastValue = lastValue;
+	}
+
+	public String getSort() {
+		return sort;
+	}
+
+	public int getLastId() {
+		return lastId;
+	}
+
+	public String getLastValue() {
+		return lastValue;
+	}
+
+	public BigDecimal getLastValueAsDecimal() {
+		try {
+			return new BigDecimal(lastValue);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	public int getLastValueAsInt() {
+		try {
+			return Integer.parseInt(lastValue);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	public OffsetDateTime getLastValueAsTime() {
+		try {
+			return OffsetDateTime.parse(lastValue);
+		} catch (DateTimeParseException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	public static String encode(String sort, int lastId, Object lastValue) {
+		String raw = sort + ":" + lastId + (lastValue == null ? "" : ":" + lastValue);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static PageCursor decode(String token, String expectedSort) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":", 3);
+			if (parts.length < 2 || !parts[0].equals(expectedSort)) {
+				throw new BadRequestException("Cursor does not match sort '" + expectedSort + "'");
+			}
+			return new PageCursor(parts[0], Integer.parseInt(parts[1]), parts.length == 3 ? parts[2] : null);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	//Falls back to the default for missing or non-positive sizes and never goes above the configured cap
+	public static int resolveSize(Integer requested, int defaultSize, int maxSize) {
+		if (requested == null || requested < 1) {
+			return Math.min(defaultSize, maxSize);
+		}
+		return Math.min(requested, maxSize);
+	}
+}
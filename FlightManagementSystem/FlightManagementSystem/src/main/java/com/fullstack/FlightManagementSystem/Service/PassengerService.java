@@ -1,19 +1,33 @@
 package com.fullstack.FlightManagementSystem.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
 import com.fullstack.FlightManagementSystem.Exception.IdNotFoundException;
 import com.fullstack.FlightManagementSystem.Exception.ResourceNotFoundException;
 import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.CursorPage;
 import com.fullstack.FlightManagementSystem.Model.Passengers;
-import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Repository.FlightRepository;
 import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Search.PassengerNameIndex;
 import org.springframework.util.StringUtils;
 
 @Service
@@ -22,8 +36,24 @@ public class PassengerService {
 	@Autowired
 	private PRepo pr;
 	
+	@Autowired
+	private FlightRepository fr;
+	
 	@Autowired
 	private UserService us;
+	@Autowired
+	private CurrentRequestContext rc;
+	@Autowired
+	private ApplicationEventPublisher events;
+	@Autowired
+	private ManifestExporter me;
+	@Autowired
+	private PassengerNameIndex ni;
+	
+	@Value("${app.pagination.default-size:20}")
+	private int defaultPageSize;
+	@Value("${app.pagination.max-size:100}")
+	private int maxPageSize;
 	
 	public ResponseEntity<ApiResponse<List<Passengers>>> findAll(){
 		List<Passengers> pl=pr.findAll();
@@ -34,15 +64,67 @@ public class PassengerService {
 		return new ResponseEntity<ApiResponse<List<Passengers>>>(api,HttpStatus.FOUND);
 	}
 	
+	//Streams the manifest instead of building one list; the flight is checked first so a bad id is still a 404
+	public ResponseEntity<StreamingResponseBody> exportManifest(Integer flightId, String format){
+		ManifestExporter.Format f=ManifestExporter.Format.of(format);
+		if(flightId!=null && !fr.existsById(flightId)) {
+			throw new IdNotFoundException(flightId+" : Invalid Flight Id");
+		}
+		String file="manifest"+(flightId==null?"":"-"+flightId)+"."+f.extension;
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(f.contentType))
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(file).build().toString())
+				.body(out -> me.write(flightId, f, out));
+	}
+	
+	//Keyset page ordered by id (default) or lastName. One extra row is read to know whether another page exists
+	public ResponseEntity<ApiResponse<CursorPage<Passengers>>> findPage(String cursor, Integer size, String sort){
+		int limit=PageCursor.resolveSize(size, defaultPageSize, maxPageSize);
+		String key=(sort==null||sort.isBlank())?"id":sort;
+		List<Passengers> rows;
+		if(key.equals("id")) {
+			int afterId=cursor==null?0:PageCursor.decode(cursor, key).getLastId();
+			rows=pr.findPageAfterId(afterId, PageRequest.ofSize(limit+1));
+		}else if(key.equals("lastName")) {
+			if(cursor==null) {
+				rows=pr.findFirstPageByLastName(PageRequest.ofSize(limit+1));
+			}else {
+				PageCursor c=PageCursor.decode(cursor, key);
+				rows=new ArrayList<>();
+				if(c.getLastValue()!=null) {
+					rows.addAll(pr.findPageAfterLastName(c.getLastValue(), c.getLastId(), PageRequest.ofSize(limit+1)));
+				}
+				//Passengers without a last name come after all the named ones; a null last value is already among them
+				if(rows.size()<=limit) {
+					int afterId=c.getLastValue()==null?c.getLastId():0;
+					rows.addAll(pr.findUnnamedPageAfterId(afterId, PageRequest.ofSize(limit+1-rows.size())));
+				}
+			}
+		}else {
+			throw new BadRequestException("Unsupported sort '"+key+"', expected id or lastName");
+		}
+		boolean hasMore=rows.size()>limit;
+		List<Passengers> items=hasMore?rows.subList(0, limit):rows;
+		String next=null;
+		if(hasMore) {
+			Passengers last=items.get(items.size()-1);
+			next=PageCursor.encode(key, last.getP_id(), key.equals("lastName")?last.getLastName():null);
+		}
+		CursorPage<Passengers> page=new CursorPage<Passengers>(items, items.size(), key, next, hasMore);
+		ApiResponse<CursorPage<Passengers>> api=new ApiResponse<CursorPage<Passengers>>(HttpStatus.OK.value(),"Passengers Found",page);
+		return new ResponseEntity<ApiResponse<CursorPage<Passengers>>>(api,HttpStatus.OK);
+	}
+	
 	public ResponseEntity<ApiResponse<Passengers>> save(Passengers passenger){
 		Passengers p=pr.save(passenger);
+		events.publishEvent(PassengerChangedEvent.of(PassengerChangedEvent.Type.SAVED, p));
 		ApiResponse<Passengers> api=new ApiResponse<Passengers>(HttpStatus.OK.value(),"Data Saved",p);
 		return new ResponseEntity<ApiResponse<Passengers>>(api,HttpStatus.OK);
 	}
 	
 	public ResponseEntity<ApiResponse<Passengers>> updateData(int id,Passengers p){
 		
-		 Passengers existingP = pr.findById(id).get();
+		 Passengers existingP = findPassenger(id).orElseThrow(()-> new IdNotFoundException(id+" : Invalid Id"));
 		 
 //		 Definition : hasText(String str) → returns true if the "str" is not null, not empty, not just spaces.
 //		 Package : org.springframework.util.StringUtils (Spring utility class)
@@ -58,20 +140,54 @@ public class PassengerService {
 		 if (p.getAge() > 0) {
 		    existingP.setAge(p.getAge());
 		 }
-		ApiResponse<Passengers> api= new ApiResponse<Passengers>(HttpStatus.OK.value(),"Update Successfull",pr.save(existingP));
+		Passengers saved=pr.save(existingP);
+		events.publishEvent(PassengerChangedEvent.of(PassengerChangedEvent.Type.UPDATED, saved));
+		ApiResponse<Passengers> api= new ApiResponse<Passengers>(HttpStatus.OK.value(),"Update Successfull",saved);
 		return new ResponseEntity<ApiResponse<Passengers>>(api, HttpStatus.OK);
 	}
 	
+	//Gives the passenger's seat back to the flight in the same transaction
+	@Transactional
 	public ResponseEntity<ApiResponse<String>> deleteData(int id){
 		Optional<Passengers> o=pr.findById(id);
 		if(!o.isPresent()) {
 			throw new IdNotFoundException(id+" : Invalid Id");
 		}
 		pr.delete(o.get());
+		if(o.get().getFlightId()!=null) {
+			fr.releaseSeats(o.get().getFlightId(), 1);
+		}
+		rc.forgetPassenger(id);
+		events.publishEvent(PassengerChangedEvent.of(PassengerChangedEvent.Type.DELETED, o.get()));
 		ApiResponse<String> api=new ApiResponse<String>(HttpStatus.OK.value(),"Data Deleted","Passenger with id : "+id+" got deleted");
 		return new ResponseEntity<ApiResponse<String>>(api,HttpStatus.OK);
 	}
 	
+	//Ranked name search from the in-memory index, optionally on one flight. The cursor carries the (distance, id) of
+	//the last result, so later pages continue the ranking instead of re-reading it with an offset
+	public ResponseEntity<ApiResponse<CursorPage<PassengerMatch>>> search(String q, Integer flightId, String cursor, Integer size){
+		if(!StringUtils.hasText(q)) {
+			throw new BadRequestException("Search text is required");
+		}
+		int limit=PageCursor.resolveSize(size, defaultPageSize, maxPageSize);
+		long after=-1;
+		if(cursor!=null) {
+			PageCursor c=PageCursor.decode(cursor, "rank");
+			after=PassengerNameIndex.key(c.getLastValueAsInt(), c.getLastId());
+		}
+		List<PassengerMatch> rows=ni.search(q, flightId, limit+1, after);
+		boolean hasMore=rows.size()>limit;
+		List<PassengerMatch> items=hasMore?rows.subList(0, limit):rows;
+		String next=null;
+		if(hasMore) {
+			PassengerMatch last=items.get(items.size()-1);
+			next=PageCursor.encode("rank", last.getP_id(), last.getDistance());
+		}
+		CursorPage<PassengerMatch> page=new CursorPage<PassengerMatch>(items, items.size(), "rank", next, hasMore);
+		ApiResponse<CursorPage<PassengerMatch>> api=new ApiResponse<CursorPage<PassengerMatch>>(HttpStatus.OK.value(),"Passengers Found",page);
+		return new ResponseEntity<ApiResponse<CursorPage<PassengerMatch>>>(api,HttpStatus.OK);
+	}
+	
 	public ResponseEntity<ApiResponse<List<Passengers>>> findByFirstName(String firstName){
 		List<Passengers> pl=pr.findByFirstName(firstName);
 		if(pl.isEmpty()) {
@@ -82,7 +198,7 @@ public class PassengerService {
 	}
 
 	public ResponseEntity<ApiResponse<Passengers>> findById(int id) {
-		Optional<Passengers> o= pr.findById(id);
+		Optional<Passengers> o= findPassenger(id);
 		if(o.isEmpty()) {
 			throw new IdNotFoundException(id+" : Invalid Id");
 		}
@@ -90,9 +206,10 @@ public class PassengerService {
 		return new ResponseEntity<ApiResponse<Passengers>>(api,HttpStatus.FOUND);
 	}
 	
+	//Used by @PreAuthorize. The passenger it loads is kept for the rest of the request, so the handler
+	//that runs next does not query it again, and the user id comes from the token instead of the database
 	public boolean belongsToCurrentUser(int pId) {
-		Users u=us.getCurrentAuthenticatedUser();
-		Optional<Passengers> o=pr.findById(pId);
+		Optional<Passengers> o=findPassenger(pId);
 		if(!o.isPresent()) {
 			return false;
 		}
@@ -100,7 +217,11 @@ public class PassengerService {
 		if(o.get().getUser() == null) {
 			return false;
 		}
-	return u.getId()==o.get().getUser().getId();
+	return us.getCurrentUserId()==o.get().getUser().getId();
+	}
+	
+	private Optional<Passengers> findPassenger(int id) {
+		return rc.passenger(id, () -> pr.findById(id));
 	}
 
 }
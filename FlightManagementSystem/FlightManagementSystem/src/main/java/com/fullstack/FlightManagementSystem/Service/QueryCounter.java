@@ -0,0 +1,160 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+//Sees every JDBC execution through the datasource proxy. Executions are counted into the scopes open on the
+//current thread (one per HTTP request, see QueryCountFilter, or one per test) and slow ones are logged, sampled, with their binds.
+//A JDBC batch is one round trip and counts once
+@Component
+public class QueryCounter implements QueryExecutionListener {
+	private static final Logger log = LoggerFactory.getLogger(QueryCounter.class);
+	//IN lists with a different number of ids are the same statement shape
+	private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+	private static final int MAX_BIND_LENGTH = 64;
+
+	private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+	@Value("${app.queries.slow-ms:200}")
+	private long slowMs;
+	@Value("${app.queries.slow-sample-rate:1.0}") //share of slow queries that get logged, 0 turns the log off
+	private double slowSampleRate;
+
+	//Scopes nest: a statement counts in the innermost scope and every scope around it
+	public Scope open() {
+		Scope s = new Scope(current.get());
+		current.set(s);
+		return s;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		if (queryInfoList.isEmpty()) {
+			return;
+		}
+		Scope s = current.get();
+		if (s != null) {
+			String shape = shapeOf(queryInfoList.get(0).getQuery());
+			for (; s != null; s = s.parent) {
+				s.record(shape, execInfo.getElapsedTime());
+			}
+		}
+		if (slowSampleRate > 0 && execInfo.getElapsedTime() >= slowMs
+				&& (slowSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < slowSampleRate)) {
+			logSlow(execInfo, queryInfoList.get(0));
+		}
+	}
+
+	private void logSlow(ExecutionInfo execInfo, QueryInfo query) {
+		List<List<ParameterSetOperation>> params = query.getParametersList();
+		String binds = params.isEmpty() ? "[]" : binds(params.get(0));
+		if (params.size() > 1) {
+			binds += " (+" + (params.size() - 1) + " more in batch)";
+		}
+		log.warn("Slow query: {} ms{}, {} | {} | binds {}", execInfo.getElapsedTime(),
+				execInfo.isBatch() ? " for a batch of " + execInfo.getBatchSize() : "",
+				execInfo.isSuccess() ? "ok" : "failed", query.getQuery(), binds);
+	}
+
+	private static String binds(List<ParameterSetOperation> set) {
+		return set.stream()
+				.filter(op -> op.getArgs() != null && op.getArgs().length > 0)
+				.map(op -> ParameterSetOperation.isSetNullParameterOperation(op) ? "null" : bindValue(op.getArgs()))
+				.collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	private static String bindValue(Object[] args) {
+		String v = args.length > 1 ? String.valueOf(args[1]) : "";
+		return v.length() > MAX_BIND_LENGTH ? v.substring(0, MAX_BIND_LENGTH) + "..." : v;
+	}
+
+	static String shapeOf(String sql) {
+		return sql.indexOf(',') < 0 ? sql : IN_LIST.matcher(sql).replaceAll("(?...)");
+	}
+
+	//Statements run on this thread between open() and close()
+	public final class Scope implements AutoCloseable {
+		private final Scope parent;
+		private final long startNanos = System.nanoTime();
+		private final Map<String, Integer> shapes = new HashMap<>();
+		private int count;
+		private long dbMillis;
+		private long elapsedMillis = -1;
+
+		private Scope(Scope parent) {
+			this.parent = parent;
+		}
+
+		private void record(String shape, long millis) {
+			count++;
+			dbMillis += millis;
+			shapes.merge(shape, 1, Integer::sum);
+		}
+
+		public int count() {
+			return count;
+		}
+
+		//Time spent inside JDBC executions
+		public long dbMillis() {
+			return dbMillis;
+		}
+
+		//Wall time of the scope, up to now while it is still open
+		public long elapsedMillis() {
+			return elapsedMillis >= 0 ? elapsedMillis : (System.nanoTime() - startNanos) / 1_000_000;
+		}
+
+		//Executions of the most repeated statement shape; above 1 inside a single request usually means N+1
+		public int maxRepeats() {
+			return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+		}
+
+		public String mostRepeated() {
+			return shapes.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+		}
+
+		//Executions whose SQL contains the fragment, e.g. "from passengers"
+		public int countOf(String sqlFragment) {
+			return shapes.entrySet().stream().filter(e -> e.getKey().contains(sqlFragment)).mapToInt(Map.Entry::getValue).sum();
+		}
+
+		@Override
+		public void close() {
+			if (elapsedMillis < 0) {
+				elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+			}
+			if (current.get() == this) {
+				if (parent == null) {
+					current.remove();
+				} else {
+					current.set(parent);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return count + " statements, " + dbMillis + " ms in the database"
+					+ (maxRepeats() > 1 ? ", most repeated " + maxRepeats() + "x: " + mostRepeated() : "");
+		}
+	}
+}
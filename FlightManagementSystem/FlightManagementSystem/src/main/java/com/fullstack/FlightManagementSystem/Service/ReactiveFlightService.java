@@ -0,0 +1,46 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Exception.IdNotFoundException;
+import com.fullstack.FlightManagementSystem.Model.ApiResponse;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Repository.ReactiveFlightRepository;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Non-blocking counterparts of the FlightService searches. No request thread waits on the database:
+//results are written as R2DBC delivers them, and a slow client slows the query down instead of buffering
+@Service
+public class ReactiveFlightService {
+	
+	@Autowired
+	private ReactiveFlightRepository rfr;
+	@Autowired
+	private RouteIndex ri;
+	
+	public Mono<ResponseEntity<ApiResponse<Flight>>> findFlightById(int id) {
+		return rfr.findWithPassengersById(id)
+				.switchIfEmpty(Mono.error(() -> new IdNotFoundException(id+"Invalid Id")))
+				.map(f -> new ResponseEntity<ApiResponse<Flight>>(new ApiResponse<Flight>(HttpStatus.FOUND.value(),"Data Found",f),HttpStatus.FOUND));
+	}
+	
+	//Same lookup as the blocking search: the in-memory route index, and the database only before it is built.
+	//Listings are streams, so no match is an empty stream rather than a 404 (an NDJSON client could not read the error body)
+	public Flux<FlightSummary> findFlightBySourceAndDestination(String source,String destination){
+		List<FlightSummary> o=ri.find(source, destination);
+		return o!=null?Flux.fromIterable(o):rfr.findSummariesBySourceAndDestination(source, destination);
+	}
+	
+	public Flux<FlightSummary> findAll(){
+		return rfr.findAllSummaries();
+	}
+}
@@ -0,0 +1,147 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fullstack.FlightManagementSystem.Event.FlightChangedEvent;
+import com.fullstack.FlightManagementSystem.Event.PassengerChangedEvent;
+import com.fullstack.FlightManagementSystem.Exception.SeatUnavailableException;
+import com.fullstack.FlightManagementSystem.Repository.FlightRepository;
+
+//Seat allocation. Every flight has its own lock-free counter, so bookings on different flights never contend
+//and a sold-out flight is turned away with a CAS instead of a round trip. The counter is only a front:
+//the conditional decrement in FRepo.reserveSeats decides, and if it refuses (another instance sold the
+//seat) the counter is dropped and reloaded from the database on next use.
+@Component
+public class SeatInventory implements ApplicationRunner {
+	private static final Logger log = LoggerFactory.getLogger(SeatInventory.class);
+
+	@Autowired
+	private FlightRepository fr;
+
+	@Autowired
+	private FmsMetrics metrics;
+
+	@Value("${app.flights.default-capacity:180}")
+	private int defaultCapacity;
+
+	private final Map<Integer, AtomicInteger> seats = new ConcurrentHashMap<>();
+
+	public int getDefaultCapacity() {
+		return defaultCapacity;
+	}
+
+	//Flights saved before capacities existed get one at startup
+	@Override
+	@Transactional
+	public void run(ApplicationArguments args) {
+		int capacities = fr.backfillCapacity(defaultCapacity);
+		int counts = fr.backfillSeatsAvailable();
+		if (capacities + counts > 0) {
+			log.info("Backfilled seat capacity on {} flights", Math.max(capacities, counts));
+		}
+	}
+
+	//Must be called inside the booking transaction. Seats go back to the counter if that transaction rolls back
+	public void reserve(int flightId, int count) {
+		if (!tryTake(flightId, count)) {
+			metrics.soldOut(kind(count));
+			throw new SeatUnavailableException("Only " + available(flightId) + " seat(s) left on flight " + flightId);
+		}
+		if (fr.reserveSeats(flightId, count) == 0) {
+			seats.remove(flightId);
+			metrics.soldOut(kind(count));
+			throw new SeatUnavailableException("Not enough seats left on flight " + flightId);
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					release(flightId, count);
+				}
+			}
+		});
+	}
+
+	private static String kind(int count) {
+		return count == 1 ? FmsMetrics.SINGLE : FmsMetrics.GROUP;
+	}
+
+	public int available(int flightId) {
+		AtomicInteger c = counter(flightId);
+		return c == null ? 0 : Math.max(0, c.get());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPassengerChanged(PassengerChangedEvent e) {
+		if (e.getType() == PassengerChangedEvent.Type.DELETED && e.getFlightId() != null) {
+			release(e.getFlightId(), 1);
+		}
+	}
+
+	//Capacity changes and deletes: reload from the database next time
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlightChanged(FlightChangedEvent e) {
+		forget(e.getFlightId());
+	}
+
+	//For capacity changes made without a FlightChangedEvent (the schedule import)
+	public void forget(int flightId) {
+		seats.remove(flightId);
+	}
+
+	private boolean tryTake(int flightId, int count) {
+		AtomicInteger c = counter(flightId);
+		if (c == null) {
+			return false;
+		}
+		while (true) {
+			int current = c.get();
+			if (current < count) {
+				//The counter can lag behind seats freed elsewhere: check the database once before refusing
+				Integer actual = fr.findSeatsAvailable(flightId);
+				if (actual == null || actual < count || !c.compareAndSet(current, actual)) {
+					return false;
+				}
+				continue;
+			}
+			if (c.compareAndSet(current, current - count)) {
+				return true;
+			}
+		}
+	}
+
+	private void release(int flightId, int count) {
+		AtomicInteger c = seats.get(flightId);
+		if (c != null) {
+			c.addAndGet(count);
+		}
+	}
+
+	private AtomicInteger counter(int flightId) {
+		AtomicInteger c = seats.get(flightId);
+		if (c != null) {
+			return c;
+		}
+		Integer available = fr.findSeatsAvailable(flightId);
+		if (available == null) {
+			return null;
+		}
+		AtomicInteger loaded = new AtomicInteger(available);
+		AtomicInteger raced = seats.putIfAbsent(flightId, loaded);
+		return raced == null ? loaded : raced;
+	}
+}
@@ -3,11 +3,12 @@ package com.fullstack.FlightManagementSystem.Service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.fullstack.FlightManagementSystem.Exception.ResourceNotFoundException;
@@ -15,13 +16,19 @@ import com.fullstack.FlightManagementSystem.Model.ApiResponse;
 import com.fullstack.FlightManagementSystem.Model.UserRole;
 import com.fullstack.FlightManagementSystem.Model.Users;
 import com.fullstack.FlightManagementSystem.Repository.UserRepository;
+import com.fullstack.FlightManagementSystem.Security.AuthenticatedUser;
+import com.fullstack.FlightManagementSystem.Security.PasswordHasher;
 
 @Service
 public class UserService {
 	@Autowired
 	private UserRepository ur;
 	@Autowired
-	private PasswordEncoder pe;
+	private PasswordHasher ph;
+	@Autowired
+	private CacheManager cm;
+	@Autowired
+	private CurrentRequestContext rc;
 	
 	public Users registerUser(String name, String email, String password, UserRole role) {
 		boolean b=ur.existsByEmail(email);
@@ -31,7 +38,7 @@ public class UserService {
 		Users u=new Users();
 		u.setName(name);
 		u.setEmail(email);
-		u.setPassword(pe.encode(password));
+		u.setPassword(ph.encode(password));
 		u.setRole(role);
 		Users us=ur.save(u);
 		return us;
@@ -50,20 +57,65 @@ public class UserService {
 //		return new ResponseEntity<ApiResponse<Users>>(api,HttpStatus.FOUND);
 	}
 	
+	//Hashing runs on the bounded PasswordHasher pool, both throw ServiceBusyException when it is full
 	public boolean validatePassword(String rawPassword, String encodedPassword) {
-		return pe.matches(rawPassword, encodedPassword);
+		return ph.matches(rawPassword, encodedPassword);
 	}
 	
+	//After a successful login: a hash made with an older BCrypt cost is replaced in the background
+	public void upgradePasswordHash(Users u, String rawPassword) {
+		String old=u.getPassword();
+		if(!ph.isOutdated(old)) {
+			return;
+		}
+		ph.rehash(rawPassword, hash -> {
+			if(ur.replacePasswordHash(u.getId(), old, hash)==1) {
+				Cache users=cm.getCache("users");
+				if(users!=null) {
+					users.evict(u.getEmail());
+				}
+			}
+		});
+	}
+	
+	//Loaded at most once per request, every later call in the same request gets the same row
 	public Users getCurrentAuthenticatedUser() {
-		Authentication a=SecurityContextHolder.getContext().getAuthentication();
-		String email=a.getName();
-		Optional<Users> u=ur.findByEmail(email);
-		return u.get();
+		return rc.currentUser(() -> {
+			Authentication a=SecurityContextHolder.getContext().getAuthentication();
+			String email=a.getName();
+			Optional<Users> u=ur.findByEmail(email);
+			return u.get();
+		});
+	}
+	
+	//Id and role are in the JWT claims, so these only touch the database for old tokens without them
+	public int getCurrentUserId() {
+		Object p=SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		if(p instanceof AuthenticatedUser au) {
+			return au.getId();
+		}
+		return getCurrentAuthenticatedUser().getId();
+	}
+	
+	public UserRole getCurrentUserRole() {
+		Object p=SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		if(p instanceof AuthenticatedUser au) {
+			return au.getRole();
+		}
+		return getCurrentAuthenticatedUser().getRole();
+	}
+	
+	//Enough to link a passenger to the current user: an unloaded reference carrying only the id
+	public Users getCurrentUserReference() {
+		Object p=SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		if(p instanceof AuthenticatedUser au) {
+			return ur.getReferenceById(au.getId());
+		}
+		return getCurrentAuthenticatedUser();
 	}
 	
 	public boolean isCurrentUser(int userId) {
-		Users u=getCurrentAuthenticatedUser();
-		return u.getId()==userId ;
+		return getCurrentUserId()==userId ;
 	}
 }
 
@@ -0,0 +1,219 @@
+package com.fullstack.FlightManagementSystem.Audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fullstack.FlightManagementSystem.Audit.AuditEvent.Action;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.Exception.SeatUnavailableException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightImporter;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+import com.fullstack.FlightManagementSystem.Service.PassengerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@WithMockUser(username = "admin@fms.com", roles = "ADMIN")
+class AuditJournalTests {
+
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) throws IOException {
+		Path dir = Files.createTempDirectory("fms-audit");
+		registry.add("app.audit.enabled", () -> "true");
+		registry.add("app.audit.dir", dir::toString);
+	}
+
+	@Autowired
+	private AuditJournal journal;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private PassengerService ps;
+	@Autowired
+	private FlightImporter fi;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+
+	@TempDir
+	Path tmp;
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private static AuditJournal journal(Path dir, int segmentBytes) {
+		return new AuditJournal(new SimpleMeterRegistry(), true, dir.toString(), segmentBytes, 100000, 64, true);
+	}
+
+	private static List<AuditEvent> replay(Path dir, long from, List<String> problems) throws IOException {
+		List<AuditEvent> out = new ArrayList<>();
+		AuditJournalReader.Result r = AuditJournalReader.replay(dir, from, out::add);
+		problems.addAll(r.getProblems());
+		return out;
+	}
+
+	@Test
+	void concurrentWritersAreGroupCommittedAcrossSegmentsInOrder() throws Exception {
+		AuditJournal j = journal(tmp, 4096);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int base = t * 1000;
+			threads.add(new Thread(() -> {
+				for (int i = 1; i <= 500; i++) {
+					assertThat(j.append(AuditEvent.of("user" + base + "@fms.com", Action.PASSENGER_SAVED, base + i, 7))).isTrue();
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertThat(j.flush(10, TimeUnit.SECONDS)).isTrue();
+		j.stop();
+
+		assertThat(AuditJournalReader.segments(tmp).size()).isGreaterThan(1);
+		List<String> problems = new ArrayList<>();
+		List<AuditEvent> all = replay(tmp, 0, problems);
+		assertThat(problems).isEmpty();
+		assertThat(all).hasSize(2000);
+		for (int i = 0; i < all.size(); i++) {
+			assertThat(all.get(i).seq()).isEqualTo(i + 1);
+		}
+		assertThat(all).filteredOn(e -> e.actor().equals("user3000@fms.com")).extracting(AuditEvent::entityId)
+				.isSorted().hasSize(500);
+		assertThat(replay(tmp, 1990, problems)).extracting(AuditEvent::seq).containsExactly(1990L, 1991L, 1992L, 1993L, 1994L,
+				1995L, 1996L, 1997L, 1998L, 1999L, 2000L);
+	}
+
+	@Test
+	void tornRecordIsSkippedAndTheNextStartContinuesAfterIt() throws Exception {
+		AuditJournal j = journal(tmp, 1 << 20);
+		for (int i = 1; i <= 10; i++) {
+			j.append(AuditEvent.of("staff@fms.com", Action.FLIGHT_UPDATED, i, i));
+		}
+		assertThat(j.flush(10, TimeUnit.SECONDS)).isTrue();
+		j.stop();
+
+		//Damage the last record's checksum, as if the crash came in the middle of writing it
+		Path segment = AuditJournalReader.segments(tmp).get(0);
+		int record = AuditJournalReader.FRAME_BYTES + AuditEvent.FIXED_BYTES + "staff@fms.com".length();
+		try (RandomAccessFile f = new RandomAccessFile(segment.toFile(), "rw")) {
+			f.seek(9L * record + 4);
+			f.writeInt(0x0badc0de);
+		}
+		List<String> problems = new ArrayList<>();
+		assertThat(replay(tmp, 0, problems)).hasSize(9);
+		assertThat(problems).singleElement().asString().contains("checksum mismatch");
+
+		AuditJournal again = journal(tmp, 1 << 20);
+		assertThatThrownBy(() -> journal(tmp, 1 << 20)).as("one writer per directory").isInstanceOf(RuntimeException.class);
+		again.append(AuditEvent.of("staff@fms.com", Action.FLIGHT_DELETED, 10, 10));
+		assertThat(again.flush(10, TimeUnit.SECONDS)).isTrue();
+		again.stop();
+		List<AuditEvent> all = replay(tmp, 0, new ArrayList<>());
+		assertThat(all).extracting(AuditEvent::seq).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(all.get(9).action()).isEqualTo(Action.FLIGHT_DELETED);
+	}
+
+	@Test
+	void committedChangesAreJournaledWithTheCaller() throws Exception {
+		long from = AuditJournalReader.replay(journal.getDir(), 0, e -> {
+		}).getLastSeq() + 1;
+
+		Flight f = new Flight();
+		f.setName("AI-700");
+		f.setSource("Delhi");
+		f.setDestination("Goa");
+		f.setPrice(BigDecimal.valueOf(4000));
+		f.setCapacity(1);
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		int id = fs.saveData(f).getBody().getData().getF_id();
+		f.setName("AI-701");
+		fs.update(f, id);
+		Passengers booked = fs.savePassengerWithFlight(id, passenger("Asha")).getBody().getData();
+		assertThatThrownBy(() -> fs.savePassengerWithFlight(id, passenger("Ravi"))).isInstanceOf(SeatUnavailableException.class);
+		Passengers walkIn = ps.save(passenger("Meera")).getBody().getData();
+		pr.deleteAll();
+		fs.deleteData(id);
+
+		assertThat(journal.flush(10, TimeUnit.SECONDS)).isTrue();
+		List<String> problems = new ArrayList<>();
+		List<AuditEvent> events = replay(journal.getDir(), from, problems);
+		assertThat(problems).isEmpty();
+		assertThat(events).extracting(AuditEvent::action).containsExactly(Action.FLIGHT_CREATED, Action.FLIGHT_UPDATED,
+				Action.PASSENGER_SAVED, Action.PASSENGER_SAVED, Action.FLIGHT_DELETED);
+		assertThat(events).extracting(AuditEvent::actor).containsOnly("admin@fms.com");
+		assertThat(events.get(2).entityId()).isEqualTo(booked.getP_id());
+		assertThat(events.get(2).flightId()).isEqualTo(id);
+		assertThat(events.get(3).entityId()).isEqualTo(walkIn.getP_id());
+		assertThat(events.get(3).flightId()).isZero();
+	}
+
+	@Test
+	void importedRowsAreJournaledOncePerRow() throws Exception {
+		Flight existing = new Flight();
+		existing.setName("AI-800");
+		existing.setSource("Delhi");
+		existing.setDestination("Goa");
+		existing.setCapacity(10);
+		existing.setSeatsAvailable(10);
+		existing = fr.save(existing);
+		long from = AuditJournalReader.replay(journal.getDir(), 0, e -> {
+		}).getLastSeq() + 1;
+
+		String csv = "f_id,name,source,destination,departure,price\n"
+				+ existing.getF_id() + ",AI-800,Delhi,Pune,2026-11-02T09:00:00Z,4500\n"
+				+ ",AI-801,Mumbai,Goa,2026-11-02T10:30:00Z,3200\n"
+				+ ",AI-802,Mumbai,,2026-11-02T11:00:00Z,3300\n"
+				+ ",AI-803,Mumbai,Goa,2026-11-02T12:00:00Z,3000\n";
+		ImportReport report = fi.importFlights(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), FlightImporter.Format.CSV);
+		assertThat(report.getFailed()).isEqualTo(1);
+		int first = fr.findAll().stream().filter(f -> f.getName().equals("AI-801")).findFirst().get().getF_id();
+		int second = fr.findAll().stream().filter(f -> f.getName().equals("AI-803")).findFirst().get().getF_id();
+
+		assertThat(journal.flush(10, TimeUnit.SECONDS)).isTrue();
+		List<AuditEvent> events = replay(journal.getDir(), from, new ArrayList<>());
+		assertThat(events).extracting(AuditEvent::action, AuditEvent::entityId, AuditEvent::flightId).containsExactlyInAnyOrder(
+				tuple(Action.FLIGHT_UPDATED, existing.getF_id(), existing.getF_id()), tuple(Action.FLIGHT_CREATED, first, first),
+				tuple(Action.FLIGHT_CREATED, second, second));
+		assertThat(events).extracting(AuditEvent::actor).containsOnly("admin@fms.com");
+	}
+
+	private static Passengers passenger(String name) {
+		Passengers p = new Passengers();
+		p.setFirstName(name);
+		p.setLastName("Audit");
+		p.setAge(30);
+		return p;
+	}
+}
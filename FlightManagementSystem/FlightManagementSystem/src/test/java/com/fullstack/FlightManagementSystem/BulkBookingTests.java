@@ -0,0 +1,112 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fullstack.FlightManagementSystem.Exception.SeatUnavailableException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+import com.fullstack.FlightManagementSystem.Service.IdSequences;
+
+import jakarta.persistence.EntityManagerFactory;
+
+//Group bookings: one transaction, ids from the pooled sequence and inserts in JDBC batches
+@SpringBootTest
+class BulkBookingTests {
+
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private IdSequences seq;
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private EntityManagerFactory emf;
+
+	private Statistics stats;
+	private int flightId;
+
+	@BeforeEach
+	void seed() {
+		Flight f = new Flight();
+		f.setName("AI-500");
+		f.setSource("Delhi");
+		f.setDestination("Goa");
+		f.setPrice(BigDecimal.valueOf(5000));
+		f.setCapacity(520);
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		flightId = fs.saveData(f).getBody().getData().getF_id();
+		stats = emf.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private static List<Passengers> group(int size) {
+		List<Passengers> group = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Passengers p = new Passengers();
+			p.setFirstName("Guest" + i);
+			p.setLastName("Charter");
+			p.setAge(30);
+			group.add(p);
+		}
+		return group;
+	}
+
+	@Test
+	void fiveHundredPassengersGoInBatches() {
+		List<Passengers> saved = fs.savePassengersWithFlight(flightId, group(500)).getBody().getData();
+
+		assertThat(saved).hasSize(500).allSatisfy(p -> assertThat(p.getP_id()).isPositive());
+		assertThat(stats.getEntityInsertCount()).isEqualTo(500);
+		//flight load + seat decrement + one nextval per 50 ids + one insert statement per batch of 50
+		assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(2 + 11 + 10);
+		assertThat(fr.findSeatsAvailable(flightId)).isEqualTo(20);
+	}
+
+	@Test
+	void groupIsRefusedWholeWhenSeatsRunShort() {
+		fs.savePassengersWithFlight(flightId, group(500));
+
+		assertThatThrownBy(() -> fs.savePassengersWithFlight(flightId, group(21)))
+				.isInstanceOf(SeatUnavailableException.class);
+		assertThat(pr.count()).isEqualTo(500);
+		assertThat(fr.findSeatsAvailable(flightId)).isEqualTo(20);
+	}
+
+	@Test
+	void sequenceIsMovedPastIdsFromTheIdentityColumn() {
+		jdbc.update("insert into passengers (p_id, first_name, age, flight_id) values (100000, 'Legacy', 40, ?)", flightId);
+
+		seq.run(null);
+
+		Passengers p = fs.savePassengerWithFlight(flightId, new Passengers()).getBody().getData();
+		assertThat(p.getP_id()).isGreaterThan(100000);
+	}
+}
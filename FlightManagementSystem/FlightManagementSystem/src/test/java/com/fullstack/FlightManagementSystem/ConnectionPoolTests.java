@@ -0,0 +1,42 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+//A request that cannot get a connection within the pool timeout is shed with 503 instead of queueing
+@SpringBootTest(properties = { "spring.datasource.hikari.maximum-pool-size=1", "spring.datasource.hikari.connection-timeout=250" })
+@AutoConfigureMockMvc
+class ConnectionPoolTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private DataSource ds;
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void exhaustedPoolAnswers503() throws Exception {
+		try (Connection held = ds.getConnection()) {
+			assertThat(held.isValid(1)).isTrue();
+			mvc.perform(get("/FMS/findPage"))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"))
+					.andExpect(jsonPath("$.msg").value("Service Busy"));
+		}
+		mvc.perform(get("/FMS/findPage")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,157 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Repository.UserRepository;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+import com.fullstack.FlightManagementSystem.Security.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlightQueryCountTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private UserRepository ur;
+	@Autowired
+	private EntityManagerFactory emf;
+	@Autowired
+	private JwtUtil ju;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private PlatformTransactionManager tm;
+
+	private Statistics stats;
+	private int firstId;
+
+	@BeforeEach
+	void seed() {
+		//Every passenger has its own booking user, so a lazily or separately loaded user would show up as extra statements
+		Users[] owners = new Users[3];
+		for (int j = 0; j < owners.length; j++) {
+			Users u = new Users();
+			u.setEmail("owner" + j + "@fms.com");
+			u.setPassword("not-used");
+			u.setRole(UserRole.CUSTOMER);
+			owners[j] = ur.save(u);
+		}
+		for (int i = 0; i < 5; i++) {
+			Flight f = new Flight();
+			f.setName("FMS-" + i);
+			f.setSource("Delhi");
+			f.setDestination(i % 2 == 0 ? "Mumbai" : "Pune");
+			f.setPrice(BigDecimal.valueOf(4000 + i));
+			f = fr.save(f);
+			if (i == 0) {
+				firstId = f.getF_id();
+			}
+			for (int j = 0; j < 3; j++) {
+				Passengers p = new Passengers();
+				p.setFirstName("P" + i + j);
+				p.setFlight(f);
+				p.setUser(owners[j]);
+				pr.save(p);
+			}
+		}
+		ri.rebuild();
+		stats = emf.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		ur.deleteAll();
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void findAllIsServedFromTheCatalogSnapshot() throws Exception {
+		mvc.perform(get("/FMS/findAll"))
+				.andExpect(jsonPath("$.data.length()").value(5))
+				.andExpect(jsonPath("$.data[0].passengerCount").value(3))
+				.andExpect(jsonPath("$.data[0].passengers").doesNotExist());
+		assertThat(stats.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void bearerTokenIsAuthorizedWithoutAUserQuery() throws Exception {
+		Users u = new Users();
+		u.setId(42);
+		u.setEmail("customer@fms.com");
+		u.setRole(UserRole.CUSTOMER);
+		String token = ju.generateToken(u);
+		mvc.perform(get("/FMS/findAll").header("Authorization", "Bearer " + token))
+				.andExpect(jsonPath("$.data.length()").value(5));
+		assertThat(stats.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void findBySourceAndDestinationRunsNoQueries() throws Exception {
+		mvc.perform(get("/FMS/findBySourceAndDestination").param("source", "Delhi").param("destination", "Mumbai"))
+				.andExpect(jsonPath("$.data.length()").value(3))
+				.andExpect(jsonPath("$.data[0].passengerCount").value(3));
+		assertThat(stats.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void findPageIsOneStatement() throws Exception {
+		mvc.perform(get("/FMS/findPage").param("size", "2"))
+				.andExpect(jsonPath("$.data.items.length()").value(2))
+				.andExpect(jsonPath("$.data.hasMore").value(true));
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void findByIdLoadsPassengersInTheSameStatement() throws Exception {
+		mvc.perform(get("/FMS/find/" + firstId))
+				.andExpect(jsonPath("$.data.passengers.length()").value(3))
+				.andExpect(jsonPath("$.data.passengers[0].flightId").value(firstId));
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void findWithPassengersByIdLoadsTheirUsersInTheSameStatement() {
+		new TransactionTemplate(tm).executeWithoutResult(tx -> {
+			Flight f = fr.findWithPassengersById(firstId).orElseThrow();
+			assertThat(f.getPassengers()).extracting(p -> p.getUser().getEmail())
+					.containsExactlyInAnyOrder("owner0@fms.com", "owner1@fms.com", "owner2@fms.com");
+		});
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
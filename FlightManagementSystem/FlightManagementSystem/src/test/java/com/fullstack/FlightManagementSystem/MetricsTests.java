@@ -0,0 +1,70 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Security.JwtUtil;
+
+//The Prometheus scrape: its own Basic account, and the meters the dashboards are built on
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private JwtUtil ju;
+
+	private String scrape() throws Exception {
+		return mvc.perform(get("/actuator/prometheus").with(httpBasic("metrics", "test-metrics")))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+	}
+
+	@Test
+	void scrapeNeedsTheMetricsAccount() throws Exception {
+		Users admin = new Users();
+		admin.setId(1);
+		admin.setEmail("admin@fms.com");
+		admin.setRole(UserRole.ADMIN);
+		mvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + ju.generateToken(admin)))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/prometheus").with(httpBasic("metrics", "wrong"))).andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+		scrape();
+	}
+
+	@Test
+	void requestsAreTaggedWithRoleAndStatus() throws Exception {
+		Users customer = new Users();
+		customer.setId(5);
+		customer.setEmail("customer@fms.com");
+		customer.setRole(UserRole.CUSTOMER);
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + ju.generateToken(customer)));
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer not.a.jwt"));
+		mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"nobody@fms.com\",\"password\":\"secret\"}"));
+
+		String metrics = scrape();
+		assertThat(metrics).containsPattern("http_server_requests_seconds_bucket\\{[^}]*role=\"CUSTOMER\"[^}]*status=\"200\"[^}]*uri=\"/FMS/findPage\"");
+		assertThat(metrics).containsPattern("http_server_requests_seconds_count\\{[^}]*role=\"NONE\"[^}]*status=\"401\"");
+		assertThat(metrics).containsPattern("fms_jwt_validation_failures_total\\{[^}]*reason=\"malformed\"[^}]*\\} [1-9]");
+		assertThat(metrics).containsPattern("fms_logins_total\\{[^}]*outcome=\"unknown_user\"[^}]*\\} [1-9]");
+		assertThat(metrics).contains("hikaricp_connections_active", "hikaricp_connections_acquire_seconds");
+		assertThat(metrics).contains("hibernate_query_executions_total", "hibernate_entities_loads_total", "hibernate_cache_query_requests_total");
+	}
+}
@@ -0,0 +1,158 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.jayway.jsonpath.JsonPath;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class PaginationTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private Flight flight(String name, String price) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource("Delhi");
+		f.setDestination("Mumbai");
+		f.setPrice(price == null ? null : new BigDecimal(price));
+		return fr.save(f);
+	}
+
+	private Passengers passenger(Flight f, String lastName) {
+		Passengers p = new Passengers();
+		p.setFirstName("P");
+		p.setLastName(lastName);
+		p.setFlight(f);
+		return pr.save(p);
+	}
+
+	//Follows nextCursor until hasMore is false and returns the ids in the order they were served
+	private List<Integer> walk(String path, String sort, String idField, int size) throws Exception {
+		List<Integer> ids = new ArrayList<>();
+		String cursor = null;
+		for (int pages = 0; pages < 50; pages++) {
+			MockHttpServletRequestBuilder req = get(path).param("sort", sort).param("size", "" + size);
+			if (cursor != null) {
+				req.param("cursor", cursor);
+			}
+			String body = mvc.perform(req).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+			List<Integer> page = JsonPath.read(body, "$.data.items[*]." + idField);
+			assertThat(page.size()).isLessThanOrEqualTo(size);
+			ids.addAll(page);
+			if (!(Boolean) JsonPath.read(body, "$.data.hasMore")) {
+				return ids;
+			}
+			cursor = JsonPath.read(body, "$.data.nextCursor");
+		}
+		throw new AssertionError("cursor never ran out");
+	}
+
+	@Test
+	void pricePagesBreakTiesOnIdAndPutUnpricedFlightsLast() throws Exception {
+		Flight a = flight("A", "4000");
+		Flight b = flight("B", "2500");
+		Flight c = flight("C", "4000");
+		Flight d = flight("D", null);
+		Flight e = flight("E", "4000");
+		Flight g = flight("G", null);
+		Flight h = flight("H", "2500");
+		List<Integer> expected = List.of(b.getF_id(), h.getF_id(), a.getF_id(), c.getF_id(), e.getF_id(), d.getF_id(), g.getF_id());
+		//Page sizes 1 to 3 put page boundaries inside each run of equal prices and between the priced and unpriced rows
+		for (int size = 1; size <= 3; size++) {
+			assertThat(walk("/FMS/findPage", "price", "f_id", size)).as("size %d", size).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void lastNamePagesBreakTiesOnIdAndPutMissingNamesLast() throws Exception {
+		Flight f = flight("A", "4000");
+		Passengers rao1 = passenger(f, "Rao");
+		Passengers none1 = passenger(f, null);
+		Passengers iyer = passenger(f, "Iyer");
+		Passengers rao2 = passenger(f, "Rao");
+		Passengers empty = passenger(f, "");
+		Passengers none2 = passenger(f, null);
+		Passengers rao3 = passenger(f, "Rao");
+		List<Integer> expected = List.of(empty.getP_id(), iyer.getP_id(), rao1.getP_id(), rao2.getP_id(), rao3.getP_id(),
+				none1.getP_id(), none2.getP_id());
+		for (int size = 1; size <= 3; size++) {
+			assertThat(walk("/FMS/Passenger/findPage", "lastName", "p_id", size)).as("size %d", size).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void idPagesRoundTripTheCursor() throws Exception {
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(flight("F" + i, i % 2 == 0 ? null : "100").getF_id());
+		}
+		assertThat(walk("/FMS/findPage", "id", "f_id", 2)).isEqualTo(expected);
+	}
+
+	@Test
+	void tamperedCursorsAreRejected() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			flight("F" + i, "100");
+		}
+		MvcResult first = mvc.perform(get("/FMS/findPage").param("sort", "price").param("size", "1")).andReturn();
+		String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.data.nextCursor");
+		String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		String badPrice = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(raw.replaceFirst(":[^:]*$", ":cheap").getBytes(StandardCharsets.UTF_8));
+
+		mvc.perform(get("/FMS/findPage").param("sort", "price").param("cursor", badPrice)).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findPage").param("sort", "price").param("cursor", "%%not-base64")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findPage").param("sort", "id").param("cursor", cursor)).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/Passenger/findPage").param("sort", "lastName").param("cursor", cursor))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void pageSizeIsCapped() throws Exception {
+		Flight f = flight("A", "100");
+		for (int i = 0; i < 105; i++) {
+			passenger(f, "Rao");
+		}
+		mvc.perform(get("/FMS/Passenger/findPage").param("sort", "lastName").param("size", "1000"))
+				.andExpect(jsonPath("$.data.items.length()").value(100))
+				.andExpect(jsonPath("$.data.hasMore").value(true));
+		mvc.perform(get("/FMS/Passenger/findPage").param("size", "0"))
+				.andExpect(jsonPath("$.data.items.length()").value(20));
+	}
+}
@@ -0,0 +1,115 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Repository.UserRepository;
+import com.fullstack.FlightManagementSystem.Security.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+//Queries per request on the customer passenger endpoints: the ownership check and the handler share one load
+@SpringBootTest
+@AutoConfigureMockMvc
+class PassengerQueryCountTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private UserRepository ur;
+	@Autowired
+	private JwtUtil ju;
+	@Autowired
+	private EntityManagerFactory emf;
+
+	private Statistics stats;
+	private String bearer;
+	private int flightId;
+	private int passengerId;
+	private int userId;
+
+	@BeforeEach
+	void seed() {
+		Users u = new Users();
+		u.setEmail("owner@fms.com");
+		u.setPassword("not-used");
+		u.setName("Owner");
+		u.setRole(UserRole.CUSTOMER);
+		u = ur.save(u);
+		userId = u.getId();
+		bearer = "Bearer " + ju.generateToken(u);
+
+		Flight f = new Flight();
+		f.setName("FMS-1");
+		f.setCapacity(10);
+		f.setSeatsAvailable(10);
+		f = fr.save(f);
+		flightId = f.getF_id();
+
+		Passengers p = new Passengers();
+		p.setFirstName("Asha");
+		p.setFlight(f);
+		p.setUser(u);
+		passengerId = pr.save(p).getP_id();
+
+		stats = emf.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		ur.deleteAll();
+	}
+
+	@Test
+	void ownerReadsPassengerWithOneQuery() throws Exception {
+		mvc.perform(get("/FMS/Passenger/find/" + passengerId).header("Authorization", bearer))
+				.andExpect(jsonPath("$.data.firstName").value("Asha"));
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void ownerUpdatesPassengerWithOneSelectAndOneUpdate() throws Exception {
+		mvc.perform(put("/FMS/Passenger/updatePassenger/" + passengerId).header("Authorization", bearer)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"Meera\"}"))
+				.andExpect(jsonPath("$.data.firstName").value("Meera"));
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void customerBookingLinksUserWithoutLoadingIt() throws Exception {
+		mvc.perform(post("/FMS/savePassenger/" + flightId).header("Authorization", bearer)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"Ravi\",\"age\":30}"))
+				.andExpect(status().isCreated());
+		assertThat(stats.getEntityLoadCount()).as("no Users row is loaded").isEqualTo(1);
+		assertThat(pr.findAll()).filteredOn(p -> "Ravi".equals(p.getFirstName()))
+				.singleElement().satisfies(p -> assertThat(p.getUser().getId()).isEqualTo(userId));
+	}
+}
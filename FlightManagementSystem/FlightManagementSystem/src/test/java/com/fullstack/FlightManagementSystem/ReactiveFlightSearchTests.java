@@ -0,0 +1,145 @@
+package com.fullstack.FlightManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Repository.ReactiveFlightRepository;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+
+import reactor.test.StepVerifier;
+
+//The reactive search reads what JPA wrote, through its own R2DBC pool on the same database
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveFlightSearchTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private ReactiveFlightRepository rfr;
+	@Autowired
+	private RouteIndex ri;
+
+	private int firstId;
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < 3; i++) {
+			Flight f = new Flight();
+			f.setName("RX-" + i);
+			f.setSource("Chennai");
+			f.setDestination(i == 2 ? "Kochi" : "Delhi");
+			f.setPrice(new BigDecimal("4999.50"));
+			f.setCapacity(20);
+			f.setSeatsAvailable(20 - i);
+			f = fr.save(f);
+			if (i == 0) {
+				firstId = f.getF_id();
+			}
+			for (int j = 0; j < i; j++) {
+				Passengers p = new Passengers();
+				p.setFirstName("R" + i + j);
+				p.setFlight(f);
+				pr.save(p);
+			}
+		}
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	@Test
+	void repositoryStreamsSummariesWithPassengerCounts() {
+		StepVerifier.create(rfr.findAllSummaries().map(FlightSummary::getPassengerCount))
+				.expectNext(0L, 1L, 2L).verifyComplete();
+		StepVerifier.create(rfr.findSummariesBySourceAndDestination("Chennai", "Delhi").map(FlightSummary::getName))
+				.expectNext("RX-0", "RX-1").verifyComplete();
+		StepVerifier.create(rfr.findWithPassengersById(firstId + 2))
+				.assertNext(f -> {
+					assertThat(f.getPrice()).isEqualByComparingTo("4999.50");
+					assertThat(f.getSeatsAvailable()).isEqualTo(18);
+					assertThat(f.getPassengers()).extracting(Passengers::getFirstName).containsExactly("R20", "R21");
+					assertThat(f.getPassengers().get(0).getFlightId()).isEqualTo(firstId + 2);
+				}).verifyComplete();
+		StepVerifier.create(rfr.findWithPassengersById(-1)).verifyComplete();
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void listingsStreamAsNdjson() throws Exception {
+		MvcResult started = mvc.perform(get("/FMS/reactive/findAll").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted()).andReturn();
+		String body = mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+		List<String> lines = body.lines().toList();
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(2)).contains("\"name\":\"RX-2\"", "\"passengerCount\":2");
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void routeSearchAsJsonArray() throws Exception {
+		MvcResult started = mvc.perform(get("/FMS/reactive/findBySourceAndDestination").param("source", "chennai ").param("destination", "KOCHI")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].name").value("RX-2"));
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void findByIdMatchesTheBlockingApiAndEmptyRoutesStreamNothing() throws Exception {
+		MvcResult started = mvc.perform(get("/FMS/reactive/find/" + (firstId + 1))).andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(started))
+				.andExpect(status().isFound())
+				.andExpect(jsonPath("$.data.name").value("RX-1"))
+				.andExpect(jsonPath("$.data.passengers.length()").value(1));
+
+		started = mvc.perform(get("/FMS/reactive/find/-1")).andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(started)).andExpect(status().isNotFound());
+
+		started = mvc.perform(get("/FMS/reactive/findBySourceAndDestination").param("source", "Chennai").param("destination", "Nowhere")
+				.accept(MediaType.APPLICATION_NDJSON)).andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andExpect(content().string(""));
+	}
+
+	@Test
+	void anonymousCallersAreRejected() throws Exception {
+		mvc.perform(get("/FMS/reactive/findAll")).andExpect(status().isUnauthorized());
+	}
+}
@@ -0,0 +1,147 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+import com.fullstack.FlightManagementSystem.Service.PassengerService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "CUSTOMER")
+class CatalogSnapshotTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private PassengerService ps;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private CatalogSnapshot cs;
+
+	private int flightId;
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < 3; i++) {
+			Flight f = new Flight();
+			f.setName("CS-" + i);
+			f.setSource("Pune");
+			f.setDestination("Goa");
+			f.setPrice(BigDecimal.valueOf(2500 + i));
+			f.setCapacity(5);
+			f.setSeatsAvailable(5);
+			f = fr.save(f);
+			if (i == 0) {
+				flightId = f.getF_id();
+			}
+		}
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private String etag() throws Exception {
+		return mvc.perform(get("/FMS/findAll")).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+	}
+
+	@Test
+	void matchingIfNoneMatchIs304AndReadsAreNotRebuilt() throws Exception {
+		String etag = etag();
+		long builds = cs.builds();
+		mvc.perform(get("/FMS/findAll").header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag))
+				.andExpect(content().string(""));
+		mvc.perform(get("/FMS/findAll").header("If-None-Match", "\"stale\", W/" + etag)).andExpect(status().isNotModified());
+		mvc.perform(get("/FMS/findAll").header("If-None-Match", "\"stale\""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(3));
+		assertThat(cs.builds()).isEqualTo(builds);
+	}
+
+	@Test
+	void gzippedSnapshotHasTheSameContent() throws Exception {
+		MvcResult plain = mvc.perform(get("/FMS/findAll")).andReturn();
+		MvcResult gz = mvc.perform(get("/FMS/findAll").header("Accept-Encoding", "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+				.andReturn();
+		byte[] body = gz.getResponse().getContentAsByteArray();
+		assertThat(body.length).isLessThan(plain.getResponse().getContentAsByteArray().length);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			assertThat(in.readAllBytes()).isEqualTo(plain.getResponse().getContentAsByteArray());
+		}
+		assertThat(gz.getResponse().getHeader("ETag")).isNotEqualTo(plain.getResponse().getHeader("ETag"));
+		mvc.perform(get("/FMS/findAll").header("Accept-Encoding", "gzip").header("If-None-Match", plain.getResponse().getHeader("ETag")))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void flightChangesAndBookingsMoveTheVersion() throws Exception {
+		String first = etag();
+
+		Flight f = new Flight();
+		f.setName("CS-new");
+		f.setSource("Pune");
+		f.setDestination("Goa");
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		fs.saveData(f);
+		String afterSave = etag();
+		assertThat(afterSave).isNotEqualTo(first);
+		mvc.perform(get("/FMS/findAll").header("If-None-Match", first))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(4));
+
+		Passengers p = new Passengers();
+		p.setFirstName("Isha");
+		int passengerId = fs.savePassengerWithFlight(flightId, p).getBody().getData().getP_id();
+		String afterBooking = etag();
+		assertThat(afterBooking).isNotEqualTo(afterSave);
+		mvc.perform(get("/FMS/findAll"))
+				.andExpect(jsonPath("$.data[0].passengerCount").value(1))
+				.andExpect(jsonPath("$.data[0].seatsAvailable").value(4));
+
+		ps.deleteData(passengerId);
+		fs.deleteData(flightId);
+		mvc.perform(get("/FMS/findAll").header("If-None-Match", afterBooking))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(3));
+	}
+}
@@ -0,0 +1,147 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "CUSTOMER")
+class FareIndexTests {
+
+	@Autowired
+	private FareIndex fx;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private MockMvc mvc;
+
+	@BeforeEach
+	void start() {
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		fr.deleteAll();
+		ri.rebuild();
+	}
+
+	private Flight flight(String name, String source, String destination, String price) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource(source);
+		f.setDestination(destination);
+		f.setPrice(price == null ? null : new BigDecimal(price));
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		return fs.saveData(f).getBody().getData();
+	}
+
+	private List<String> names(String source, String destination, BigDecimal min, BigDecimal max, String sort, Integer k) {
+		return fs.findFares(source, destination, min, max, sort, k).getBody().getData().stream().map(FlightSummary::getName).toList();
+	}
+
+	@Test
+	void rangesAreSlicedInPriceOrder() {
+		flight("A", "Delhi", "Goa", "4999.99");
+		flight("B", "Delhi", "Goa", "3500");
+		flight("C", "Delhi", "Goa", "3500.00");
+		flight("D", "Delhi", "Pune", "2000");
+		flight("E", "Delhi", "Goa", "8000");
+		flight("UNPRICED", "Delhi", "Goa", null);
+		flight("F", "Mumbai", "Goa", "100");
+
+		assertThat(names(" delhi", "GOA", null, null, null, null)).containsExactly("B", "C", "A", "E");
+		assertThat(names("Delhi", "Goa", null, new BigDecimal("4999.99"), null, null)).containsExactly("B", "C", "A");
+		assertThat(names("Delhi", "Goa", new BigDecimal("3500.01"), null, null, null)).containsExactly("A", "E");
+		assertThat(names("Delhi", "Goa", null, null, "price_desc", 3)).containsExactly("E", "A", "B");
+		assertThat(names("Delhi", "Goa", null, new BigDecimal("5000"), "price_desc", null)).containsExactly("A", "B", "C");
+		assertThat(names("Delhi", null, null, new BigDecimal("5000"), null, 2)).containsExactly("D", "B");
+		assertThat(fx.size()).isEqualTo(6);
+	}
+
+	@Test
+	void indexFollowsSaveUpdateAndDelete() {
+		Flight a = flight("A", "Delhi", "Goa", "5000");
+		Flight b = flight("B", "Delhi", "Goa", "6000");
+		assertThat(names("Delhi", "Goa", null, null, null, null)).containsExactly("A", "B");
+
+		Flight cheaper = new Flight();
+		cheaper.setName("B");
+		cheaper.setSource("Delhi");
+		cheaper.setDestination("Goa");
+		cheaper.setPrice(new BigDecimal("4000"));
+		cheaper.setDeparture(b.getDeparture());
+		fs.update(cheaper, b.getF_id());
+		assertThat(names("Delhi", "Goa", null, null, null, null)).containsExactly("B", "A");
+
+		Flight moved = new Flight();
+		moved.setName("A");
+		moved.setSource("Delhi");
+		moved.setDestination("Pune");
+		moved.setPrice(new BigDecimal("5000"));
+		moved.setDeparture(a.getDeparture());
+		fs.update(moved, a.getF_id());
+		assertThat(names("Delhi", "Goa", null, null, null, null)).containsExactly("B");
+		assertThat(names("Delhi", "Pune", null, null, null, null)).containsExactly("A");
+		assertThat(names("Delhi", null, null, null, null, null)).containsExactly("B", "A");
+
+		fs.deleteData(b.getF_id());
+		assertThat(fx.find("Delhi", "Goa", 0, Long.MAX_VALUE, false, 10)).isEmpty();
+		assertThat(Arrays.stream(fx.find("Delhi", null, 0, Long.MAX_VALUE, true, 10)).boxed().toList()).containsExactly(a.getF_id());
+	}
+
+	@Test
+	void rebuildsFromTheRouteIndexScan() {
+		//Written past FlightService, so no change event reaches either index
+		Flight direct = new Flight();
+		direct.setName("DIRECT");
+		direct.setSource("Delhi");
+		direct.setDestination("Goa");
+		direct.setPrice(new BigDecimal("2500"));
+		fr.save(direct);
+		assertThat(fx.size()).isZero();
+
+		ri.rebuild();
+		assertThat(names("Delhi", "Goa", null, null, null, null)).containsExactly("DIRECT");
+	}
+
+	@Test
+	void endpointSearchesAndValidates() throws Exception {
+		flight("A", "Delhi", "Goa", "5000");
+		flight("B", "Delhi", "Goa", "3000");
+		mvc.perform(get("/FMS/fares").param("source", "Delhi").param("maxPrice", "4000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(1))
+				.andExpect(jsonPath("$.data[0].name").value("B"));
+		mvc.perform(get("/FMS/fares").param("source", "Delhi").param("maxPrice", "1000")).andExpect(status().isNotFound());
+		mvc.perform(get("/FMS/fares").param("source", "Delhi").param("minPrice", "5").param("maxPrice", "4"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/fares").param("source", "Delhi").param("sort", "seats")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/fares").param("source", "Delhi").param("maxPrice", "-1")).andExpect(status().isBadRequest());
+	}
+}
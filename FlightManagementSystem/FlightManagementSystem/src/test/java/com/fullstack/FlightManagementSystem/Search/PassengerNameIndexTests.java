@@ -0,0 +1,216 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.FlightManagementSystem.DTO.PassengerMatch;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+import com.fullstack.FlightManagementSystem.Service.PassengerService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PassengerNameIndexTests {
+
+	@Autowired
+	private PassengerNameIndex ni;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private PassengerService ps;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private ObjectMapper om;
+
+	private int goa;
+	private int pune;
+
+	@BeforeEach
+	void seed() {
+		goa = fs.saveData(flight("AI-1")).getBody().getData().getF_id();
+		pune = fs.saveData(flight("AI-2")).getBody().getData().getF_id();
+		book(goa, "John", "Smith");
+		book(goa, "Johanna", "Schmidt");
+		book(goa, "Anna-Lena", "O'Brien");
+		book(pune, "José", "Smithers");
+		book(pune, "Jon", "Smyth");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		ni.rebuild();
+	}
+
+	private static Flight flight(String name) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource("Delhi");
+		f.setDestination("Goa");
+		f.setPrice(BigDecimal.valueOf(4000));
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		return f;
+	}
+
+	private int book(int flightId, String firstName, String lastName) {
+		Passengers p = new Passengers();
+		p.setFirstName(firstName);
+		p.setLastName(lastName);
+		return fs.savePassengerWithFlight(flightId, p).getBody().getData().getP_id();
+	}
+
+	private List<String> names(String q, Integer flightId) {
+		return ni.search(q, flightId, 20, -1).stream().map(m -> m.getFirstName() + " " + m.getLastName()).toList();
+	}
+
+	@Test
+	void distanceRanksExactThenPrefixThenTypos() {
+		assertThat(NameIndex.distance("smith", "smith", 1)).isZero();
+		assertThat(NameIndex.distance("smith", "smithers", 1)).isEqualTo(1);
+		assertThat(NameIndex.distance("smiht", "smith", 1)).isEqualTo(10);
+		assertThat(NameIndex.distance("smyth", "smithers", 1)).isEqualTo(11);
+		assertThat(NameIndex.distance("smoth", "schmidt", 1)).isEqualTo(-1);
+		assertThat(NameIndex.distance("jon", "john", 0)).isEqualTo(-1);
+		assertThat(NameIndex.words(" Anna-Lena  O'Brien ")).containsExactly("anna", "lena", "obrien");
+		assertThat(NameIndex.words("José")).containsExactly("jose");
+	}
+
+	//Pages from the index, walked with their cursors, against ranking every passenger by hand
+	@Test
+	void pagesMatchABruteForceRanking() {
+		String[] first = { "Maria", "Mario", "Marta", "Ma", "Mohammed", "Meera", "John", "Jon", "Johanna", "Mira" };
+		String[] last = { "Martinez", "Marsh", "Krishnan", "Krishna", "Smith", "Smyth", "Mann", "Ma" };
+		Random r = new Random(7);
+		NameIndex index = new NameIndex();
+		List<NameIndex.Entry> all = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			//Every tenth id arrives out of order, like an id block from another instance
+			int id = i % 10 == 9 ? 100000 - i : i + 1;
+			String f = first[r.nextInt(first.length)];
+			String l = last[r.nextInt(last.length)];
+			index.put(id, i / 100, f, l);
+			all.add(new NameIndex.Entry(id, 0, i / 100, f, l));
+		}
+		NameIndex ordered = new NameIndex();
+		all.stream().sorted(Comparator.comparingInt(e -> e.id)).forEach(e -> ordered.put(e.id, e.flightId, e.firstName, e.lastName));
+		for (String q : List.of("ma", "maria", "mraia", "marina", "ma ma", "krishan", "jo smith", "meera krishnan", "mira")) {
+			String[] terms = NameIndex.words(q);
+			List<Long> expected = all.stream().filter(e -> NameIndex.distance(terms, e) >= 0)
+					.map(e -> NameIndex.key(NameIndex.distance(terms, e), e.id)).sorted().toList();
+			for (NameIndex index2 : List.of(index, ordered)) {
+				List<Long> pages = new ArrayList<>();
+				long after = -1;
+				List<PassengerMatch> page;
+				do {
+					page = index2.search(q, null, 25, after);
+					page.forEach(m -> pages.add(NameIndex.key(m.getDistance(), m.getP_id())));
+					after = pages.isEmpty() ? -1 : pages.get(pages.size() - 1);
+				} while (page.size() == 25);
+				assertThat(pages).as(q).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	void prefixesTyposAndAccentsMatchAcrossFirstAndLastNames() {
+		assertThat(names("smith", null)).containsExactly("John Smith", "José Smithers", "Jon Smyth");
+		assertThat(names("jo", null)).containsExactlyInAnyOrder("John Smith", "Johanna Schmidt", "José Smithers", "Jon Smyth");
+		assertThat(names("jose", null)).containsExactly("José Smithers");
+		assertThat(names("jhon smtih", null)).containsExactly("John Smith");
+		assertThat(names("obrien lena", null)).containsExactly("Anna-Lena O'Brien");
+		assertThat(names("zz", null)).isEmpty();
+	}
+
+	@Test
+	void searchIsScopedByFlight() {
+		assertThat(names("smith", goa)).containsExactly("John Smith");
+		assertThat(names("smith", pune)).containsExactly("José Smithers", "Jon Smyth");
+		assertThat(names("smith", -1)).isEmpty();
+	}
+
+	@Test
+	void keptCurrentBySaveUpdateAndDelete() {
+		int id = book(pune, "Priya", "Nair");
+		assertThat(names("priya", null)).containsExactly("Priya Nair");
+
+		Passengers rename = new Passengers();
+		rename.setLastName("Menon");
+		ps.updateData(id, rename);
+		assertThat(names("nair", null)).isEmpty();
+		assertThat(names("menon", pune)).containsExactly("Priya Menon");
+
+		ps.deleteData(id);
+		assertThat(names("priya", null)).isEmpty();
+
+		fs.deleteData(goa);
+		assertThat(names("smith", null)).containsExactly("José Smithers", "Jon Smyth");
+		assertThat(ni.size()).isEqualTo(2);
+	}
+
+	@Test
+	void rebuildPicksUpRowsWrittenBehindItsBack() {
+		Passengers p = new Passengers();
+		p.setFirstName("Meera");
+		p.setFlight(fr.findById(goa).get());
+		pr.save(p);
+		assertThat(names("meera", null)).isEmpty();
+
+		assertThat(ni.rebuild()).isEqualTo(6);
+		assertThat(names("meera", goa)).containsExactly("Meera null");
+	}
+
+	@Test
+	@WithMockUser(roles = "STAFF")
+	void endpointPagesThroughTheRanking() throws Exception {
+		String body = mvc.perform(get("/FMS/Passenger/search").param("q", "s").param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.items.length()").value(2))
+				.andExpect(jsonPath("$.data.hasMore").value(true))
+				.andReturn().getResponse().getContentAsString();
+		JsonNode first = om.readTree(body).path("data");
+		mvc.perform(get("/FMS/Passenger/search").param("q", "s").param("size", "2").param("cursor", first.path("nextCursor").asText()))
+				.andExpect(jsonPath("$.data.items.length()").value(2))
+				.andExpect(jsonPath("$.data.hasMore").value(false));
+
+		List<PassengerMatch> all = ni.search("s", null, 20, -1);
+		assertThat(all).extracting(PassengerMatch::getDistance).containsOnly(1);
+		assertThat(all).extracting(PassengerMatch::getP_id).isSorted();
+
+		mvc.perform(get("/FMS/Passenger/search").param("q", " ")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void customersCannotSearchPassengers() throws Exception {
+		mvc.perform(get("/FMS/Passenger/search").param("q", "smith")).andExpect(status().isForbidden());
+	}
+}
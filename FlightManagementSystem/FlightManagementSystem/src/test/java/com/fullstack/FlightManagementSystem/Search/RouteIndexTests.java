@@ -0,0 +1,88 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+
+@SpringBootTest
+class RouteIndexTests {
+
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+
+	@BeforeEach
+	void start() {
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		ri.rebuild();
+	}
+
+	private static Flight flight(String name, String source, String destination) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource(source);
+		f.setDestination(destination);
+		f.setPrice(BigDecimal.valueOf(5000));
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		return f;
+	}
+
+	@Test
+	void keptCurrentBySaveUpdateDeleteAndBookings() {
+		Flight saved = fs.saveData(flight("AI-1", "Delhi", "Goa")).getBody().getData();
+		assertThat(ri.find(" delhi", "GOA ")).extracting(FlightSummary::getName).containsExactly("AI-1");
+
+		fs.savePassengerWithFlight(saved.getF_id(), new Passengers());
+		assertThat(ri.get(saved.getF_id()).getPassengerCount()).isEqualTo(1);
+
+		Flight moved = flight("AI-1", "Delhi", "Pune");
+		moved.setF_id(saved.getF_id());
+		fs.update(moved, saved.getF_id());
+		assertThat(ri.find("Delhi", "Goa")).isEmpty();
+		assertThat(ri.find("Delhi", "Pune")).singleElement()
+				.satisfies(s -> assertThat(s.getPassengerCount()).isEqualTo(1));
+
+		pr.deleteAll();
+		fs.deleteData(saved.getF_id());
+		assertThat(ri.find("Delhi", "Pune")).isEmpty();
+		ri.checkConsistency();
+		assertThat(ri.stats().getLastCheckMismatches()).isZero();
+	}
+
+	@Test
+	void consistencyCheckRepairsChangesMadeBehindItsBack() {
+		fr.save(flight("6E-9", "Chennai", "Kochi"));
+		assertThat(ri.find("Chennai", "Kochi")).isEmpty();
+
+		ri.checkConsistency();
+		assertThat(ri.stats().getLastCheckMismatches()).isEqualTo(1);
+		assertThat(ri.find("Chennai", "Kochi")).hasSize(1);
+		assertThat(ri.stats().getHits()).isPositive();
+		assertThat(ri.stats().getMisses()).isPositive();
+	}
+}
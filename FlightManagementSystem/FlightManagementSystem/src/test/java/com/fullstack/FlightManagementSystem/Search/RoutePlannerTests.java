@@ -0,0 +1,282 @@
+package com.fullstack.FlightManagementSystem.Search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.DTO.ImportReport;
+import com.fullstack.FlightManagementSystem.DTO.Itinerary;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Service.FlightImporter;
+import com.fullstack.FlightManagementSystem.Service.FlightService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "CUSTOMER")
+class RoutePlannerTests {
+
+	@Autowired
+	private RoutePlanner rp;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private FlightImporter fi;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private MockMvc mvc;
+
+	@BeforeEach
+	void start() {
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		ri.rebuild();
+	}
+
+	//Departs at time (HH:mm) on one fixed day in UTC, with no arrival
+	private int flight(String name, String source, String destination, String time, int price) {
+		return flight(name, source, destination, "2026-11-02T" + time + ":00Z", null, price);
+	}
+
+	private int flight(String name, String source, String destination, String departure, String arrival, int price) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource(source);
+		f.setDestination(destination);
+		f.setDeparture(OffsetDateTime.parse(departure));
+		f.setArrival(arrival == null ? null : OffsetDateTime.parse(arrival));
+		f.setPrice(BigDecimal.valueOf(price));
+		f.setCapacity(1);
+		return fs.saveData(f).getBody().getData().getF_id();
+	}
+
+	//A row from before departures were required, written past FlightService; the planner learns of it on a rebuild
+	private void legacy(String name, String source, String destination, String time, int price) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource(source);
+		f.setDestination(destination);
+		f.setTime(time);
+		f.setPrice(BigDecimal.valueOf(price));
+		f.setCapacity(1);
+		f.setSeatsAvailable(1);
+		fr.save(f);
+		ri.rebuild();
+	}
+
+	private static List<String> names(List<Itinerary> plans) {
+		return plans.stream().map(i -> String.join("+", i.getLegs().stream().map(FlightSummary::getName).toList())).toList();
+	}
+
+	@Test
+	void timesAreParsedFromTheFlightTimeString() {
+		assertThat(RoutePlanner.departureMinutes("14:05")).isEqualTo(14 * 60 + 5);
+		assertThat(RoutePlanner.departureMinutes(" 9:30 ")).isEqualTo(9 * 60 + 30);
+		assertThat(RoutePlanner.departureMinutes("2:05 pm")).isEqualTo(14 * 60 + 5);
+		assertThat(RoutePlanner.departureMinutes("07:15:00")).isEqualTo(7 * 60 + 15);
+		assertThat(RoutePlanner.departureMinutes("morning")).isEqualTo(-1);
+		assertThat(RoutePlanner.departureMinutes(null)).isEqualTo(-1);
+	}
+
+	@Test
+	void connectionsRespectTheMinimumConnectionTimeAndAreRanked() {
+		flight("DIRECT", "Delhi", "Goa", "06:00", 9000);
+		flight("DEL-BOM", "Delhi", "Mumbai", "06:00", 3000); //lands 08:00
+		flight("BOM-GOA-TIGHT", "Mumbai", "Goa", "08:30", 1000); //30 min connection
+		flight("BOM-GOA", "Mumbai", "Goa", "09:00", 2500);
+		flight("DEL-BLR", "Delhi", "Bengaluru", "05:00", 2000); //lands 07:00
+		flight("BLR-BOM", "Bengaluru", "Mumbai", "08:00", 500); //lands 10:00
+		flight("BOM-GOA-LATE", "Mumbai", "Goa", "11:00", 1500);
+		flight("BOM-DEL", "Mumbai", "Delhi", "09:00", 100); //back to the origin, never used
+		legacy("UNTIMED", "Delhi", "Goa", "soon", 10);
+
+		List<Itinerary> byPrice = rp.plan("delhi", " GOA", 5, 2, 45, RoutePlanner.Rank.PRICE);
+		assertThat(names(byPrice)).containsExactly("DEL-BLR+BLR-BOM+BOM-GOA-LATE", "DEL-BOM+BOM-GOA-LATE", "DEL-BOM+BOM-GOA",
+				"DIRECT");
+		assertThat(byPrice.get(0).getTotalPrice()).isEqualByComparingTo("4000");
+		assertThat(byPrice.get(0).getStops()).isEqualTo(2);
+		assertThat(byPrice.get(0).getDurationMinutes()).isEqualTo(8 * 60);
+		assertThat(byPrice.get(0).getLayoverMinutes()).isEqualTo(2 * 60);
+
+		assertThat(names(rp.plan("Delhi", "Goa", 5, 2, 30, RoutePlanner.Rank.PRICE))).first().isEqualTo("DEL-BOM+BOM-GOA-TIGHT");
+		assertThat(names(rp.plan("Delhi", "Goa", 2, 1, 45, RoutePlanner.Rank.DURATION))).containsExactly("DIRECT", "DEL-BOM+BOM-GOA");
+		assertThat(names(rp.plan("Delhi", "Goa", 5, 0, 45, RoutePlanner.Rank.PRICE))).containsExactly("DIRECT");
+	}
+
+	@Test
+	void datedLegsConnectAcrossMidnightAndDays() {
+		flight("DEL-BOM-NIGHT", "Delhi", "Mumbai", "2026-11-02T22:30:00Z", "2026-11-03T00:45:00Z", 3000);
+		flight("BOM-GOA-EARLY", "Mumbai", "Goa", "2026-11-03T01:45:00Z", "2026-11-03T03:00:00Z", 2000);
+		flight("BOM-GOA-DAY-AFTER", "Mumbai", "Goa", "2026-11-04T09:00:00Z", "2026-11-04T10:15:00Z", 500);
+		flight("BOM-GOA-BEFORE", "Mumbai", "Goa", "2026-11-02T23:30:00Z", null, 100); //leaves before the Delhi leg lands
+
+		List<Itinerary> byPrice = rp.plan("Delhi", "Goa", 5, 1, 45, RoutePlanner.Rank.PRICE);
+		assertThat(names(byPrice)).containsExactly("DEL-BOM-NIGHT+BOM-GOA-DAY-AFTER", "DEL-BOM-NIGHT+BOM-GOA-EARLY");
+		assertThat(byPrice.get(0).getDurationMinutes()).isEqualTo(35 * 60 + 45);
+		assertThat(byPrice.get(1).getDurationMinutes()).isEqualTo(4 * 60 + 30);
+		assertThat(byPrice.get(1).getLayoverMinutes()).isEqualTo(60);
+
+		assertThat(names(rp.plan("Delhi", "Goa", 5, 1, 45, RoutePlanner.Rank.DURATION))).first().isEqualTo("DEL-BOM-NIGHT+BOM-GOA-EARLY");
+		assertThat(names(rp.plan("Delhi", "Goa", 5, 1, 90, RoutePlanner.Rank.PRICE))).containsExactly("DEL-BOM-NIGHT+BOM-GOA-DAY-AFTER");
+	}
+
+	@Test
+	void rowsWithOnlyATimeOfDayArePlannedAmongThemselves() {
+		legacy("OLD-PNQ-BLR", "Pune", "Bengaluru", "06:00", 1000);
+		legacy("OLD-BLR-COK", "Bengaluru", "Kochi", "09:00", 1000);
+		flight("BLR-COK", "Bengaluru", "Kochi", "09:00", 500); //dated, so never a connection for the time-of-day leg
+		flight("PNQ-COK", "Pune", "Kochi", "12:00", 2500);
+
+		assertThat(names(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE))).containsExactly("OLD-PNQ-BLR+OLD-BLR-COK", "PNQ-COK");
+		assertThat(names(rp.plan("Pune", "Kochi", 1, 1, 45, RoutePlanner.Rank.DURATION))).containsExactly("PNQ-COK");
+		assertThat(rp.legs()).isEqualTo(4);
+	}
+
+	@Test
+	void graphFollowsFlightChangesAndSkipsFullFlights() {
+		int direct = flight("DIRECT", "Pune", "Kochi", "10:00", 8000);
+		int first = flight("PNQ-BLR", "Pune", "Bengaluru", "06:00", 2000);
+		flight("BLR-COK", "Bengaluru", "Kochi", "09:00", 2000);
+		assertThat(names(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE))).containsExactly("PNQ-BLR+BLR-COK", "DIRECT");
+
+		fs.savePassengerWithFlight(first, new Passengers());
+		assertThat(names(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE))).containsExactly("DIRECT");
+
+		Flight unpriced = fr.findById(direct).get();
+		unpriced.setPrice(null);
+		fs.update(unpriced, direct);
+		assertThat(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE)).isEmpty();
+
+		int again = flight("PNQ-BLR-2", "Pune", "Bengaluru", "05:00", 1000);
+		assertThat(names(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE))).containsExactly("PNQ-BLR-2+BLR-COK");
+		fs.deleteData(again);
+		assertThat(rp.plan("Pune", "Kochi", 5, 1, 45, RoutePlanner.Rank.PRICE)).isEmpty();
+		assertThat(rp.legs()).isEqualTo(2);
+	}
+
+	@Test
+	void importedLegsArePlannedThrough() {
+		flight("DEL-BOM", "Delhi", "Mumbai", "06:00", 3000);
+		assertThat(rp.plan("Delhi", "Goa", 5, 1, 45, RoutePlanner.Rank.PRICE)).isEmpty();
+
+		String csv = "name,source,destination,departure,price\nBOM-GOA,Mumbai,Goa,2026-11-02T09:00:00Z,2500\n";
+		ImportReport report = fi.importFlights(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), FlightImporter.Format.CSV);
+		assertThat(report.getInserted()).isEqualTo(1);
+		assertThat(names(rp.plan("Delhi", "Goa", 5, 1, 45, RoutePlanner.Rank.PRICE))).containsExactly("DEL-BOM+BOM-GOA");
+	}
+
+	//Best-first with dominance pruning against every simple itinerary, enumerated by hand
+	@Test
+	void kBestMatchesExhaustiveSearch() {
+		Random r = new Random(11);
+		LegGraph g = new LegGraph();
+		List<LegGraph.Leg> all = new ArrayList<>();
+		String[] airports = { "a", "b", "c", "d", "e", "f", "g" };
+		for (int id = 1; id <= 400; id++) {
+			String from = airports[r.nextInt(airports.length)];
+			String to = airports[r.nextInt(airports.length)];
+			if (from.equals(to)) {
+				continue;
+			}
+			long dep = r.nextInt(20 * 60);
+			LegGraph.Leg leg = new LegGraph.Leg(id, from, to, dep, dep + 30 + r.nextInt(240), 1000 + r.nextInt(20) * 500);
+			g.put(leg);
+			all.add(leg);
+		}
+		for (RoutePlanner.Rank rank : RoutePlanner.Rank.values()) {
+			for (int stops = 0; stops <= 2; stops++) {
+				List<long[]> expected = new ArrayList<>();
+				enumerate(all, "a", "g", new ArrayList<>(), stops + 1, 45, expected);
+				Comparator<long[]> order = rank == RoutePlanner.Rank.PRICE
+						? Comparator.<long[]>comparingLong(c -> c[0]).thenComparingLong(c -> c[1])
+						: Comparator.<long[]>comparingLong(c -> c[1]).thenComparingLong(c -> c[0]);
+				expected.sort(order);
+				List<long[]> actual = g.plan("a", "g", 10, stops, 45, rank, id -> true).stream()
+						.map(p -> new long[] { p.priceCents, p.minutes }).toList();
+				assertThat(actual).as(rank + ", " + stops + " stops").hasSize(Math.min(10, expected.size()));
+				for (int i = 0; i < actual.size(); i++) {
+					assertThat(actual.get(i)).as(rank + ", " + stops + " stops, #" + i).containsExactly(expected.get(i));
+				}
+			}
+		}
+	}
+
+	private static void enumerate(List<LegGraph.Leg> all, String at, String to, List<LegGraph.Leg> path, int maxLegs, long minConnection,
+			List<long[]> out) {
+		if (path.size() == maxLegs) {
+			return;
+		}
+		for (LegGraph.Leg leg : all) {
+			if (!leg.from.equals(at)) {
+				continue;
+			}
+			if (!path.isEmpty() && leg.departure < path.get(path.size() - 1).arrival + minConnection) {
+				continue;
+			}
+			if (path.stream().anyMatch(p -> p.from.equals(leg.to))) {
+				continue;
+			}
+			path.add(leg);
+			if (leg.to.equals(to)) {
+				long price = path.stream().mapToLong(p -> p.priceCents).sum();
+				out.add(new long[] { price, leg.arrival - path.get(0).departure });
+			} else {
+				enumerate(all, leg.to, to, path, maxLegs, minConnection, out);
+			}
+			path.remove(path.size() - 1);
+		}
+	}
+
+	@Test
+	void endpointPlansAndValidates() throws Exception {
+		flight("DEL-BOM", "Delhi", "Mumbai", "06:00", 3000);
+		flight("BOM-GOA", "Mumbai", "Goa", "09:00", 2500);
+		mvc.perform(get("/FMS/routes").param("source", "Delhi").param("destination", "Goa"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(1))
+				.andExpect(jsonPath("$.data[0].stops").value(1))
+				.andExpect(jsonPath("$.data[0].totalPrice").value(5500))
+				.andExpect(jsonPath("$.data[0].legs[1].name").value("BOM-GOA"));
+		mvc.perform(get("/FMS/routes").param("source", "Delhi").param("destination", "Goa").param("maxStops", "0"))
+				.andExpect(status().isNotFound());
+		mvc.perform(get("/FMS/routes").param("source", "Delhi").param("destination", "Goa").param("maxStops", "3"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/routes").param("source", "Delhi").param("destination", "Goa").param("sort", "seats"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/routes").param("source", "Goa").param("destination", " goa")).andExpect(status().isBadRequest());
+		assertThat(Arrays.asList(RoutePlanner.Rank.values())).hasSize(2);
+	}
+}
@@ -0,0 +1,99 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+
+class JwtUtilTests {
+
+	private static final String SECRET = "TestSecretKeyForJWTTokenGenerationShouldBe32BytesOrLonger123456789";
+
+	private JwtUtil ju;
+
+	@BeforeEach
+	void setUp() {
+		ju = newJwtUtil(10000);
+	}
+
+	private static JwtUtil newJwtUtil(int cacheSize) {
+		JwtUtil util = new JwtUtil();
+		ReflectionTestUtils.setField(util, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(util, "jwtExpirationMs", 86400000);
+		ReflectionTestUtils.setField(util, "cacheMaxSize", cacheSize);
+		util.init();
+		return util;
+	}
+
+	static Users user(int id, String email, UserRole role) {
+		Users u = new Users();
+		u.setId(id);
+		u.setEmail(email);
+		u.setRole(role);
+		return u;
+	}
+
+	@Test
+	void validTokenIsParsedOnceAndThenServedFromCache() {
+		String token = ju.generateToken(user(7, "user@fms.com", UserRole.CUSTOMER));
+		Claims first = ju.parseToken(token);
+		assertThat(first.getSubject()).isEqualTo("user@fms.com");
+		assertThat(ju.parseToken(token)).isSameAs(first);
+		assertThat(ju.validateToken(token, "user@fms.com")).isTrue();
+		assertThat(ju.validateToken(token, "other@fms.com")).isFalse();
+	}
+
+	@Test
+	void idAndRoleComeBackFromTheSignedClaims() {
+		String token = ju.generateToken(user(7, "staff@fms.com", UserRole.STAFF));
+		AuthenticatedUser principal = ju.toAuthenticatedUser(ju.parseToken(token));
+		assertThat(principal.getId()).isEqualTo(7);
+		assertThat(principal.getName()).isEqualTo("staff@fms.com");
+		assertThat(principal.getRole()).isEqualTo(UserRole.STAFF);
+
+		Claims legacy = Jwts.claims().subject("old@fms.com").build();
+		assertThat(ju.toAuthenticatedUser(legacy)).isNull();
+	}
+
+	@Test
+	void tamperedAndExpiredTokensAreRejected() {
+		String token = ju.generateToken(user(7, "user@fms.com", UserRole.CUSTOMER));
+		assertThat(ju.parseToken(token.substring(0, token.length() - 2) + "xx")).isNull();
+		assertThat(ju.parseToken("not-a-jwt")).isNull();
+
+		SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+		String expired = Jwts.builder().subject("user@fms.com")
+				.issuedAt(Date.from(Instant.now().minusSeconds(120)))
+				.expiration(Date.from(Instant.now().minusSeconds(60)))
+				.signWith(key).compact();
+		assertThat(ju.parseToken(expired)).isNull();
+		assertThat(ju.isTokenExpired(expired)).isTrue();
+	}
+
+	@Test
+	void cacheDropsExpiredEntriesAndStaysBounded() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100);
+		Claims expired = Jwts.claims().subject("a").expiration(new Date(System.currentTimeMillis() - 1000)).build();
+		cache.put("expired", expired);
+		assertThat(cache.get("expired")).isNull();
+
+		Claims live = Jwts.claims().subject("b").expiration(new Date(System.currentTimeMillis() + 60000)).build();
+		for (int i = 0; i < 1000; i++) {
+			cache.put("token-" + i, live);
+		}
+		assertThat(cache.size()).isLessThanOrEqualTo(100);
+	}
+}
@@ -0,0 +1,123 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Exception.ServiceBusyException;
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = "app.auth.bcrypt-strength=5")
+@AutoConfigureMockMvc
+class PasswordHasherTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private UserRepository ur;
+
+	@AfterEach
+	void cleanUp() {
+		ur.deleteAll();
+	}
+
+	//Encodes only once the latch opens, so the test decides when the single hashing thread is busy
+	private static PasswordEncoder blocking(CountDownLatch release) {
+		return new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence raw) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "hash:" + raw;
+			}
+
+			@Override
+			public boolean matches(CharSequence raw, String encoded) {
+				return encoded.equals(encode(raw));
+			}
+		};
+	}
+
+	@Test
+	void fullPoolRejectsAtOnceAndTimingsAreRecorded() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+		PasswordHasher ph = new PasswordHasher(blocking(release), meters, 1, 1, 5000);
+		try {
+			CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> ph.encode("a"));
+			CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> ph.encode("b"));
+			long deadline = System.currentTimeMillis() + 5000;
+			while (meters.get("fms.auth.hashing.queue").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			long start = System.nanoTime();
+			assertThatThrownBy(() -> ph.encode("c")).isInstanceOf(ServiceBusyException.class);
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+			release.countDown();
+			assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+			assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+			assertThat(ph.matches("a", "hash:a")).isTrue();
+			assertThat(meters.get("fms.auth.hashing.rejected").tag("op", "encode").counter().count()).isEqualTo(1);
+			assertThat(meters.get("fms.auth.hashing").tag("op", "encode").timer().count()).isEqualTo(2);
+			assertThat(meters.get("fms.auth.hashing.wait").timer().count()).isEqualTo(3);
+		} finally {
+			release.countDown();
+			ph.stop();
+		}
+	}
+
+	@Test
+	void slowHashTimesOut() {
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordHasher ph = new PasswordHasher(blocking(release), new SimpleMeterRegistry(), 1, 4, 50);
+		try {
+			assertThatThrownBy(() -> ph.encode("a")).isInstanceOf(ServiceBusyException.class);
+		} finally {
+			release.countDown();
+			ph.stop();
+		}
+	}
+
+	@Test
+	void loginUpgradesAHashMadeWithAnOlderCost() throws Exception {
+		Users u = new Users();
+		u.setName("Old Hash");
+		u.setEmail("old@fms.com");
+		u.setRole(UserRole.CUSTOMER);
+		u.setPassword(new BCryptPasswordEncoder(4).encode("secret1"));
+		int id = ur.save(u).getId();
+
+		mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"old@fms.com\",\"password\":\"secret1\"}")).andExpect(status().isOk());
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!ur.findById(id).get().getPassword().startsWith("$2a$05$") && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(ur.findById(id).get().getPassword()).startsWith("$2a$05$");
+		mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"old@fms.com\",\"password\":\"secret1\"}")).andExpect(status().isOk());
+	}
+}
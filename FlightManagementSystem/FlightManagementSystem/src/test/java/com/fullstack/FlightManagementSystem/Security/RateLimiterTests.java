@@ -0,0 +1,87 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+
+@SpringBootTest(properties = { "app.rate-limit.enabled=true", "app.rate-limit.rules=/FMS/findPage=2:0.01,/welcome=1:0.01" })
+@AutoConfigureMockMvc
+class RateLimiterTests {
+	private static final long SECOND = 1_000_000_000L;
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private JwtUtil ju;
+
+	@Test
+	void burstThenSteadyRate() {
+		RateLimiter rl = new RateLimiter(true, "/auth/=3:2,/=100:50", 1000, 4);
+		RateLimiter.Rule auth = rl.rule("/AUTH/login");
+		assertThat(auth.getPrefix()).isEqualTo("/auth/");
+		assertThat(rl.rule("/FMS/findAll").getPrefix()).isEqualTo("/");
+
+		long t = 0;
+		for (int i = 0; i < 3; i++) {
+			assertThat(rl.acquire(auth, "ip:a", t)).isZero();
+		}
+		assertThat(rl.acquire(auth, "ip:a", t)).isEqualTo(SECOND / 2);
+		assertThat(rl.acquire(auth, "ip:b", t)).as("other callers have their own bucket").isZero();
+		assertThat(rl.acquire(auth, "ip:a", t + SECOND / 2)).isZero();
+		assertThat(rl.acquire(auth, "ip:a", t + SECOND / 2)).isEqualTo(SECOND / 2);
+		assertThat(rl.acquire(auth, "ip:a", t + 10 * SECOND)).isZero();
+	}
+
+	@Test
+	void bucketsStayBoundedAndRefilledOnesAreSwept() {
+		RateLimiter rl = new RateLimiter(true, "/=1:1000", 64, 4);
+		RateLimiter.Rule all = rl.rule("/");
+		long now = System.nanoTime();
+		for (int i = 0; i < 10_000; i++) {
+			rl.acquire(all, "ip:" + i, now);
+		}
+		assertThat(rl.size()).isLessThanOrEqualTo(64);
+		assertThat(rl.size()).isPositive();
+		rl.sweep();
+		assertThat(rl.size()).isZero();
+	}
+
+	@Test
+	void badRulesAreRefused() {
+		assertThatThrownBy(() -> RateLimiter.parse("/auth/=10")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RateLimiter.parse("/auth/=0:1")).isInstanceOf(IllegalArgumentException.class);
+		assertThat(RateLimiter.parse(" , /a=1:1 ,")).hasSize(1);
+	}
+
+	@Test
+	void overLimitRequestsGet429PerSubjectOrAddress() throws Exception {
+		mvc.perform(get("/welcome")).andExpect(status().isOk());
+		mvc.perform(get("/welcome")).andExpect(status().isTooManyRequests()).andExpect(header().string("Retry-After", "100"));
+
+		String alice = "Bearer " + ju.generateToken(user(1, "alice@fms.com"));
+		String bob = "Bearer " + ju.generateToken(user(2, "bob@fms.com"));
+		mvc.perform(get("/FMS/findPage").header("Authorization", alice)).andExpect(status().isOk());
+		mvc.perform(get("/FMS/findPage").header("Authorization", alice)).andExpect(status().isOk());
+		mvc.perform(get("/FMS/findPage").header("Authorization", alice)).andExpect(status().isTooManyRequests());
+		mvc.perform(get("/FMS/findPage").header("Authorization", bob)).andExpect(status().isOk());
+	}
+
+	private static Users user(int id, String email) {
+		Users u = new Users();
+		u.setId(id);
+		u.setEmail(email);
+		u.setRole(UserRole.CUSTOMER);
+		return u;
+	}
+}
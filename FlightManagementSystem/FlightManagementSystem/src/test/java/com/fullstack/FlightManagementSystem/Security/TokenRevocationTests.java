@@ -0,0 +1,107 @@
+package com.fullstack.FlightManagementSystem.Security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.FlightManagementSystem.Repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = "app.auth.bcrypt-strength=4")
+@AutoConfigureMockMvc
+class TokenRevocationTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private UserRepository ur;
+	@Autowired
+	private ObjectMapper om;
+
+	@AfterEach
+	void cleanUp() {
+		ur.deleteAll();
+	}
+
+	@Test
+	void bloomFilterAnswersMostLookupsAndTheExactSetTheRest() {
+		RevokedTokens rt = new RevokedTokens(new SimpleMeterRegistry(), 10000, 0.01);
+		Date live = new Date(System.currentTimeMillis() + 60000);
+		for (int i = 0; i < 10000; i++) {
+			assertThat(rt.revoke("revoked-" + i, live)).isTrue();
+		}
+		assertThat(rt.revoke("revoked-1", live)).as("a token is revoked once").isFalse();
+		int bloomHits = 0;
+		for (int i = 0; i < 10000; i++) {
+			assertThat(rt.isRevoked("revoked-" + i)).isTrue();
+			String other = UUID.randomUUID().toString();
+			assertThat(rt.isRevoked(other)).isFalse();
+			if (rt.mightBeRevoked(other)) {
+				bloomHits++;
+			}
+		}
+		assertThat(bloomHits).isLessThan(300);
+		assertThat(rt.isRevoked(null)).isFalse();
+	}
+
+	@Test
+	void expiredRevocationsArePruned() {
+		RevokedTokens rt = new RevokedTokens(new SimpleMeterRegistry(), 100, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			rt.revoke("old-" + i, new Date(System.currentTimeMillis() - 1000));
+		}
+		rt.revoke("live", new Date(System.currentTimeMillis() + 60000));
+		assertThat(rt.size()).isEqualTo(1001);
+		rt.prune();
+		assertThat(rt.size()).isEqualTo(1);
+		assertThat(rt.isRevoked("live")).isTrue();
+		assertThat(rt.isRevoked("old-1")).isFalse();
+	}
+
+	@Test
+	void refreshTokensRotateAndLogoutRevokesBoth() throws Exception {
+		JsonNode first = om.readTree(mvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Rita\",\"email\":\"rita@fms.com\",\"password\":\"secret1\",\"role\":\"CUSTOMER\"}"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+		String access = first.get("token").asText();
+		String refresh = first.get("refreshToken").asText();
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + access)).andExpect(status().isOk());
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + refresh)).andExpect(status().isUnauthorized());
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content("{\"refreshToken\":\"" + access + "\"}"))
+				.andExpect(status().isUnauthorized());
+
+		JsonNode second = om.readTree(mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"refreshToken\":\"" + refresh + "\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("rita@fms.com"))
+				.andReturn().getResponse().getContentAsString());
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content("{\"refreshToken\":\"" + refresh + "\"}"))
+				.andExpect(status().isUnauthorized());
+
+		String access2 = second.get("token").asText();
+		String refresh2 = second.get("refreshToken").asText();
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + access2)).andExpect(status().isOk());
+		mvc.perform(post("/auth/logout").header("Authorization", "Bearer " + access2).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"refreshToken\":\"" + refresh2 + "\"}")).andExpect(status().isNoContent());
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + access2)).andExpect(status().isUnauthorized());
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content("{\"refreshToken\":\"" + refresh2 + "\"}"))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/FMS/findPage").header("Authorization", "Bearer " + access)).andExpect(status().isOk());
+	}
+}
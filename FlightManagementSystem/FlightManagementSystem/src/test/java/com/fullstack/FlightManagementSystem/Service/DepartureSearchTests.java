@@ -0,0 +1,179 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullstack.FlightManagementSystem.DTO.FlightSummary;
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+
+@SpringBootTest(properties = { "app.flights.zone=Asia/Kolkata", "app.flights.legacy-departure-date=2026-11-02" })
+@AutoConfigureMockMvc
+@WithMockUser(roles = "CUSTOMER")
+class DepartureSearchTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private DepartureBackfill backfill;
+	@Autowired
+	private ObjectMapper om;
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@AfterEach
+	void cleanUp() {
+		fr.deleteAll();
+		ri.rebuild();
+	}
+
+	private Flight flight(String name, String source, String destination, String departure) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setSource(source);
+		f.setDestination(destination);
+		f.setPrice(BigDecimal.valueOf(4000));
+		f.setDeparture(OffsetDateTime.parse(departure));
+		return fs.saveData(f).getBody().getData();
+	}
+
+	@Test
+	void departuresAreStoredInUtcAndFillInTheLegacyTime() {
+		Flight f = flight("AI-1", "Delhi", "Goa", "2026-11-02T06:30:00.123456789+05:30");
+		Flight stored = fr.findById(f.getF_id()).get();
+		assertThat(stored.getTime()).isEqualTo("06:30");
+		assertThat(stored.getDeparture()).isEqualTo(OffsetDateTime.parse("2026-11-02T01:00:00.123456Z"));
+		assertThat(ri.get(f.getF_id()).getDeparture()).isEqualTo(stored.getDeparture());
+
+		Flight backwards = new Flight();
+		backwards.setName("AI-2");
+		backwards.setDeparture(OffsetDateTime.parse("2026-11-02T10:00:00Z"));
+		backwards.setArrival(OffsetDateTime.parse("2026-11-02T09:00:00Z"));
+		assertThatThrownBy(() -> fs.saveData(backwards)).isInstanceOf(BadRequestException.class);
+
+		Flight untyped = new Flight();
+		untyped.setName("AI-3");
+		untyped.setTime("10:00");
+		assertThatThrownBy(() -> fs.saveData(untyped)).isInstanceOf(BadRequestException.class).hasMessageContaining("departure is required");
+		assertThatThrownBy(() -> fs.update(untyped, f.getF_id())).isInstanceOf(BadRequestException.class);
+		assertThat(fr.findById(f.getF_id()).get().getDeparture()).isEqualTo(stored.getDeparture());
+	}
+
+	@Test
+	void dateAndRouteWindowsArePagedInDepartureOrder() throws Exception {
+		flight("LATE", "Delhi", "Goa", "2026-11-02T23:30:00+05:30");
+		flight("EARLY", "Delhi", "Goa", "2026-11-02T00:15:00+05:30");
+		flight("NOON", "Delhi", "Goa", "2026-11-02T12:00:00+05:30");
+		flight("NEXT-DAY", "Delhi", "Goa", "2026-11-03T00:00:00+05:30");
+		flight("OTHER-ROUTE", "Delhi", "Pune", "2026-11-02T08:00:00+05:30");
+
+		List<String> names = new ArrayList<>();
+		String cursor = null;
+		do {
+			var request = get("/FMS/findByDeparture").param("source", "Delhi").param("destination", "Goa").param("date", "2026-11-02")
+					.param("size", "2");
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			JsonNode page = om.readTree(mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString())
+					.get("data");
+			page.get("items").forEach(i -> names.add(i.get("name").asText()));
+			cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+		} while (cursor != null);
+		assertThat(names).containsExactly("EARLY", "NOON", "LATE");
+
+		List<FlightSummary> window = fs.findByDeparture(null, null, "2026-11-02T07:00:00", null, null, 6, null, null).getBody().getData()
+				.getItems();
+		assertThat(window).extracting(FlightSummary::getName).containsExactly("OTHER-ROUTE", "NOON");
+	}
+
+	@Test
+	void badWindowsAreRejected() throws Exception {
+		mvc.perform(get("/FMS/findByDeparture").param("source", "Delhi")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture").param("date", "02/11/2026")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture").param("date", "2026-11-02").param("hours", "3")).andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture").param("from", "2026-11-02T10:00:00Z").param("to", "2026-11-02T09:00:00Z"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture").param("from", "2026-11-02T10:00:00Z").param("to", "2027-01-02T09:00:00Z"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/FMS/findByDeparture").param("from", "tomorrow").param("hours", "3"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.data").value(containsString("ISO-8601")));
+	}
+
+	//Rows written past FlightService, the way they were stored before departures existed
+	private Flight legacy(String name, String time) {
+		Flight f = new Flight();
+		f.setName(name);
+		f.setTime(time);
+		return fr.save(f);
+	}
+
+	//The version was recorded when the context started, on an empty table; forget it to run the backfill again
+	private void unapply() {
+		jdbc.update("delete from schema_version where version = ?", DepartureBackfill.VERSION);
+	}
+
+	@Test
+	void legacyTimesAreBackfilledOnceOnTheConfiguredDate() throws Exception {
+		unapply();
+		Flight legacy = legacy("OLD", "2:05 PM");
+		Flight untimed = legacy("UNTIMED", "soon");
+
+		backfill.run(null);
+		assertThat(backfill.applied()).isTrue();
+		Flight filled = fr.findById(legacy.getF_id()).get();
+		assertThat(filled.getDeparture()).isAtSameInstantAs(OffsetDateTime.parse("2026-11-02T14:05:00+05:30"));
+		assertThat(filled.getArrival()).isAtSameInstantAs(filled.getDeparture().plusMinutes(120));
+		assertThat(fr.findById(untimed.getF_id()).get().getDeparture()).isNull();
+
+		Flight later = legacy("LATER", "09:00");
+		backfill.run(null);
+		assertThat(fr.findById(later.getF_id()).get().getDeparture()).isNull();
+	}
+
+	@Test
+	void backfillRefusesToGuessTheDate() {
+		unapply();
+		Flight legacy = legacy("OLD", "2:05 PM");
+		ReflectionTestUtils.setField(backfill, "legacyDate", "");
+		try {
+			assertThatThrownBy(() -> backfill.run(null)).isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("app.flights.legacy-departure-date");
+			assertThat(backfill.applied()).isFalse();
+			assertThat(fr.findById(legacy.getF_id()).get().getDeparture()).isNull();
+		} finally {
+			ReflectionTestUtils.setField(backfill, "legacyDate", "2026-11-02");
+		}
+	}
+}
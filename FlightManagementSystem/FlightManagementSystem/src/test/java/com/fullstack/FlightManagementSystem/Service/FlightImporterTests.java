@@ -0,0 +1,99 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlightImporterTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private RouteIndex ri;
+
+	@AfterEach
+	void cleanUp() {
+		fr.deleteAll();
+		ri.rebuild();
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void csvRowsAreUpsertedAndBadRowsReported() throws Exception {
+		Flight existing = new Flight();
+		existing.setName("AI-1");
+		existing.setSource("Delhi");
+		existing.setDestination("Goa");
+		existing.setCapacity(100);
+		existing.setSeatsAvailable(100);
+		existing = fr.save(existing);
+
+		String csv = "f_id,name,source,destination,departure,price,capacity\n"
+				+ existing.getF_id() + ",AI-1,Delhi,Pune,2026-11-02T09:00:00Z,4500,120\n"
+				+ ",\"6E, 22\",Mumbai,Goa,2026-11-02T10:30:00Z,3200,\n"
+				+ ",6E-23,Mumbai,,2026-11-02T11:00:00Z,3300,\n"
+				+ ",6E-24,Mumbai,Goa,2026-11-02T12:00:00Z,cheap,\n"
+				+ "999999,6E-25,Mumbai,Goa,2026-11-02T12:00:00Z,3000,\n";
+		mvc.perform(post("/FMS/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.rowsRead").value(5))
+				.andExpect(jsonPath("$.data.inserted").value(1))
+				.andExpect(jsonPath("$.data.updated").value(1))
+				.andExpect(jsonPath("$.data.failed").value(3))
+				.andExpect(jsonPath("$.data.errors[0].line").value(4))
+				.andExpect(jsonPath("$.data.errors[1].line").value(5))
+				.andExpect(jsonPath("$.data.errors[2].line").value(6));
+
+		Flight updated = fr.findById(existing.getF_id()).get();
+		assertThat(updated.getDestination()).isEqualTo("Pune");
+		assertThat(updated.getCapacity()).isEqualTo(120);
+		assertThat(updated.getSeatsAvailable()).isEqualTo(120);
+		assertThat(ri.find("Mumbai", "Goa")).singleElement()
+				.satisfies(s -> assertThat(s.getName()).isEqualTo("6E, 22"));
+
+		mvc.perform(get("/FMS/import/status")).andExpect(jsonPath("$.data.running").value(false));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void ndjsonRowsAreInserted() throws Exception {
+		String ndjson = "{\"name\":\"UK-1\",\"source\":\"Delhi\",\"destination\":\"Leh\",\"departure\":\"2026-11-02T05:00:00Z\",\"price\":7000}\n"
+				+ "\n"
+				+ "{\"name\":\"UK-2\",\"source\":\"Delhi\",\"destination\":\"Leh\",\"departure\":\"2026-11-02T07:00:00Z\",\"capacity\":60}\n"
+				+ "{not json}\n"
+				+ "{\"name\":\"UK-3\",\"source\":\"Delhi\",\"destination\":\"Leh\",\"time\":\"09:00\"}\n";
+		mvc.perform(post("/FMS/import").contentType("application/x-ndjson").content(ndjson))
+				.andExpect(jsonPath("$.data.inserted").value(2))
+				.andExpect(jsonPath("$.data.failed").value(2))
+				.andExpect(jsonPath("$.data.errors[0].line").value(4))
+				.andExpect(jsonPath("$.data.errors[1].line").value(5))
+				.andExpect(jsonPath("$.data.errors[1].message").value(containsString("departure is required")));
+		assertThat(fr.findAll()).extracting(Flight::getSeatsAvailable).containsExactlyInAnyOrder(180, 60);
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void onlyAdminsImport() throws Exception {
+		mvc.perform(post("/FMS/import").contentType("text/csv").content("name,source,destination\n"))
+				.andExpect(status().isForbidden());
+	}
+}
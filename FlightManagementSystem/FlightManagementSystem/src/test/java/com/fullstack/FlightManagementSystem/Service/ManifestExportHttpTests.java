@@ -0,0 +1,66 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Model.UserRole;
+import com.fullstack.FlightManagementSystem.Model.Users;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Security.JwtUtil;
+
+//Over a real connection: the streamed body is written on an async dispatch, which must not be
+//authorized a second time once the response has started
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ManifestExportHttpTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+	@Autowired
+	private JwtUtil ju;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	@Test
+	void bearerTokenExportCompletes() {
+		Flight f = new Flight();
+		f.setName("AI-9");
+		f = fr.save(f);
+		Passengers p = new Passengers();
+		p.setFirstName("Asha");
+		p.setFlight(f);
+		pr.save(p);
+
+		Users staff = new Users();
+		staff.setId(7);
+		staff.setEmail("staff@fms.com");
+		staff.setRole(UserRole.STAFF);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(ju.generateToken(staff));
+
+		ResponseEntity<String> res = rest.exchange("/FMS/Passenger/export?format=csv&flightId=" + f.getF_id(), HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+		assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(res.getBody()).contains(",Asha,");
+	}
+}
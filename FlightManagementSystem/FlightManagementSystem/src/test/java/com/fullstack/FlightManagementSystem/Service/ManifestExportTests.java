@@ -0,0 +1,118 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "STAFF")
+class ManifestExportTests {
+
+	@Autowired
+	private MockMvc mvc;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private EntityManagerFactory emf;
+
+	private int goa;
+	private int pune;
+
+	@BeforeEach
+	void seed() {
+		goa = flight("AI-1").getF_id();
+		pune = flight("AI-2").getF_id();
+		List<Passengers> all = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			Passengers p = new Passengers();
+			p.setFirstName("Guest" + i);
+			p.setLastName(i == 0 ? "D'Souza, \"Jr\"" : "Rao");
+			p.setAge(30);
+			p.setFlight(fr.getReferenceById(i % 5 == 0 ? pune : goa));
+			all.add(p);
+		}
+		pr.saveAll(all);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private Flight flight(String name) {
+		Flight f = new Flight();
+		f.setName(name);
+		return fr.save(f);
+	}
+
+	private String export(String query) throws Exception {
+		MvcResult started = mvc.perform(get("/FMS/Passenger/export" + query)).andExpect(request().asyncStarted()).andReturn();
+		return mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+	}
+
+	@Test
+	void ndjsonStreamsEveryPassengerWithoutLoadingEntities() throws Exception {
+		Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+
+		String body = export("");
+
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize(2500);
+		assertThat(lines[0]).contains("\"firstName\":\"Guest0\"").contains("\"flightId\":" + pune);
+		assertThat(stats.getEntityLoadCount()).isZero();
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void csvIsFilteredByFlightAndEscaped() throws Exception {
+		String body = export("?format=csv&flightId=" + pune);
+
+		String[] lines = body.split("\n");
+		assertThat(lines[0]).isEqualTo("p_id,firstName,lastName,age,flightId,flightName,userId");
+		assertThat(lines).hasSize(1 + 500);
+		assertThat(lines[1]).contains(",Guest0,\"D'Souza, \"\"Jr\"\"\",30," + pune + ",AI-2,");
+	}
+
+	@Test
+	void unknownFlightIsNotFoundBeforeStreaming() throws Exception {
+		mvc.perform(get("/FMS/Passenger/export?flightId=999999")).andExpect(request().asyncNotStarted())
+				.andExpect(status().is4xxClientError());
+		mvc.perform(get("/FMS/Passenger/export?format=xml")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void attachmentIsNamedAfterTheFlight() throws Exception {
+		mvc.perform(get("/FMS/Passenger/export?format=csv&flightId=" + goa))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"manifest-" + goa + ".csv\""));
+	}
+}
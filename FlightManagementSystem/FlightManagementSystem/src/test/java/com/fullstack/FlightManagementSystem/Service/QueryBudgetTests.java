@@ -0,0 +1,151 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+import com.fullstack.FlightManagementSystem.Search.RouteIndex;
+
+//Query budgets for the service methods, measured with the same counter the request filter uses
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+	@Autowired
+	private QueryCounter qc;
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private PassengerService ps;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+	@Autowired
+	private RouteIndex ri;
+	@Autowired
+	private MockMvc mvc;
+
+	private final List<Integer> flightIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < 4; i++) {
+			Flight f = new Flight();
+			f.setName("QB-" + i);
+			f.setSource("Delhi");
+			f.setDestination("Goa");
+			f.setPrice(BigDecimal.valueOf(3000 + i));
+			f.setCapacity(50);
+			f.setSeatsAvailable(50);
+			f = fr.save(f);
+			flightIds.add(f.getF_id());
+			for (int j = 0; j < 3; j++) {
+				Passengers p = new Passengers();
+				p.setFirstName("Q" + i + j);
+				p.setFlight(f);
+				pr.save(p);
+			}
+		}
+		ri.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+		flightIds.clear();
+	}
+
+	@Test
+	void flightReadsStayWithinBudget() {
+		try (QueryCounter.Scope q = qc.open()) {
+			fs.findAll();
+			assertThat(q.count()).as("findAll: %s", q).isEqualTo(1);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			fs.findFlightById(flightIds.get(0));
+			assertThat(q.count()).as("findFlightById: %s", q).isEqualTo(1);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			fs.findPage(null, 2, null);
+			assertThat(q.count()).as("findPage: %s", q).isEqualTo(1);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			fs.findFlightBySourceAndDestination("Delhi", "Goa");
+			assertThat(q.count()).as("route search is served from the index: %s", q).isZero();
+		}
+	}
+
+	@Test
+	void passengerReadsDoNotLoadFlightsOneByOne() {
+		try (QueryCounter.Scope q = qc.open()) {
+			assertThat(ps.findAll().getBody().getData()).hasSize(12);
+			assertThat(q.maxRepeats()).as("findAll: %s", q).isEqualTo(1);
+			assertThat(q.count()).as("findAll: %s", q).isEqualTo(1);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			assertThat(ps.findByFirstName("Q00").getBody().getData()).hasSize(1);
+			assertThat(q.count()).as("findByFirstName: %s", q).isEqualTo(1);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			ps.findPage(null, 5, null);
+			assertThat(q.maxRepeats()).as("findPage: %s", q).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void groupBookingIsBatched() {
+		List<Passengers> group = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Passengers p = new Passengers();
+			p.setFirstName("G" + i);
+			group.add(p);
+		}
+		try (QueryCounter.Scope q = qc.open()) {
+			fs.savePassengersWithFlight(flightIds.get(1), group);
+			assertThat(q.countOf("insert into passengers")).as("%s", q).isEqualTo(1);
+			assertThat(q.count()).as("%s", q).isLessThanOrEqualTo(5);
+		}
+	}
+
+	@Test
+	void repeatedStatementsAreReportedAsOneShape() {
+		try (QueryCounter.Scope q = qc.open()) {
+			for (int id : flightIds) {
+				fr.findById(id);
+			}
+			fr.findAllById(flightIds.subList(0, 2));
+			fr.findAllById(flightIds);
+			assertThat(q.count()).isEqualTo(6);
+			assertThat(q.maxRepeats()).isEqualTo(4);
+			assertThat(q.countOf(" in (?...)")).isEqualTo(2);
+		}
+	}
+
+	@Test
+	@WithMockUser(roles = "CUSTOMER")
+	void requestsAreCountedThroughTheFilter() throws Exception {
+		try (QueryCounter.Scope q = qc.open()) {
+			mvc.perform(get("/FMS/findPage")).andExpect(jsonPath("$.data.items.length()").value(4));
+			assertThat(q.count()).isEqualTo(1);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.fullstack.FlightManagementSystem.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fullstack.FlightManagementSystem.Exception.BadRequestException;
+import com.fullstack.FlightManagementSystem.Exception.SeatUnavailableException;
+import com.fullstack.FlightManagementSystem.Model.Flight;
+import com.fullstack.FlightManagementSystem.Model.Passengers;
+import com.fullstack.FlightManagementSystem.Repository.FRepo;
+import com.fullstack.FlightManagementSystem.Repository.PRepo;
+
+@SpringBootTest
+class SeatInventoryStressTests {
+
+	private static final int CAPACITY = 50;
+	private static final int BOOKINGS = 400;
+
+	@Autowired
+	private FlightService fs;
+	@Autowired
+	private PassengerService ps;
+	@Autowired
+	private SeatInventory si;
+	@Autowired
+	private FRepo fr;
+	@Autowired
+	private PRepo pr;
+
+	@AfterEach
+	void cleanUp() {
+		pr.deleteAll();
+		fr.deleteAll();
+	}
+
+	private Flight saveFlight(Integer capacity) {
+		Flight f = new Flight();
+		f.setName("AI-" + capacity);
+		f.setSource("Delhi");
+		f.setDestination("Goa");
+		f.setPrice(BigDecimal.valueOf(5000));
+		f.setCapacity(capacity);
+		f.setDeparture(OffsetDateTime.parse("2026-11-02T06:30:00Z"));
+		return fs.saveData(f).getBody().getData();
+	}
+
+	//Fires every booking at once and returns how many got a seat
+	private int bookConcurrently(int flightId) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger rejected = new AtomicInteger();
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < BOOKINGS; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					try {
+						fs.savePassengerWithFlight(flightId, new Passengers());
+						return true;
+					} catch (SeatUnavailableException e) {
+						rejected.incrementAndGet();
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+			int booked = 0;
+			for (Future<Boolean> r : results) {
+				if (r.get()) {
+					booked++;
+				}
+			}
+			assertThat(booked + rejected.get()).isEqualTo(BOOKINGS);
+			return booked;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void neverOverbooksUnderContention() throws Exception {
+		Flight f = saveFlight(CAPACITY);
+
+		assertThat(bookConcurrently(f.getF_id())).isEqualTo(CAPACITY);
+		assertThat(pr.count()).isEqualTo(CAPACITY);
+		assertThat(fr.findSeatsAvailable(f.getF_id())).isZero();
+		assertThat(si.available(f.getF_id())).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void databaseGuardHoldsWhenTheCounterIsStale() throws Exception {
+		Flight f = saveFlight(CAPACITY);
+		//Pretend another instance has not told us about its bookings
+		Map<Integer, AtomicInteger> seats = (Map<Integer, AtomicInteger>) ReflectionTestUtils.getField(si, "seats");
+		seats.put(f.getF_id(), new AtomicInteger(CAPACITY * 4));
+
+		assertThat(bookConcurrently(f.getF_id())).isEqualTo(CAPACITY);
+		assertThat(pr.count()).isEqualTo(CAPACITY);
+		assertThat(fr.findSeatsAvailable(f.getF_id())).isZero();
+	}
+
+	@Test
+	void cancellationFreesTheSeat() {
+		Flight f = saveFlight(1);
+		Passengers p = fs.savePassengerWithFlight(f.getF_id(), new Passengers()).getBody().getData();
+		assertThatThrownBy(() -> fs.savePassengerWithFlight(f.getF_id(), new Passengers()))
+				.isInstanceOf(SeatUnavailableException.class);
+
+		ps.deleteData(p.getP_id());
+		assertThat(fr.findSeatsAvailable(f.getF_id())).isEqualTo(1);
+		fs.savePassengerWithFlight(f.getF_id(), new Passengers());
+		assertThat(fr.findSeatsAvailable(f.getF_id())).isZero();
+	}
+
+	@Test
+	void capacityCannotDropBelowBookedSeats() {
+		Flight f = saveFlight(3);
+		fs.savePassengerWithFlight(f.getF_id(), new Passengers());
+		fs.savePassengerWithFlight(f.getF_id(), new Passengers());
+
+		Flight smaller = withCapacity(f, 1);
+		assertThatThrownBy(() -> fs.update(smaller, f.getF_id())).isInstanceOf(BadRequestException.class);
+
+		fs.update(withCapacity(f, 5), f.getF_id());
+		assertThat(fr.findSeatsAvailable(f.getF_id())).isEqualTo(3);
+		assertThat(si.available(f.getF_id())).isEqualTo(3);
+	}
+
+	private static Flight withCapacity(Flight f, int capacity) {
+		Flight copy = new Flight();
+		copy.setName(f.getName());
+		copy.setSource(f.getSource());
+		copy.setDestination(f.getDestination());
+		copy.setPrice(f.getPrice());
+		copy.setCapacity(capacity);
+		copy.setDeparture(f.getDeparture());
+		return copy;
+	}
+}
@@ -0,0 +1,23 @@
+package com.fullstack.FlightManagementSystem;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+//Names an in-memory database for each test context (app.test-db), used by both the JDBC and the R2DBC url.
+//Contexts are cached and live side by side; sharing one database, a context starting later would drop and recreate
+//the tables and id sequences under the others. ${random.uuid} cannot do this: it is a new value on every lookup
+public class TestDatabaseName implements EnvironmentPostProcessor {
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		if (!environment.containsProperty("app.test-db")) {
+			environment.getPropertySources().addLast(new MapPropertySource("testDatabaseName",
+					Map.of("app.test-db", "fms-" + UUID.randomUUID())));
+		}
+	}
+}
@@ -3,6 +3,7 @@ import { Link } from "react-router-dom";
 import { useDispatch } from 'react-redux';
 import { authenticatedFetchJson } from '../Utils/authApi';
 import { addNewFlight } from "../Utils/addFlightSlice";
+import { toOffsetDateTime } from "../Utils/flightTimes";
 
 const AddFlight = () => {
   const dispatch = useDispatch();
@@ -11,7 +12,7 @@ const AddFlight = () => {
     name: "",
     source: "",
     destination: "",
-    time: "",
+    departure: "",
     price: "",
     img: "",
   });
@@ -21,7 +22,7 @@ const AddFlight = () => {
     e.preventDefault(); // Prevent form submission/navigation
     
     // VALIDATION: Check if all required fields are filled
-    if (!flight.name || !flight.source || !flight.destination || !flight.time || !flight.price) {
+    if (!flight.name || !flight.source || !flight.destination || !flight.departure || !flight.price) {
       alert('Please fill in all required fields!');
       return;
     }
@@ -36,7 +37,8 @@ const AddFlight = () => {
         url,
         {
           method: 'POST',
-          body: JSON.stringify(flight)
+          // The server derives the time of day from the departure
+          body: JSON.stringify({ ...flight, departure: toOffsetDateTime(flight.departure) })
         }
       );
       
@@ -54,7 +56,7 @@ const AddFlight = () => {
         name: "",
         source: "",
         destination: "",
-        time: "",
+        departure: "",
         price: "",
         img: "",
       });
@@ -126,14 +128,13 @@ const AddFlight = () => {
                 </div>
 
                 <div className="space-y-2">
-                  <label htmlFor="time" className="block text-sm font-semibold text-gray-700">Departure Time</label>
+                  <label htmlFor="departure" className="block text-sm font-semibold text-gray-700">Departure</label>
                   <input
-                    type="text"
-                    id="time"
-                    value={flight.time}
+                    type="datetime-local"
+                    id="departure"
+                    value={flight.departure}
                     className="w-full px-4 py-3 border border-gray-300 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent shadow-md transition-all duration-200 hover:shadow-lg"
-                    placeholder="HH:MM format"
-                    onChange={(e) => setFlight({ ...flight, time: e.target.value })}
+                    onChange={(e) => setFlight({ ...flight, departure: e.target.value })}
                   />
                 </div>
 
@@ -34,7 +34,7 @@ function Login() {
         name: response.name,
         email: response.email,
         role: response.role
-      }, response.token);
+      }, response.token, response.refreshToken);
       
       setMessage(`Login successful! Welcome ${response.name}`);
       
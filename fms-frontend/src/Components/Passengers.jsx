@@ -19,22 +19,21 @@ const Passengers = () => {
           headers["Authorization"] = `Bearer ${token}`;
         }
 
-        // const allFlightsRes = await fetch("http://localhost:8080/FMS/findAll", { // For local development
-        const allFlightsRes = await fetch(`${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/FMS/findAll`, {
+        // Flight listings only carry a passengerCount, the manifest comes from the single-flight endpoint
+        // const flightRes = await fetch("http://localhost:8080/FMS/find/" + id, { // For local development
+        const flightRes = await fetch(`${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/FMS/find/${id}`, {
           method: "GET",
           headers: headers,
         });
 
-        if (!allFlightsRes.ok) {
-          setPassengers({ passengers: [], name: `Flight ${id}` });
+        // find/{id} answers with 302 FOUND and the data in the body
+        if (!flightRes.ok && flightRes.status !== 302) {
+          setPassengers({ passengers: [], name: `Flight ${id} Not Found` });
           return;
         }
 
-        const allFlightsData = await allFlightsRes.json();
-        const flights = Array.isArray(allFlightsData.data)
-          ? allFlightsData.data
-          : [];
-        const targetFlight = flights.find((f) => f.f_id === parseInt(id));
+        const flightData = await flightRes.json();
+        const targetFlight = flightData ? flightData.data : null;
 
         if (!targetFlight) {
           setPassengers({ passengers: [], name: `Flight ${id} Not Found` });
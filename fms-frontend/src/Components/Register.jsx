@@ -42,7 +42,8 @@ function Register() {
           email: response.email,
           role: response.role,
         },
-        response.token
+        response.token,
+        response.refreshToken
       );
 
       setMessage(`Registration successful! Welcome ${response.name}`);
@@ -1,5 +1,6 @@
 import { useEffect, useState } from "react";
 import { Link, useParams, useNavigate } from "react-router-dom";
+import { toLocalInput, toOffsetDateTime } from "../Utils/flightTimes";
 
 const UpdateFlightById = () => {
   const [flight, setFlight] = useState(null);
@@ -82,7 +83,7 @@ const UpdateFlightById = () => {
           }
         }
         if (response && response.data) {
-          setFlight(response.data);
+          setFlight({ ...response.data, departure: toLocalInput(response.data.departure) });
         } else {
           alert("Flight not found or you do not have permission to view it.");
         }
@@ -117,9 +118,9 @@ const UpdateFlightById = () => {
   }, [id]);
   const handleUpdateFlight = async (fid, f) => {
     try {
-      if (!f.name || !f.source || !f.destination || !f.time) {
+      if (!f.name || !f.source || !f.destination || !f.departure) {
         alert(
-          "Please fill in all required fields (Name, Source, Destination, Time)"
+          "Please fill in all required fields (Name, Source, Destination, Departure)"
         );
         return;
       }
@@ -133,7 +134,9 @@ const UpdateFlightById = () => {
         name: f.name?.trim() || "",
         source: f.source?.trim() || "",
         destination: f.destination?.trim() || "",
-        time: f.time?.trim() || "",
+        // The server derives the time of day from the departure
+        departure: toOffsetDateTime(f.departure),
+        arrival: f.arrival || null,
         price: priceValue,
         img: f.img?.trim() || "",
       };
@@ -304,20 +307,19 @@ const UpdateFlightById = () => {
 
                 <div className="space-y-2">
                   <label
-                    htmlFor="time"
+                    htmlFor="departure"
                     className="block text-sm font-semibold text-gray-700"
                   >
-                    Departure Time
+                    Departure
                   </label>
                   <input
-                    type="text"
-                    id="time"
+                    type="datetime-local"
+                    id="departure"
                     className="w-full px-4 py-3 border border-gray-300 rounded-lg focus:ring-2 focus:ring-indigo-500 focus:border-transparent shadow-md transition-all duration-200 hover:shadow-lg"
-                    placeholder="HH:MM format"
                     onChange={(e) =>
-                      setFlight({ ...flight, time: e.target.value })
+                      setFlight({ ...flight, departure: e.target.value })
                     }
-                    value={flight.time || ""}
+                    value={flight.departure || ""}
                   />
                 </div>
 
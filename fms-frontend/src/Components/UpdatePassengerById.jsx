@@ -99,7 +99,9 @@ const UpdatePassengerById = () => {
 
         if (passengerData) {
           setPassengerById(passengerData);
-          if (passengerData.flight && passengerData.flight.f_id) {
+          if (passengerData.flightId) {
+            setFlightId(passengerData.flightId);
+          } else if (passengerData.flight && passengerData.flight.f_id) {
             setFlightId(passengerData.flight.f_id);
           } else {
             findFlightForPassenger(passengerData.p_id, token);
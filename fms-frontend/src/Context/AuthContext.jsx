@@ -1,4 +1,9 @@
 import { createContext, useContext, useState, useEffect } from 'react';
+import authService from '../Services/authService';
+import { refreshTokens } from '../Utils/authApi';
+
+// Renew the access token (15 minutes by default) before it runs out, for pages that call fetch directly
+const REFRESH_EVERY_MS = 10 * 60 * 1000;
 
 const AuthContext = createContext();
 
@@ -30,6 +35,7 @@ export const AuthProvider = ({ children }) => {
       } catch (error) {
         localStorage.removeItem('user');
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('role');
         setUser(null);
         setIsLoggedIn(false);
@@ -40,19 +46,38 @@ export const AuthProvider = ({ children }) => {
     }
   }, []);
 
-  const login = (userData, token) => {
+  useEffect(() => {
+    if (!isLoggedIn || !localStorage.getItem('refreshToken')) {
+      return undefined;
+    }
+    const timer = setInterval(() => {
+      refreshTokens().catch(() => {});
+    }, REFRESH_EVERY_MS);
+    return () => clearInterval(timer);
+  }, [isLoggedIn]);
+
+  const login = (userData, token, refreshToken) => {
     setUser(userData);
     setIsLoggedIn(true);
     localStorage.setItem('user', JSON.stringify(userData));
     localStorage.setItem('token', token);
+    if (refreshToken) {
+      localStorage.setItem('refreshToken', refreshToken);
+    }
     localStorage.setItem('role', userData.role);
   };
 
   const logout = () => {
+    const token = localStorage.getItem('token');
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (token || refreshToken) {
+      authService.logout(token, refreshToken).catch(() => {});
+    }
     setUser(null);
     setIsLoggedIn(false);
     localStorage.removeItem('user');
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('role');
   };
 
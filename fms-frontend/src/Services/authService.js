@@ -38,6 +38,34 @@ class AuthService {
 
     return await response.json();
   }
+
+  // Each refresh token works once: store the pair that comes back
+  async refresh(refreshToken) {
+    const response = await fetch(`${API_BASE_URL}/refresh`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+      },
+      body: JSON.stringify({ refreshToken })
+    });
+
+    if (!response.ok) {
+      throw new Error('Session expired');
+    }
+
+    return await response.json();
+  }
+
+  async logout(token, refreshToken) {
+    await fetch(`${API_BASE_URL}/logout`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        ...(token ? { 'Authorization': `Bearer ${token}` } : {})
+      },
+      body: JSON.stringify({ refreshToken })
+    });
+  }
 }
 
 export default new AuthService();
@@ -1,5 +1,8 @@
+import authService from '../Services/authService';
+
 export const forceLoginRedirect = () => {
   localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
   localStorage.removeItem('user');
   localStorage.removeItem('role');
   window.location.replace('/login');
@@ -7,6 +10,7 @@ export const forceLoginRedirect = () => {
 
 const handleAuthenticationError = (reason = 'Session expired') => {
   localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
   localStorage.removeItem('user');
   localStorage.removeItem('role');
   
@@ -29,7 +33,27 @@ const handleAuthenticationError = (reason = 'Session expired') => {
   window.location.href = '/login';
 };
 
-export const authenticatedFetch = async (url, options = {}) => {
+// Access tokens are short lived: swap the stored refresh token for a new pair. Concurrent callers share one
+// refresh, since the server accepts each refresh token only once
+let refreshing = null;
+
+export const refreshTokens = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = (refreshToken ? authService.refresh(refreshToken) : Promise.reject(new Error('No refresh token')))
+      .then((data) => {
+        localStorage.setItem('token', data.token);
+        localStorage.setItem('refreshToken', data.refreshToken);
+        return data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+export const authenticatedFetch = async (url, options = {}, retried = false) => {
   let token = localStorage.getItem('token');
   
   if (!token) {
@@ -63,8 +87,18 @@ export const authenticatedFetch = async (url, options = {}) => {
       }
     }
     
+    if (response.status === 401 && !retried) {
+      try {
+        await refreshTokens();
+        return await authenticatedFetch(url, options, true);
+      } catch (refreshError) {
+        // fall through to the logout below
+      }
+    }
+
     if (response.status === 401) {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       localStorage.removeItem('role');
       throw new Error('Authentication failed - please login again');
@@ -0,0 +1,25 @@
+// The API stores departures as ISO-8601 date-times with an offset; <input type="datetime-local">
+// works in the browser's local time without one
+
+const pad = (n) => String(n).padStart(2, '0');
+
+// "2026-11-02T06:30" (local) -> "2026-11-02T06:30:00+05:30"
+export const toOffsetDateTime = (local) => {
+  if (!local) {
+    return null;
+  }
+  const d = new Date(local);
+  const minutes = -d.getTimezoneOffset();
+  const sign = minutes >= 0 ? '+' : '-';
+  const abs = Math.abs(minutes);
+  return `${local.length === 16 ? local + ':00' : local}${sign}${pad(Math.floor(abs / 60))}:${pad(abs % 60)}`;
+};
+
+// Any ISO-8601 instant from the API -> "2026-11-02T06:30" in local time, for the input's value
+export const toLocalInput = (iso) => {
+  if (!iso) {
+    return '';
+  }
+  const d = new Date(iso);
+  return `${d.getFullYear()}-${pad(d.getMonth() + 1)}-${pad(d.getDate())}T${pad(d.getHours())}:${pad(d.getMinutes())}`;
+};
@@ -1,4 +1,5 @@
 import { useEffect, useState } from "react";
+import { authenticatedFetch } from "./authApi";
 
 /**
  * Custom hook to fetch all flights with JWT authentication
@@ -25,15 +26,10 @@ const useFetchFlights = () => {
                     return;
                 }
                 
-                const headers = {
-                    'Content-Type': 'application/json',
-                    'Authorization': `Bearer ${token}`
-                };
-                
+                // Goes through authenticatedFetch so an expired access token is refreshed once before giving up
                 // const allFlights = await fetch("http://localhost:8080/FMS/findAll", { // For local development
-                const allFlights = await fetch(`${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/FMS/findAll`, {
-                    method: 'GET',
-                    headers: headers
+                const allFlights = await authenticatedFetch(`${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/FMS/findAll`, {
+                    method: 'GET'
                 });
                 
                 if (!allFlights.ok) {